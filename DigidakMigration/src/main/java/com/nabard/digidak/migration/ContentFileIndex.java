@@ -0,0 +1,64 @@
+package com.nabard.digidak.migration;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * File names of one Digidak record directory, listed once.
+ * The directory is read with a single list() call and every content lookup for its documents
+ * is a hash lookup, instead of one File.exists() probe per candidate name on the export share.
+ * Names that differ only in case still match, as they did with File.exists() on the share.
+ */
+public final class ContentFileIndex {
+
+    private final Map<String, File> filesByName;
+    private final Map<String, File> filesByLowerCaseName;
+
+    private ContentFileIndex(Map<String, File> filesByName, Map<String, File> filesByLowerCaseName) {
+        this.filesByName = filesByName;
+        this.filesByLowerCaseName = filesByLowerCaseName;
+    }
+
+    /**
+     * Lists the directory. An unreadable directory gives an empty index.
+     */
+    public static ContentFileIndex of(File directory) {
+        Map<String, File> files = new HashMap<>();
+        Map<String, File> lowerCaseFiles = new HashMap<>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                File file = new File(directory, name);
+                files.put(name, file);
+                lowerCaseFiles.putIfAbsent(name.toLowerCase(Locale.ROOT), file);
+            }
+        }
+        return new ContentFileIndex(Collections.unmodifiableMap(files), Collections.unmodifiableMap(lowerCaseFiles));
+    }
+
+    /**
+     * Returns the first candidate name present in the directory, or null.
+     * An exact match is preferred over one that differs only in case.
+     */
+    public File find(String... candidateNames) {
+        for (String name : candidateNames) {
+            if (name != null) {
+                File file = filesByName.get(name);
+                if (file == null) {
+                    file = filesByLowerCaseName.get(name.toLowerCase(Locale.ROOT));
+                }
+                if (file != null) {
+                    return file;
+                }
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return filesByName.size();
+    }
+}
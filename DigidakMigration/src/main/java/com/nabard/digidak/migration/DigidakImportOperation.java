@@ -3,6 +3,7 @@ package com.nabard.digidak.migration;
 import com.documentum.fc.client.IDfFolder;
 import com.documentum.fc.client.IDfSession;
 import com.documentum.fc.client.IDfSysObject;
+import com.documentum.fc.client.IDfType;
 import com.documentum.fc.client.IDfPersistentObject;
 import com.documentum.fc.common.DfException;
 import com.documentum.fc.client.IDfQuery;
@@ -34,8 +35,7 @@ public class DigidakImportOperation {
     private static final ExecutorService fileSetExecutor = Executors.newCachedThreadPool();
 
     // Import Log File Writer
-    private BufferedWriter importLogWriter = null;
-    private String importLogFilePath = null;
+    private ImportAuditLog importLog = null;
 
     // Mapping Configurations
     private Map<String, String> digidakMapping = new HashMap<>();
@@ -52,10 +52,27 @@ public class DigidakImportOperation {
     private String documentType;
 
     private Map<String, String> formatMapping = new HashMap<>();
+    private volatile FormatRegistry formatRegistry;
     private String dateFormat = "dd/MM/yyyy, h:mm:ss a"; // Default
 
     private int fileTimeoutMinutes = 5;
 
+    // Prefetched object names per target path, used to skip getObjectByPath for new names
+    private final ExistingNameIndex existingNames = new ExistingNameIndex();
+
+    // Repeating attribute source: off, memory (loadRepeatingAttributes) or mergejoin (streaming)
+    private String repeatingMode = "off";
+
+    // Migration run tagging (used by rollbackRun). The tag attribute is a single-valued string
+    // attribute present on every migrated type (log_entry is inherited from dm_sysobject);
+    // it must never be one that is migrated from the source.
+    private static final String RUN_TAG_PREFIX = "digidak_run:";
+    public static final String DEFAULT_RUN_TAG_ATTRIBUTE = "log_entry";
+    // Object ids per DELETE ... WHERE r_object_id IN (...) during rollback
+    private static final int ROLLBACK_CHUNK_SIZE = 250;
+    private String runId;
+    private String runTagAttribute = DEFAULT_RUN_TAG_ATTRIBUTE;
+
     /**
      * Sets all configuration mappings for the import operation.
      */
@@ -74,97 +91,123 @@ public class DigidakImportOperation {
         this.documentType = documentType;
         this.documentMapping = documentMapping;
         this.formatMapping = formatMapping;
+        this.formatRegistry = null;
         if (dateFormat != null && !dateFormat.isEmpty()) {
             this.dateFormat = dateFormat;
         }
         this.fileTimeoutMinutes = fileTimeoutMinutes;
     }
 
+    /**
+     * Sets the migration run id stamped on every created object, and the dedicated single-valued attribute
+     * that carries it. When no run id is set, one is generated from the start time of the import.
+     */
+    public void setRunTag(String runId, String runTagAttribute) {
+        this.runId = runId;
+        if (runTagAttribute != null && !runTagAttribute.isEmpty()) {
+            this.runTagAttribute = runTagAttribute;
+        }
+    }
+
+    /**
+     * Sets how repeating_*.csv values are applied: "off", "memory" or "mergejoin".
+     */
+    public void setRepeatingMode(String repeatingMode) {
+        if (repeatingMode != null && !repeatingMode.isEmpty()) {
+            this.repeatingMode = repeatingMode.toLowerCase();
+        }
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    private String runTag(String id) {
+        return RUN_TAG_PREFIX + id;
+    }
+
+    /**
+     * The run tag attribute must exist as a single-valued attribute, long enough for the tag, on
+     * every migrated type, and must not share an attribute with migrated data, or it would end up
+     * in (or be overwritten by) user-visible metadata.
+     */
+    private void validateRunTagAttribute(IDfSession session, String tag) throws DfException {
+        for (String type : migratedTypes()) {
+            IDfType dfType = session.getType(type);
+            if (dfType == null || dfType.findTypeAttrIndex(runTagAttribute) < 0) {
+                throw new IllegalStateException("import.run.tag.attribute '" + runTagAttribute
+                        + "' is not an attribute of " + type);
+            }
+            if (dfType.isTypeAttrRepeating(runTagAttribute)) {
+                throw new IllegalStateException("import.run.tag.attribute '" + runTagAttribute
+                        + "' is repeating on " + type + "; configure a single-valued attribute");
+            }
+            if (dfType.getTypeAttrLength(runTagAttribute) < tag.length()) {
+                throw new IllegalStateException("import.run.tag.attribute '" + runTagAttribute + "' on " + type
+                        + " is shorter than the run tag '" + tag + "'");
+            }
+        }
+
+        boolean migrated = digidakConstants != null && digidakConstants.containsKey(runTagAttribute);
+        for (Map<String, String> mapping : Arrays.asList(digidakMapping, movementMapping, notesheetMapping,
+                documentMapping)) {
+            migrated |= mapping != null && mapping.containsValue(runTagAttribute);
+        }
+        if (migrated) {
+            throw new IllegalStateException("import.run.tag.attribute '" + runTagAttribute
+                    + "' is also a migrated attribute; configure a dedicated attribute");
+        }
+    }
+
+    /**
+     * Object types created by the import (configured, de-duplicated).
+     */
+    private Set<String> migratedTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        for (String type : Arrays.asList(digidakType, movementType, notesheetType, documentType)) {
+            if (type != null && !type.isEmpty()) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
     /**
      * Initializes the import log file with CSV headers.
-     * Creates a timestamped log file in the logs/ directory.
+     * Creates a timestamped log file in the logs/ directory, written asynchronously by {@link ImportAuditLog}.
      */
     private void initImportLog() {
         try {
-            File logsDir = new File("logs");
-            if (!logsDir.exists()) {
-                logsDir.mkdirs();
-            }
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            importLogFilePath = "logs" + File.separator + "import_log_" + timestamp + ".csv";
-            importLogWriter = new BufferedWriter(new FileWriter(importLogFilePath));
-            // Write CSV header
-            importLogWriter.write("Timestamp,Row_Number,Object_Name,R_Object_ID,Status,Error_Message,Movements_Imported,Documents_Imported");
-            importLogWriter.newLine();
-            importLogWriter.flush();
-            logger.info("Import log file created: " + importLogFilePath);
+            importLog = ImportAuditLog.open("logs");
         } catch (IOException e) {
             logger.error("Failed to create import log file", e);
         }
     }
 
     /**
-     * Writes a single record entry to the import log file.
+     * Queues a single record entry for the import log file.
      */
     private void writeImportLog(int rowNumber, String objectName, String rObjectId, 
             String status, String errorMessage, int movementsImported, int documentsImported) {
-        if (importLogWriter == null) return;
-        try {
-            String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-            String safeObjectName = (objectName != null) ? objectName.replace(",", ";").replace("\"", "'") : "";
-            String safeError = (errorMessage != null) ? errorMessage.replace(",", ";").replace("\"", "'").replace("\n", " ").replace("\r", "") : "";
-            String safeRObjectId = (rObjectId != null) ? rObjectId : "";
-            
-            importLogWriter.write(String.format("%s,%d,\"%s\",%s,%s,\"%s\",%d,%d",
-                    timestamp, rowNumber, safeObjectName, safeRObjectId, status, safeError, 
-                    movementsImported, documentsImported));
-            importLogWriter.newLine();
-            importLogWriter.flush();
-        } catch (IOException e) {
-            logger.error("Failed to write to import log", e);
-        }
+        if (importLog == null) return;
+        importLog.record(rowNumber, objectName, rObjectId, status, errorMessage, movementsImported, documentsImported);
     }
 
     /**
-     * Writes a summary line to the import log file.
+     * Records the summary written at the end of the import log file.
      */
     private void writeImportLogSummary(int totalProcessed, int totalSuccess, int totalFailed, long durationMs) {
-        if (importLogWriter == null) return;
-        try {
-            importLogWriter.newLine();
-            importLogWriter.write("# ========== IMPORT SUMMARY ==========");
-            importLogWriter.newLine();
-            importLogWriter.write("# Total Records Processed: " + totalProcessed);
-            importLogWriter.newLine();
-            importLogWriter.write("# Successful: " + totalSuccess);
-            importLogWriter.newLine();
-            importLogWriter.write("# Failed: " + totalFailed);
-            importLogWriter.newLine();
-            long durationSeconds = durationMs / 1000;
-            long hours = durationSeconds / 3600;
-            long minutes = (durationSeconds % 3600) / 60;
-            long seconds = durationSeconds % 60;
-            importLogWriter.write("# Duration: " + String.format("%02d:%02d:%02d", hours, minutes, seconds));
-            importLogWriter.newLine();
-            importLogWriter.write("# =====================================");
-            importLogWriter.newLine();
-            importLogWriter.flush();
-        } catch (IOException e) {
-            logger.error("Failed to write import log summary", e);
-        }
+        if (importLog == null) return;
+        importLog.summary(totalProcessed, totalSuccess, totalFailed, durationMs);
     }
 
     /**
-     * Closes the import log file writer.
+     * Drains pending entries and closes the import log file.
      */
     private void closeImportLog() {
-        if (importLogWriter != null) {
-            try {
-                importLogWriter.close();
-                logger.info("Import log file closed: " + importLogFilePath);
-            } catch (IOException e) {
-                logger.error("Failed to close import log file", e);
-            }
+        if (importLog != null) {
+            importLog.close();
+            importLog = null;
         }
     }
 
@@ -181,6 +224,16 @@ public class DigidakImportOperation {
         initImportLog();
         long startTime = System.currentTimeMillis();
 
+        if (runId == null || runId.isEmpty()) {
+            runId = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date(startTime));
+        }
+        logger.info("Migration Run Id: " + runId + " (tag '" + runTag(runId) + "' on " + runTagAttribute + ")");
+        try {
+            validateRunTagAttribute(session, runTag(runId));
+        } catch (DfException e) {
+            throw new IllegalStateException("Could not check import.run.tag.attribute: " + e.getMessage(), e);
+        }
+
         // ensureTargetPath SKIPPED - /Digidak Legacy already exists (confirmed via DQL)
         logger.info("Skipping ensureTargetPath - target path assumed to exist: " + targetPath);
         // try {
@@ -192,9 +245,10 @@ public class DigidakImportOperation {
         //      return;
         // }
 
-        // Load repeating attributes from separate CSV files - SKIPPED for now
-        // Map<String, Map<String, List<String>>> keywordsMap = loadRepeatingAttributes(exportBaseDir);
-        Map<String, Map<String, List<String>>> keywordsMap = new HashMap<>();
+        // Load repeating attributes from separate CSV files (off by default)
+        Map<String, Map<String, List<String>>> keywordsMap = "memory".equals(repeatingMode)
+                ? loadRepeatingAttributes(exportBaseDir)
+                : new HashMap<>();
 
         File csvFile = new File(csvFilePath);
         if (!csvFile.exists()) {
@@ -202,6 +256,23 @@ public class DigidakImportOperation {
             return;
         }
 
+        // Merge-join mode streams repeating values alongside a master CSV sorted on r_object_id
+        RepeatingAttributeMergeJoin repeatingJoin = null;
+        File sourceFile = csvFile;
+        if ("mergejoin".equals(repeatingMode)) {
+            try {
+                repeatingJoin = RepeatingAttributeMergeJoin.open(exportBaseDir);
+                sourceFile = repeatingJoin.sortMaster(csvFile, findColumn(csvFile, "r_object_id"));
+            } catch (IOException e) {
+                logger.error("Failed to prepare repeating attribute merge-join, continuing without repeating values", e);
+                if (repeatingJoin != null) {
+                    repeatingJoin.close();
+                    repeatingJoin = null;
+                }
+                sourceFile = csvFile;
+            }
+        }
+
         File tempFile = new File(csvFilePath + ".tmp");
 
         // Count for final stats
@@ -209,7 +280,7 @@ public class DigidakImportOperation {
         final AtomicInteger failedCounter = new AtomicInteger(0);
         final AtomicInteger processedCounter = new AtomicInteger(0);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile));
+        try (BufferedReader reader = new BufferedReader(new FileReader(sourceFile));
                 BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
 
             String headerLine = reader.readLine();
@@ -320,7 +391,10 @@ public class DigidakImportOperation {
                             String digidakName = values.get(objectNameIdx);
                             if (digidakName != null && !digidakName.isEmpty()) {
                                 String fullPath = rowTargetPath + (rowTargetPath.endsWith("/") ? "" : "/") + digidakName;
-                                IDfSysObject existingObj = (IDfSysObject) localSession.getObjectByPath(fullPath);
+                                // Only go to the server when the prefetched names say it might exist
+                                IDfSysObject existingObj = existingNames.mightExist(localSession, rowTargetPath, digidakName)
+                                        ? (IDfSysObject) localSession.getObjectByPath(fullPath)
+                                        : null;
                                 if (existingObj != null) {
                                     if (!cleanupDigidak(localSession, existingObj, fullPath)) {
                                         logger.error("Skipping Digidak import because cleanup failed for: " + digidakName);
@@ -336,13 +410,22 @@ public class DigidakImportOperation {
 
                         if (rObjectIdIdx != -1 && rObjectIdIdx < values.size()) {
                             String rObjectId = values.get(rObjectIdIdx);
-                            Map<String, List<String>> attributes = keywordsMap.get(rObjectId);
+                            Map<String, List<String>> attributes = (repeatingJoin != null)
+                                    ? repeatingJoin.valuesFor(rObjectId)
+                                    : keywordsMap.get(rObjectId);
                             
                             if (attributes != null) {
                                 for (Map.Entry<String, List<String>> entry : attributes.entrySet()) {
                                     String attrName = entry.getKey();
                                     List<String> attrValues = entry.getValue();
                                     
+                                    if (attrName.equals(runTagAttribute)) {
+                                        // Never overwrite the run tag with source data
+                                        logger.warn("Skipping repeating values for run tag attribute " + attrName
+                                                + " on " + digidakObj.getObjectName());
+                                        continue;
+                                    }
+
                                     // Check if attribute exists on object
                                     if (digidakObj.hasAttr(attrName)) {
                                         // Clear existing values if any (for safety, though object is new)
@@ -370,6 +453,7 @@ public class DigidakImportOperation {
                         }
 
                         String digidakFolderName = digidakObj.getObjectName();
+                        existingNames.add(rowTargetPath, digidakFolderName);
                         logger.info("Imported Digidak Folder: " + digidakFolderName);
 
                         // Hierarchical Import
@@ -423,12 +507,21 @@ public class DigidakImportOperation {
             logger.info("Import completed. Total Digidak records processed: " + processedCounter.get()
                     + ", Successful or Pre-existing: " + successCounter.get()
                     + ", Failed: " + failedCounter.get());
+            logger.info("Existence checks: " + existingNames.getServerChecksAvoided() + " answered from prefetch, "
+                    + existingNames.getServerChecksNeeded() + " confirmed on server");
             writeImportLogSummary(processedCounter.get(), successCounter.get(), failedCounter.get(), duration);
         } catch (Exception e) {
             logger.error("Error during import operation", e);
             writeImportLog(0, "N/A", "N/A", "FATAL_ERROR", e.getMessage(), 0, 0);
             closeImportLog();
             return; // Exit if file error
+        } finally {
+            if (sourceFile != csvFile && !sourceFile.delete()) {
+                logger.warn("Failed to delete sorted master CSV: " + sourceFile.getAbsolutePath());
+            }
+            if (repeatingJoin != null) {
+                repeatingJoin.close();
+            }
         }
 
         // Replace original file
@@ -467,6 +560,25 @@ public class DigidakImportOperation {
         writer.write(sb.toString());
     }
 
+    /**
+     * Returns the index of a header column in a CSV file, or 0 if it is not present.
+     */
+    private int findColumn(File csvFile, String columnName) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+            String headerLine = reader.readLine();
+            if (headerLine != null) {
+                String[] headers = parseCsvLine(headerLine);
+                for (int i = 0; i < headers.length; i++) {
+                    if (headers[i].equalsIgnoreCase(columnName)) {
+                        return i;
+                    }
+                }
+            }
+        }
+        logger.warn("Column " + columnName + " not found in " + csvFile.getName() + ", using first column");
+        return 0;
+    }
+
     /**
      * Loads repeating attributes from all repeating_*.csv files in the export directory.
      * Returns Map<ObjectId, Map<AttributeName, List<Value>>>
@@ -631,6 +743,8 @@ public class DigidakImportOperation {
 
         logger.info("Importing documents from: " + docMetadataCsv.getAbsolutePath());
         int count = 0;
+        // List the record directory once for all of its documents
+        ContentFileIndex contentFiles = ContentFileIndex.of(digidakDir);
         try (BufferedReader reader = new BufferedReader(new FileReader(docMetadataCsv))) {
             String headerLine = reader.readLine();
             if (headerLine == null) return 0;
@@ -667,17 +781,16 @@ public class DigidakImportOperation {
 
                     // Set content
                     if (!originalObjectName.isEmpty()) {
-                        File contentFile = new File(digidakDir, originalObjectName);
-                        
-                        // Try various file existence checks
-                        if (!contentFile.exists()) contentFile = new File(digidakDir, cleanObjectName(originalObjectName));
-                        if (!contentFile.exists()) contentFile = new File(digidakDir, originalObjectName + ".docx");
-                        if (!contentFile.exists() && originalObjectName.contains(".")) {
-                            String ext = originalObjectName.substring(originalObjectName.lastIndexOf('.'));
-                             contentFile = new File(digidakDir, originalObjectName + ext);
-                        }
-
-                        if (contentFile.exists()) {
+                        // Try the same name variants against the directory listing
+                        String doubledExtName = originalObjectName.contains(".")
+                                ? originalObjectName + originalObjectName.substring(originalObjectName.lastIndexOf('.'))
+                                : null;
+                        File contentFile = contentFiles.find(originalObjectName,
+                                cleanObjectName(originalObjectName),
+                                originalObjectName + ".docx",
+                                doubledExtName);
+
+                        if (contentFile != null) {
                             String fmt = detectFormat(session, contentFile.getName());
                             if (!"unknown".equals(fmt)) {
                                 docObj.setContentType(fmt);
@@ -706,10 +819,28 @@ public class DigidakImportOperation {
         return count;
     }
 
+    /**
+     * Returns the format registry, loading it on first use.
+     * A failed load is not cached, so the next call queries dm_format again.
+     */
+    private FormatRegistry getFormatRegistry(IDfSession session) throws DfException {
+        FormatRegistry registry = formatRegistry;
+        if (registry == null) {
+            synchronized (this) {
+                registry = formatRegistry;
+                if (registry == null) {
+                    registry = FormatRegistry.load(session, formatMapping);
+                    formatRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
     /**
      * Detects Documentum format from file name.
      */
-    private String detectFormat(IDfSession session, String fileName) {
+    private String detectFormat(IDfSession session, String fileName) throws DfException {
         if (fileName == null || fileName.isEmpty())
             return "unknown";
 
@@ -722,26 +853,13 @@ public class DigidakImportOperation {
         if (ext.isEmpty())
             return "unknown";
 
-        // 1. Check configured map
-        if (formatMapping.containsKey(ext)) {
-            String fmt = formatMapping.get(ext);
-            logger.debug("Format detected locally: " + fmt + " for extension: " + ext);
+        // Configured mapping layered over all of dm_format, loaded once
+        String fmt = getFormatRegistry(session).getFormat(ext);
+        if (fmt != null) {
+            logger.debug("Format detected: " + fmt + " for extension: " + ext);
             return fmt;
         }
 
-        // 2. Lookup in Documentum
-        String qual = "dm_format where dos_extension = '" + ext + "'";
-        try {
-            IDfPersistentObject fmt = session.getObjectByQualification(qual);
-            if (fmt != null) {
-                String fmtName = fmt.getString("name");
-                logger.debug("Format detected via DB: " + fmtName + " for extension: " + ext);
-                return fmtName;
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to lookup format for extension: " + ext);
-        }
-
         logger.warn("No format found for extension: " + ext);
         return "unknown";
     }
@@ -786,6 +904,11 @@ public class DigidakImportOperation {
             if (constants == null || !constants.containsKey("is_migrated")) {
                 safeObjectApiSet(session.getObject(new DfId(newId)), "is_migrated", "T");
             }
+
+            // Tag with migration run id
+            if (runId != null) {
+                session.apiSet("set", newId + "," + runTagAttribute, runTag(runId));
+            }
             
             // Link to target path
             if (targetPath != null && !targetPath.isEmpty()) {
@@ -807,6 +930,11 @@ public class DigidakImportOperation {
             if (obj.hasAttr("is_migrated")) {
                 obj.setBoolean("is_migrated", true);
             }
+
+            // Tag with migration run id (the attribute is checked on every type at start)
+            if (runId != null) {
+                obj.setString(runTagAttribute, runTag(runId));
+            }
         }
 
         return obj;
@@ -1060,6 +1188,123 @@ public class DigidakImportOperation {
         session.apiExec("destroy", objId);
     }
 
+    /**
+     * Removes every object created by a migration run using set-based DQL.
+     * Leaf objects (documents, movement registers) are deleted first. The run's cms_digidak_folder
+     * ids are collected next, the folders downgraded to dm_folder and deleted bottom-up by id.
+     */
+    public void rollbackRun(IDfSession session, String rollbackRunId) throws DfException {
+        if (rollbackRunId == null || rollbackRunId.isEmpty()) {
+            throw new IllegalArgumentException("Run id is required for rollback");
+        }
+        validateRunTagAttribute(session, runTag(rollbackRunId));
+        String tagCondition = runTagAttribute + " = '" + runTag(rollbackRunId).replace("'", "''") + "'";
+        logger.info("Rolling back migration run: " + rollbackRunId + " (" + tagCondition + ")");
+        long startTime = System.currentTimeMillis();
+
+        // 1. Leaf types first
+        Set<String> leafTypes = new LinkedHashSet<>(migratedTypes());
+        leafTypes.remove("cms_digidak_folder");
+        for (String type : leafTypes) {
+            int deleted = executeCountQuery(session, "DELETE " + type + " (ALL) OBJECTS WHERE " + tagCondition);
+            logger.info("Rollback: deleted " + deleted + " " + type + " objects");
+        }
+
+        // 2. Folders: collect their ids while still tagged, downgrade to avoid TBO on delete,
+        //    then delete empty folders by id until none are left
+        if ("cms_digidak_folder".equals(digidakType)) {
+            List<String> folderIds = selectObjectIds(session,
+                    "SELECT r_object_id FROM cms_digidak_folder WHERE " + tagCondition);
+            int changed = executeCountQuery(session,
+                    "CHANGE cms_digidak_folder OBJECTS TO \"dm_folder\" WHERE " + tagCondition);
+            logger.info("Rollback: downgraded " + changed + " of " + folderIds.size()
+                    + " cms_digidak_folder objects to dm_folder");
+
+            int pass = 0;
+            int deleted;
+            do {
+                deleted = 0;
+                for (String inList : idInLists(folderIds)) {
+                    deleted += executeCountQuery(session,
+                            "DELETE dm_folder OBJECTS WHERE r_object_id IN (" + inList + ") AND r_link_cnt = 0");
+                }
+                pass++;
+                logger.info("Rollback: pass " + pass + " deleted " + deleted + " folders");
+            } while (deleted > 0);
+
+            int remaining = 0;
+            for (String inList : idInLists(folderIds)) {
+                remaining += executeCountQuery(session,
+                        "SELECT COUNT(*) AS cnt FROM dm_folder WHERE r_object_id IN (" + inList + ")");
+            }
+            if (remaining > 0) {
+                logger.warn("Rollback: " + remaining + " folders of run " + rollbackRunId
+                        + " still contain objects not created by this run and were kept");
+            }
+        }
+
+        logger.info("Rollback of run " + rollbackRunId + " completed in "
+                + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    /**
+     * Runs a DQL select and returns the r_object_id of every row.
+     */
+    private List<String> selectObjectIds(IDfSession session, String dql) throws DfException {
+        logger.debug("Executing DQL: " + dql);
+        List<String> ids = new ArrayList<>();
+        IDfQuery q = new DfQuery();
+        q.setDQL(dql);
+        IDfCollection c = null;
+        try {
+            c = q.execute(session, IDfQuery.DF_READ_QUERY);
+            while (c.next()) {
+                ids.add(c.getString("r_object_id"));
+            }
+        } finally {
+            if (c != null) c.close();
+        }
+        return ids;
+    }
+
+    /**
+     * Quoted IN (...) lists of at most ROLLBACK_CHUNK_SIZE object ids each.
+     */
+    private static List<String> idInLists(List<String> ids) {
+        List<String> inLists = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += ROLLBACK_CHUNK_SIZE) {
+            StringBuilder inList = new StringBuilder();
+            for (String id : ids.subList(i, Math.min(i + ROLLBACK_CHUNK_SIZE, ids.size()))) {
+                if (inList.length() > 0) {
+                    inList.append(",");
+                }
+                inList.append("'").append(id).append("'");
+            }
+            inLists.add(inList.toString());
+        }
+        return inLists;
+    }
+
+    /**
+     * Executes a DQL statement and returns the count reported in the first column of its result.
+     */
+    private int executeCountQuery(IDfSession session, String dql) throws DfException {
+        logger.debug("Executing DQL: " + dql);
+        IDfQuery q = new DfQuery();
+        q.setDQL(dql);
+        IDfCollection c = null;
+        try {
+            c = q.execute(session, IDfQuery.DF_QUERY);
+            if (c.next()) {
+                String value = c.getValueAt(0).asString();
+                return (value == null || value.isEmpty()) ? 0 : Integer.parseInt(value.trim());
+            }
+            return 0;
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
     /**
      * Parses a CSV line handling quoted values.
      */
@@ -1147,6 +1392,9 @@ public class DigidakImportOperation {
             }
 
             DigidakImportOperation importer = new DigidakImportOperation();
+            importer.setRunTag(prop.getProperty("import.run.id", "").trim(),
+                    prop.getProperty("import.run.tag.attribute", DEFAULT_RUN_TAG_ATTRIBUTE).trim());
+            importer.setRepeatingMode(prop.getProperty("import.repeating.mode", "off").trim());
             importer.setConfigurations(
                     prop.getProperty("import.digidak.object_type", "cms_digidak_folder").trim(),
                     getMapping(prop, "import.digidak.mapping."),
@@ -1173,6 +1421,13 @@ public class DigidakImportOperation {
         DocumentumSessionManager.initSessionManager(repo, user, pass);
             IDfSession session = DocumentumSessionManager.getSession(repo);
 
+            // Usage: rollback <runId> - removes everything created by that run instead of importing
+            if (args.length >= 2 && "rollback".equalsIgnoreCase(args[0])) {
+                importer.rollbackRun(session, args[1].trim());
+                DocumentumSessionManager.releaseSession(session);
+                return;
+            }
+
             List<String> userCsvFiles = Arrays.asList(
                 "DigidakSingleRecords_Export.csv"
                 // "DigidakGroupRecords_Export.csv",
@@ -0,0 +1,238 @@
+package com.nabard.digidak.migration;
+
+import com.documentum.fc.client.DfQuery;
+import com.documentum.fc.client.IDfCollection;
+import com.documentum.fc.client.IDfQuery;
+import com.documentum.fc.client.IDfSession;
+import com.documentum.fc.common.DfException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Prefetched object_name index per target folder path.
+ * The first lookup for a path loads every object_name under it with one DQL. Small folders are
+ * held in a hash set; folders above the threshold are held in a Bloom filter. A negative answer is
+ * definitive, so the importer only goes to the server (getObjectByPath) when a name might exist.
+ */
+public class ExistingNameIndex {
+
+    private static final Logger logger = LogManager.getLogger(ExistingNameIndex.class);
+
+    public static final int DEFAULT_HASH_SET_THRESHOLD = 100000;
+    public static final int DEFAULT_BLOOM_CAPACITY = 2000000;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final int hashSetThreshold;
+    private final int bloomCapacity;
+    private final Map<String, NameSet> namesByPath = new ConcurrentHashMap<>();
+    private final AtomicLong serverChecksAvoided = new AtomicLong(0);
+    private final AtomicLong serverChecksNeeded = new AtomicLong(0);
+
+    public ExistingNameIndex() {
+        this(DEFAULT_HASH_SET_THRESHOLD, DEFAULT_BLOOM_CAPACITY);
+    }
+
+    public ExistingNameIndex(int hashSetThreshold, int bloomCapacity) {
+        this.hashSetThreshold = hashSetThreshold;
+        this.bloomCapacity = bloomCapacity;
+    }
+
+    /**
+     * Returns false only if no object with this name exists under the path (as of the prefetch,
+     * plus names added since). True means the caller must confirm with the server.
+     */
+    public boolean mightExist(IDfSession session, String folderPath, String objectName) {
+        NameSet names = namesByPath.computeIfAbsent(folderPath, p -> prefetch(session, p));
+        boolean result = names.mightContain(objectName);
+        if (result) {
+            serverChecksNeeded.incrementAndGet();
+        } else {
+            serverChecksAvoided.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Records a name created under the path so later rows see it.
+     */
+    public void add(String folderPath, String objectName) {
+        NameSet names = namesByPath.get(folderPath);
+        if (names != null) {
+            names.add(objectName);
+        }
+    }
+
+    public long getServerChecksAvoided() {
+        return serverChecksAvoided.get();
+    }
+
+    public long getServerChecksNeeded() {
+        return serverChecksNeeded.get();
+    }
+
+    private NameSet prefetch(IDfSession session, String folderPath) {
+        long startTime = System.currentTimeMillis();
+        NameSet names = new NameSet(hashSetThreshold, bloomCapacity);
+        String dql = "SELECT object_name FROM dm_sysobject (ALL) WHERE FOLDER('"
+                + folderPath.replace("'", "''") + "')";
+        IDfQuery query = new DfQuery();
+        query.setDQL(dql);
+        IDfCollection col = null;
+        try {
+            col = query.execute(session, IDfQuery.DF_READ_QUERY);
+            while (col.next()) {
+                names.add(col.getString("object_name"));
+            }
+            logger.info("Prefetched " + names.size() + " existing names under " + folderPath
+                    + (names.isBloom() ? " (bloom filter)" : "") + " in "
+                    + (System.currentTimeMillis() - startTime) + " ms");
+        } catch (DfException e) {
+            // Without a prefetch every name has to be checked on the server
+            logger.warn("Failed to prefetch names under " + folderPath + ", falling back to per-row checks: "
+                    + e.getMessage());
+            names.markUnknown();
+        } finally {
+            if (col != null) {
+                try {
+                    col.close();
+                } catch (DfException e) {
+                    logger.warn("Failed to close collection: " + e.getMessage());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Hash set that turns into a Bloom filter once it grows past the threshold.
+     */
+    private static final class NameSet {
+        private final int threshold;
+        private final int bloomCapacity;
+        private volatile Set<String> exact = ConcurrentHashMap.newKeySet();
+        private volatile BloomFilter bloom = null;
+        private volatile boolean unknown = false;
+        private final AtomicLong size = new AtomicLong(0);
+
+        NameSet(int threshold, int bloomCapacity) {
+            this.threshold = threshold;
+            this.bloomCapacity = bloomCapacity;
+        }
+
+        synchronized void add(String name) {
+            if (name == null) {
+                return;
+            }
+            if (bloom != null) {
+                bloom.put(name);
+                size.incrementAndGet();
+                return;
+            }
+            if (exact.add(name) && size.incrementAndGet() > threshold) {
+                BloomFilter filter = new BloomFilter(Math.max(bloomCapacity, threshold * 2), BLOOM_FALSE_POSITIVE_RATE);
+                for (String existing : exact) {
+                    filter.put(existing);
+                }
+                bloom = filter;
+                exact = null;
+            }
+        }
+
+        boolean mightContain(String name) {
+            if (unknown) {
+                return true;
+            }
+            BloomFilter filter = bloom;
+            if (filter != null) {
+                return filter.mightContain(name);
+            }
+            Set<String> set = exact;
+            return set == null ? bloom.mightContain(name) : set.contains(name);
+        }
+
+        void markUnknown() {
+            unknown = true;
+        }
+
+        boolean isBloom() {
+            return bloom != null;
+        }
+
+        long size() {
+            return size.get();
+        }
+    }
+
+    /**
+     * Minimal thread-safe Bloom filter over strings using double hashing.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        void put(String value) {
+            long hash64 = hash(value);
+            int h1 = (int) hash64;
+            int h2 = (int) (hash64 >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash64 = hash(value);
+            int h1 = (int) hash64;
+            int h2 = (int) (hash64 >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combined) {
+            return (combined & 0xFFFFFFFFL) % bitCount;
+        }
+
+        private static long hash(String value) {
+            // FNV-1a 64-bit over UTF-8 bytes, finished with a murmur-style mix
+            long h = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                h ^= (b & 0xff);
+                h *= 0x100000001b3L;
+            }
+            h ^= (h >>> 33);
+            h *= 0xff51afd7ed558ccdL;
+            h ^= (h >>> 33);
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= (h >>> 33);
+            return h;
+        }
+    }
+}
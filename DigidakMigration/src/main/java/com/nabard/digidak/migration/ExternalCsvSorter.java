@@ -0,0 +1,214 @@
+package com.nabard.digidak.migration;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts a line-per-record CSV file on one key column without loading it into memory.
+ * The file is split into sorted runs of a fixed number of lines, which are then k-way merged.
+ * The sort is stable, so rows with the same key keep their original order, and the header is preserved.
+ */
+public class ExternalCsvSorter {
+
+    private static final Logger logger = LogManager.getLogger(ExternalCsvSorter.class);
+
+    public static final int DEFAULT_RUN_SIZE = 100000;
+
+    private final int runSize;
+    private final File workDir;
+
+    public ExternalCsvSorter(File workDir) {
+        this(workDir, DEFAULT_RUN_SIZE);
+    }
+
+    public ExternalCsvSorter(File workDir, int runSize) {
+        this.workDir = workDir;
+        this.runSize = Math.max(1, runSize);
+    }
+
+    /**
+     * Returns the input itself when it is already sorted on the key column, otherwise a sorted copy in the work dir.
+     */
+    public File sortIfNeeded(File input, int keyColumn) throws IOException {
+        if (isSorted(input, keyColumn)) {
+            logger.info(input.getName() + " is already sorted on column " + keyColumn);
+            return input;
+        }
+        File output = new File(workDir, "sorted_" + input.getName());
+        sort(input, output, keyColumn);
+        return output;
+    }
+
+    /**
+     * Checks in one streaming pass whether keys never decrease.
+     */
+    public boolean isSorted(File input, int keyColumn) throws IOException {
+        try (BufferedReader reader = open(input)) {
+            if (reader.readLine() == null) {
+                return true;
+            }
+            String previous = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String key = keyOf(line, keyColumn);
+                if (previous != null && key.compareTo(previous) < 0) {
+                    return false;
+                }
+                previous = key;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts input into output on the key column.
+     */
+    public void sort(File input, File output, int keyColumn) throws IOException {
+        long startTime = System.currentTimeMillis();
+        if (!workDir.exists()) {
+            workDir.mkdirs();
+        }
+
+        String header;
+        List<File> runs = new ArrayList<>();
+        try (BufferedReader reader = open(input)) {
+            header = reader.readLine();
+            List<KeyedLine> chunk = new ArrayList<>(Math.min(runSize, 16384));
+            long sequence = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(new KeyedLine(keyOf(line, keyColumn), sequence++, line, -1));
+                if (chunk.size() >= runSize) {
+                    runs.add(writeRun(chunk, runs.size(), input.getName()));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                runs.add(writeRun(chunk, runs.size(), input.getName()));
+            }
+        }
+
+        try {
+            mergeRuns(runs, header, output, keyColumn);
+        } finally {
+            for (File run : runs) {
+                if (!run.delete()) {
+                    logger.warn("Failed to delete sort run: " + run.getAbsolutePath());
+                }
+            }
+        }
+        logger.info("Sorted " + input.getName() + " on column " + keyColumn + " using " + runs.size()
+                + " runs in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    private File writeRun(List<KeyedLine> chunk, int runIndex, String baseName) throws IOException {
+        chunk.sort(KeyedLine.ORDER);
+        File run = new File(workDir, baseName + ".run" + runIndex);
+        try (BufferedWriter writer = create(run)) {
+            for (KeyedLine keyed : chunk) {
+                writer.write(keyed.line);
+                writer.newLine();
+            }
+        }
+        return run;
+    }
+
+    private void mergeRuns(List<File> runs, String header, File output, int keyColumn) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>();
+        try (BufferedWriter writer = create(output)) {
+            if (header != null) {
+                writer.write(header);
+                writer.newLine();
+            }
+            // Run index breaks ties, which keeps the merge stable
+            PriorityQueue<KeyedLine> heap = new PriorityQueue<>(Math.max(1, runs.size()), KeyedLine.ORDER);
+            for (int i = 0; i < runs.size(); i++) {
+                BufferedReader reader = open(runs.get(i));
+                readers.add(reader);
+                String line = reader.readLine();
+                if (line != null) {
+                    heap.add(new KeyedLine(keyOf(line, keyColumn), i, line, i));
+                }
+            }
+            while (!heap.isEmpty()) {
+                KeyedLine smallest = heap.poll();
+                writer.write(smallest.line);
+                writer.newLine();
+                String next = readers.get(smallest.run).readLine();
+                if (next != null) {
+                    heap.add(new KeyedLine(keyOf(next, keyColumn), smallest.run, next, smallest.run));
+                }
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Extracts one column from a CSV line, honouring quotes.
+     */
+    static String keyOf(String line, int keyColumn) {
+        int column = 0;
+        boolean inQuotes = false;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '\"') {
+                    if (column == keyColumn) sb.append('\"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                if (column == keyColumn) {
+                    return sb.toString();
+                }
+                column++;
+            } else if (column == keyColumn) {
+                sb.append(c);
+            }
+        }
+        return column == keyColumn ? sb.toString() : "";
+    }
+
+    // Same charset handling as the importer's own CSV readers, so sorted copies read back identically
+    private static BufferedReader open(File file) throws IOException {
+        return new BufferedReader(new FileReader(file));
+    }
+
+    private static BufferedWriter create(File file) throws IOException {
+        return new BufferedWriter(new FileWriter(file));
+    }
+
+    private static final class KeyedLine {
+        static final Comparator<KeyedLine> ORDER = Comparator
+                .comparing((KeyedLine k) -> k.key)
+                .thenComparingLong(k -> k.sequence);
+
+        final String key;
+        final long sequence;
+        final String line;
+        final int run;
+
+        KeyedLine(String key, long sequence, String line, int run) {
+            this.key = key;
+            this.sequence = sequence;
+            this.line = line;
+            this.run = run;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.nabard.digidak.migration;
+
+import com.documentum.fc.client.DfQuery;
+import com.documentum.fc.client.IDfCollection;
+import com.documentum.fc.client.IDfQuery;
+import com.documentum.fc.client.IDfSession;
+import com.documentum.fc.common.DfException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable extension to dm_format name registry.
+ * Loads all of dm_format with one query and layers the configured format.mapping.* overrides on top,
+ * so format detection needs no per-extension lookups and can be read from any import thread.
+ */
+public final class FormatRegistry {
+
+    private static final Logger logger = LogManager.getLogger(FormatRegistry.class);
+
+    private final Map<String, String> formatsByExtension;
+
+    private FormatRegistry(Map<String, String> formatsByExtension) {
+        this.formatsByExtension = formatsByExtension;
+    }
+
+    /**
+     * Loads the registry. Overrides win over repository formats.
+     *
+     * @throws DfException if dm_format cannot be read; no partial registry is returned
+     */
+    public static FormatRegistry load(IDfSession session, Map<String, String> overrides) throws DfException {
+        long startTime = System.currentTimeMillis();
+        Map<String, String> formats = new HashMap<>();
+
+        IDfQuery query = new DfQuery();
+        query.setDQL("SELECT name, dos_extension FROM dm_format WHERE dos_extension IS NOT NULLSTRING ORDER BY dos_extension, name");
+        IDfCollection col = null;
+        try {
+            col = query.execute(session, IDfQuery.DF_READ_QUERY);
+            while (col.next()) {
+                String ext = col.getString("dos_extension").trim().toLowerCase();
+                if (!ext.isEmpty()) {
+                    // First format per extension wins, as with the single-row lookup
+                    formats.putIfAbsent(ext, col.getString("name"));
+                }
+            }
+        } finally {
+            if (col != null) {
+                try {
+                    col.close();
+                } catch (DfException e) {
+                    logger.warn("Failed to close collection: " + e.getMessage());
+                }
+            }
+        }
+
+        int repositoryCount = formats.size();
+        if (overrides != null) {
+            for (Map.Entry<String, String> entry : overrides.entrySet()) {
+                formats.put(entry.getKey().trim().toLowerCase(), entry.getValue().trim());
+            }
+        }
+        logger.info("Format registry loaded: " + repositoryCount + " extensions from dm_format, "
+                + (overrides != null ? overrides.size() : 0) + " overrides in "
+                + (System.currentTimeMillis() - startTime) + " ms");
+        return new FormatRegistry(Collections.unmodifiableMap(formats));
+    }
+
+    /**
+     * Returns the format name for an extension (without dot), or null if unknown.
+     */
+    public String getFormat(String ext) {
+        if (ext == null || ext.isEmpty()) {
+            return null;
+        }
+        return formatsByExtension.get(ext.toLowerCase());
+    }
+
+    public int size() {
+        return formatsByExtension.size();
+    }
+}
@@ -0,0 +1,274 @@
+package com.nabard.digidak.migration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Asynchronous writer for the import_log_*.csv audit file.
+ * Import threads only enqueue records into a bounded ring buffer; a single background
+ * thread drains the buffer in batches and flushes when the batch is full or the flush
+ * interval has elapsed, so DFC worker threads never wait on file I/O.
+ */
+public class ImportAuditLog {
+
+    private static final Logger logger = LogManager.getLogger(ImportAuditLog.class);
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private static final String HEADER =
+            "Timestamp,Row_Number,Object_Name,R_Object_ID,Status,Error_Message,Movements_Imported,Documents_Imported";
+
+    private final BlockingQueue<Entry> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final String filePath;
+    private final BufferedWriter writer;
+    private final Thread drainThread;
+    private final AtomicLong entriesWritten = new AtomicLong(0);
+    private final AtomicLong batchesWritten = new AtomicLong(0);
+    // Held shared while queueing and exclusively while closing, so no entry is queued after the final drain
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
+    private volatile long[] summary = null;
+
+    /**
+     * Creates a timestamped import_log_*.csv in the given directory using default buffer settings.
+     */
+    public static ImportAuditLog open(String logsDirPath) throws IOException {
+        return open(logsDirPath, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * Creates a timestamped import_log_*.csv in the given directory.
+     *
+     * @param logsDirPath Directory for the log file
+     * @param capacity Maximum number of queued records before producers block
+     * @param batchSize Number of records written between flushes
+     * @param flushIntervalMs Maximum time a queued record waits before being flushed
+     */
+    public static ImportAuditLog open(String logsDirPath, int capacity, int batchSize, long flushIntervalMs)
+            throws IOException {
+        File logsDir = new File(logsDirPath);
+        if (!logsDir.exists()) {
+            logsDir.mkdirs();
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String path = logsDirPath + File.separator + "import_log_" + timestamp + ".csv";
+        return new ImportAuditLog(path, capacity, batchSize, flushIntervalMs);
+    }
+
+    private ImportAuditLog(String filePath, int capacity, int batchSize, long flushIntervalMs) throws IOException {
+        this.filePath = filePath;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.writer = new BufferedWriter(new FileWriter(filePath));
+        this.writer.write(HEADER);
+        this.writer.newLine();
+        this.writer.flush();
+
+        this.drainThread = new Thread(this::drainLoop, "import-audit-log");
+        this.drainThread.setDaemon(true);
+        this.drainThread.start();
+        logger.info("Import log file created: " + filePath);
+    }
+
+    /**
+     * Queues one record. Blocks only when the ring buffer is full, so audit entries are never dropped.
+     * Records arriving after close() are rejected with a warning instead of being queued unread.
+     */
+    public void record(int rowNumber, String objectName, String rObjectId,
+            String status, String errorMessage, int movementsImported, int documentsImported) {
+        Entry entry = new Entry(System.currentTimeMillis(), rowNumber, objectName, rObjectId,
+                status, errorMessage, movementsImported, documentsImported);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                logger.warn("Import log already closed, entry for row " + rowNumber + " not written: "
+                        + entry.format(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss")));
+                return;
+            }
+            // The drain thread keeps running until closed is set, so a full buffer always makes room
+            buffer.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while queueing import log entry for row " + rowNumber);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records the run totals; the summary block is appended after the last entry when the log is closed.
+     */
+    public void summary(int totalProcessed, int totalSuccess, int totalFailed, long durationMs) {
+        this.summary = new long[] { totalProcessed, totalSuccess, totalFailed, durationMs };
+    }
+
+    /**
+     * Drains every queued record, appends the summary block (if one was recorded) and closes the file.
+     */
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        drainThread.interrupt();
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            // Entries the drain thread left behind when interrupted are written here
+            List<Entry> remaining = new ArrayList<>();
+            buffer.drainTo(remaining);
+            writeBatch(remaining);
+            long[] totals = summary;
+            if (totals != null) {
+                writeSummary(totals[0], totals[1], totals[2], totals[3]);
+            }
+            writer.close();
+            logger.info("Import log file closed: " + filePath + " (" + entriesWritten.get()
+                    + " entries in " + batchesWritten.get() + " batches)");
+        } catch (IOException e) {
+            logger.error("Failed to close import log file", e);
+        }
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    private void drainLoop() {
+        SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        List<Entry> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.currentTimeMillis();
+
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                long waitMs = Math.max(1, flushIntervalMs - (System.currentTimeMillis() - lastFlush));
+                Entry first = buffer.poll(waitMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts to wake us; loop condition decides whether to exit
+                buffer.drainTo(batch, batchSize - batch.size());
+            }
+
+            boolean due = System.currentTimeMillis() - lastFlush >= flushIntervalMs;
+            if (batch.size() >= batchSize || (due && !batch.isEmpty()) || (closed && !batch.isEmpty())) {
+                try {
+                    writeBatch(batch, timestampFormat);
+                } catch (IOException e) {
+                    logger.error("Failed to write to import log", e);
+                }
+                batch.clear();
+                lastFlush = System.currentTimeMillis();
+            } else if (due) {
+                lastFlush = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) throws IOException {
+        writeBatch(batch, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
+    }
+
+    private void writeBatch(List<Entry> batch, SimpleDateFormat timestampFormat) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Entry entry : batch) {
+            writer.write(entry.format(timestampFormat));
+            writer.newLine();
+        }
+        writer.flush();
+        entriesWritten.addAndGet(batch.size());
+        batchesWritten.incrementAndGet();
+    }
+
+    private void writeSummary(long totalProcessed, long totalSuccess, long totalFailed, long durationMs)
+            throws IOException {
+        long durationSeconds = durationMs / 1000;
+        long hours = durationSeconds / 3600;
+        long minutes = (durationSeconds % 3600) / 60;
+        long seconds = durationSeconds % 60;
+
+        writer.newLine();
+        writer.write("# ========== IMPORT SUMMARY ==========");
+        writer.newLine();
+        writer.write("# Total Records Processed: " + totalProcessed);
+        writer.newLine();
+        writer.write("# Successful: " + totalSuccess);
+        writer.newLine();
+        writer.write("# Failed: " + totalFailed);
+        writer.newLine();
+        writer.write("# Duration: " + String.format("%02d:%02d:%02d", hours, minutes, seconds));
+        writer.newLine();
+        writer.write("# Log Entries Written: " + entriesWritten.get() + " (" + batchesWritten.get() + " batches)");
+        writer.newLine();
+        writer.write("# =====================================");
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * One queued audit record. Formatting is deferred to the drain thread.
+     */
+    private static final class Entry {
+        private final long timestamp;
+        private final int rowNumber;
+        private final String objectName;
+        private final String rObjectId;
+        private final String status;
+        private final String errorMessage;
+        private final int movementsImported;
+        private final int documentsImported;
+
+        Entry(long timestamp, int rowNumber, String objectName, String rObjectId, String status,
+                String errorMessage, int movementsImported, int documentsImported) {
+            this.timestamp = timestamp;
+            this.rowNumber = rowNumber;
+            this.objectName = objectName;
+            this.rObjectId = rObjectId;
+            this.status = status;
+            this.errorMessage = errorMessage;
+            this.movementsImported = movementsImported;
+            this.documentsImported = documentsImported;
+        }
+
+        String format(SimpleDateFormat timestampFormat) {
+            String safeObjectName = (objectName != null) ? objectName.replace(",", ";").replace("\"", "'") : "";
+            String safeError = (errorMessage != null) ? errorMessage.replace(",", ";").replace("\"", "'").replace("\n", " ").replace("\r", "") : "";
+            String safeRObjectId = (rObjectId != null) ? rObjectId : "";
+            return String.format("%s,%d,\"%s\",%s,%s,\"%s\",%d,%d",
+                    timestampFormat.format(new Date(timestamp)), rowNumber, safeObjectName, safeRObjectId,
+                    status, safeError, movementsImported, documentsImported);
+        }
+    }
+}
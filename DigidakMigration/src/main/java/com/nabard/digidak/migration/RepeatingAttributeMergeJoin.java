@@ -0,0 +1,164 @@
+package com.nabard.digidak.migration;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming merge-join of the repeating_*.csv files with a master CSV sorted on r_object_id.
+ * Each repeating file is sorted on disk if needed and read through a single cursor, so memory
+ * stays constant regardless of how many letters and values the export holds. Callers must ask
+ * for r_object_ids in non-decreasing order (see {@link #sortMaster}).
+ */
+public class RepeatingAttributeMergeJoin implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(RepeatingAttributeMergeJoin.class);
+
+    private final ExternalCsvSorter sorter;
+    private final File workDir;
+    private final List<Cursor> cursors = new ArrayList<>();
+    private String lastKey = null;
+
+    private RepeatingAttributeMergeJoin(File workDir) {
+        this.workDir = workDir;
+        this.sorter = new ExternalCsvSorter(workDir);
+    }
+
+    /**
+     * Opens a cursor on every repeating_*.csv in the export directory, sorting files that are not already sorted.
+     */
+    public static RepeatingAttributeMergeJoin open(String exportBaseDir) throws IOException {
+        File exportDir = new File(exportBaseDir);
+        RepeatingAttributeMergeJoin join = new RepeatingAttributeMergeJoin(new File(exportDir, "sorted_tmp"));
+
+        File[] repeatingFiles = exportDir.listFiles((dir, name) -> name.startsWith("repeating_") && name.endsWith(".csv"));
+        if (repeatingFiles == null || repeatingFiles.length == 0) {
+            logger.info("No repeating attribute files found in " + exportBaseDir);
+            return join;
+        }
+
+        try {
+            for (File csvFile : repeatingFiles) {
+                // repeating_office_type.csv -> office_type
+                String attributeName = csvFile.getName().replace("repeating_", "").replace(".csv", "");
+                File sorted = join.sorter.sortIfNeeded(csvFile, 0);
+                join.cursors.add(new Cursor(attributeName, sorted, sorted != csvFile));
+                logger.info("Merge-join cursor opened for repeating attribute: " + attributeName);
+            }
+        } catch (IOException e) {
+            join.close();
+            throw e;
+        }
+        return join;
+    }
+
+    /**
+     * Returns a copy of the master CSV sorted on the r_object_id column (or the file itself if already sorted).
+     */
+    public File sortMaster(File masterCsv, int rObjectIdColumn) throws IOException {
+        return sorter.sortIfNeeded(masterCsv, rObjectIdColumn);
+    }
+
+    /**
+     * Returns the repeating values for one r_object_id, keyed by attribute name.
+     * Advances every cursor past smaller keys; keys must be requested in non-decreasing order.
+     */
+    public Map<String, List<String>> valuesFor(String rObjectId) throws IOException {
+        if (rObjectId == null || rObjectId.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (lastKey != null && rObjectId.compareTo(lastKey) < 0) {
+            throw new IllegalStateException("Merge-join keys out of order: " + rObjectId + " after " + lastKey);
+        }
+        lastKey = rObjectId;
+
+        Map<String, List<String>> result = null;
+        for (Cursor cursor : cursors) {
+            List<String> values = cursor.advanceTo(rObjectId);
+            if (!values.isEmpty()) {
+                if (result == null) {
+                    result = new HashMap<>();
+                }
+                result.put(cursor.attributeName, values);
+            }
+        }
+        return result == null ? Collections.emptyMap() : result;
+    }
+
+    @Override
+    public void close() {
+        for (Cursor cursor : cursors) {
+            cursor.close();
+        }
+        cursors.clear();
+        String[] leftovers = workDir.list();
+        if (workDir.exists() && (leftovers == null || leftovers.length == 0)) {
+            workDir.delete();
+        }
+    }
+
+    /**
+     * Forward-only reader over one sorted repeating_*.csv file.
+     */
+    private static final class Cursor {
+        private final String attributeName;
+        private final File file;
+        private final boolean temporary;
+        private final BufferedReader reader;
+        private String[] current;
+
+        Cursor(String attributeName, File file, boolean temporary) throws IOException {
+            this.attributeName = attributeName;
+            this.file = file;
+            this.temporary = temporary;
+            this.reader = new BufferedReader(new FileReader(file));
+            reader.readLine(); // header: r_object_id, [attribute_name]
+            this.current = next();
+        }
+
+        List<String> advanceTo(String key) throws IOException {
+            while (current != null && current[0].compareTo(key) < 0) {
+                current = next();
+            }
+            List<String> values = new ArrayList<>();
+            while (current != null && current[0].equals(key)) {
+                values.add(current[1]);
+                current = next();
+            }
+            return values;
+        }
+
+        private String[] next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String id = ExternalCsvSorter.keyOf(line, 0);
+                String value = ExternalCsvSorter.keyOf(line, 1);
+                if (!id.isEmpty() && !value.isEmpty()) {
+                    return new String[] { id, value };
+                }
+            }
+            return null;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close " + file.getName() + ": " + e.getMessage());
+            }
+            if (temporary && !file.delete()) {
+                logger.warn("Failed to delete sorted file: " + file.getAbsolutePath());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 import com.digidak.migration.config.DfcConfig;
 import com.digidak.migration.config.MigrationConfig;
+import com.digidak.migration.parser.ExportCatalog;
 import com.digidak.migration.repository.RealSessionManager;
 import com.digidak.migration.repository.RealFolderRepository;
 import com.digidak.migration.repository.RealDocumentRepository;
@@ -11,6 +12,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.Set;
 
 /**
@@ -49,9 +51,13 @@ public class Phase1Runner {
             log("[CONFIG] Data Export Path: " + migrationConfig.getDataExportPath());
             log("");
 
+            // Index the export CSVs while DFC initializes and the session pool opens
+            CompletableFuture<ExportCatalog> catalogLoad = ExportCatalog.loadAsync(
+                    migrationConfig.getDataExportPath(), migrationConfig.getThreadPoolSize());
+
             // Initialize session manager
             log("[INIT] Initializing session manager...");
-            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig);
+            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig, migrationConfig.getThreadPoolSize());
             log("[OK] Session manager initialized");
             log("");
 
@@ -64,10 +70,14 @@ public class Phase1Runner {
 
             // Initialize services
             log("[INIT] Initializing services...");
-            UserLookupService userLookupService = new UserLookupService(sessionManager);
+            UserLookupService userLookupService = new UserLookupService(sessionManager,
+                    migrationConfig.isUserDirectoryEnabled());
             AclService aclService = new AclService(folderRepository, documentRepository, sessionManager);
             FolderService folderService = new FolderService(folderRepository, migrationConfig,
                                                            userLookupService, aclService, sessionManager);
+            folderService.setExportCatalog(catalogLoad.join());
+            // dm_user directory loads on its own session while the cabinet is set up
+            CompletableFuture.runAsync(userLookupService::preloadDirectory);
             log("[OK] Services initialized");
             log("");
 
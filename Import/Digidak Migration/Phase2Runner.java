@@ -1,17 +1,25 @@
 import com.digidak.migration.config.DfcConfig;
 import com.digidak.migration.config.MigrationConfig;
 import com.digidak.migration.model.ImportResult;
+import com.digidak.migration.parser.ExportCatalog;
+import com.digidak.migration.processor.ConcurrentImportProcessor;
+import com.digidak.migration.repository.FormatRegistry;
 import com.digidak.migration.repository.RealDocumentRepository;
 import com.digidak.migration.repository.RealFolderRepository;
 import com.digidak.migration.repository.RealSessionManager;
 import com.digidak.migration.service.AclService;
+import com.digidak.migration.service.ContentUploadPipeline;
 import com.digidak.migration.service.DocumentImportService;
 import com.digidak.migration.service.FolderService;
+import com.digidak.migration.service.MovementRegisterService;
 import com.digidak.migration.service.UserLookupService;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Runs ONLY Phase 2: Document Import
  * Assumes Phase 1 (Folder Structure) has already been completed
@@ -50,9 +58,15 @@ public class Phase2Runner {
             log("[CONFIG] Thread Pool Size: " + migrationConfig.getThreadPoolSize());
             log("");
 
+            // Index the export CSVs while DFC initializes and the session pool opens
+            CompletableFuture<ExportCatalog> catalogLoad = ExportCatalog.loadAsync(
+                    migrationConfig.getDataExportPath(), migrationConfig.getThreadPoolSize());
+
             // Initialize session manager
             log("[INIT] Initializing session manager...");
-            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig);
+            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig,
+                    migrationConfig.getThreadPoolSize()
+                    + ContentUploadPipeline.sessionsNeeded(migrationConfig.getUploadThreads()));
             log("[OK] Session manager initialized");
             log("");
 
@@ -65,17 +79,49 @@ public class Phase2Runner {
 
             // Initialize services
             log("[INIT] Initializing services...");
-            UserLookupService userLookupService = new UserLookupService(sessionManager);
+            UserLookupService userLookupService = new UserLookupService(sessionManager,
+                    migrationConfig.isUserDirectoryEnabled());
             AclService aclService = new AclService(folderRepository, documentRepository, sessionManager);
             FolderService folderService = new FolderService(folderRepository, migrationConfig,
                                                            userLookupService, aclService);
+            folderService.setExportCatalog(catalogLoad.join());
+            if (migrationConfig.isLegacyDocumentAclEnabled()) {
+                aclService.useAclForNewDocuments(AclService.LEGACY_ACL_NAME);
+            }
+            // Owner checks reuse the dm_user directory (a dm_user query only outside directory mode)
+            documentRepository.setUserNameSource(userLookupService::getUserNames);
+            if (migrationConfig.getContentStagingDir() != null) {
+                documentRepository.setContentStagingDir(migrationConfig.getContentStagingDir());
+            }
             log("[OK] Services initialized");
             log("");
 
+            // dm_format and dm_user preloads run on their own sessions while the folders load
+            CompletableFuture<FormatRegistry> formatLoad = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return FormatRegistry.load(sessionManager, migrationConfig.getFormatOverrides());
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+            CompletableFuture<Void> userLoad = CompletableFuture.runAsync(() -> {
+                try {
+                    userLookupService.preloadDirectory();
+                    documentRepository.preloadOwnerUsers();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+
             // Load existing folder structure from Phase 1
             log("[FOLDERS] Loading existing folder structure from Phase 1...");
             folderService.loadExistingFolderStructure();
             log("[OK] Loaded " + folderService.getAllFolderIds().size() + " folders from repository");
+
+            FormatRegistry formatRegistry = formatLoad.join();
+            documentRepository.setFormatRegistry(formatRegistry);
+            userLoad.join();
+            log("[OK] Preloaded " + formatRegistry.size() + " content formats and repository users");
             log("");
 
             DocumentImportService documentImportService = new DocumentImportService(
@@ -96,7 +142,23 @@ public class Phase2Runner {
             log("[PHASE 2] This may take several minutes depending on document count...");
             log("");
 
-            ImportResult importResult = documentImportService.importAllDocuments();
+            // Per-folder imports run on the bounded pool of migration.threadpool.size workers
+            ConcurrentImportProcessor processor = new ConcurrentImportProcessor(migrationConfig,
+                    documentImportService, folderService,
+                    new MovementRegisterService(documentRepository, folderService, migrationConfig));
+            ImportResult importResult = new ImportResult();
+            try {
+                processor.importDocumentsConcurrently(importResult);
+                importResult.markComplete();
+            } catch (InterruptedException e) {
+                // Rethrown without restoring the flag so shutdown below can wait for running folders
+                processor.abort();
+                throw e;
+            } finally {
+                processor.shutdown();
+                // No-op after a complete run; otherwise waits for and closes the upload stage
+                documentImportService.flushDeferredUpdates(importResult);
+            }
             long phase2Duration = System.currentTimeMillis() - phase2Start;
 
             log("");
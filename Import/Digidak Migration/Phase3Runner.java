@@ -1,6 +1,7 @@
 import com.digidak.migration.config.DfcConfig;
 import com.digidak.migration.config.MigrationConfig;
 import com.digidak.migration.model.ImportResult;
+import com.digidak.migration.parser.ExportCatalog;
 import com.digidak.migration.repository.RealDocumentRepository;
 import com.digidak.migration.repository.RealFolderRepository;
 import com.digidak.migration.repository.RealSessionManager;
@@ -13,6 +14,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Runs ONLY Phase 3: Movement Register Creation
@@ -50,9 +52,13 @@ public class Phase3Runner {
             log("[CONFIG] Cabinet Name: " + migrationConfig.getCabinetName());
             log("");
 
+            // Index the export CSVs while DFC initializes and the session pool opens
+            CompletableFuture<ExportCatalog> catalogLoad = ExportCatalog.loadAsync(
+                    migrationConfig.getDataExportPath(), migrationConfig.getThreadPoolSize());
+
             // Initialize session manager
             log("[INIT] Initializing session manager...");
-            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig);
+            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig, migrationConfig.getThreadPoolSize());
             log("[OK] Session manager initialized");
             log("");
 
@@ -65,10 +71,20 @@ public class Phase3Runner {
 
             // Initialize services
             log("[INIT] Initializing services...");
-            UserLookupService userLookupService = new UserLookupService(sessionManager);
+            UserLookupService userLookupService = new UserLookupService(sessionManager,
+                    migrationConfig.isUserDirectoryEnabled());
             AclService aclService = new AclService(folderRepository, documentRepository, sessionManager);
             FolderService folderService = new FolderService(folderRepository, migrationConfig,
                                                            userLookupService, aclService);
+            folderService.setExportCatalog(catalogLoad.join());
+            if (migrationConfig.isLegacyDocumentAclEnabled()) {
+                aclService.useAclForNewDocuments(AclService.LEGACY_ACL_NAME);
+            }
+            if (migrationConfig.getContentStagingDir() != null) {
+                documentRepository.setContentStagingDir(migrationConfig.getContentStagingDir());
+            }
+            documentRepository.setFormatOverrides(migrationConfig.getFormatOverrides());
+            documentRepository.setUserNameSource(userLookupService::getUserNames);
             log("[OK] Services initialized");
             log("");
 
@@ -25,7 +25,7 @@ echo [1/5] Compiling all source files...
 echo.
 
 REM Generate list of all .java source files for compilation
-dir /s /b src\main\java\com\digidak\migration\util\*.java src\main\java\com\digidak\migration\model\*.java src\main\java\com\digidak\migration\config\*.java src\main\java\com\digidak\migration\repository\*.java src\main\java\com\digidak\migration\parser\*.java src\main\java\com\digidak\migration\service\*.java > _sources.txt
+dir /s /b src\main\java\com\digidak\migration\util\*.java src\main\java\com\digidak\migration\model\*.java src\main\java\com\digidak\migration\config\*.java src\main\java\com\digidak\migration\repository\*.java src\main\java\com\digidak\migration\parser\*.java src\main\java\com\digidak\migration\service\*.java src\main\java\com\digidak\migration\processor\*.java > _sources.txt
 javac -encoding UTF-8 -cp "libs/*;." -d . @_sources.txt
 
 if %ERRORLEVEL% NEQ 0 (
@@ -3,14 +3,18 @@ package com.digidak.migration;
 import com.digidak.migration.config.DfcConfig;
 import com.digidak.migration.config.MigrationConfig;
 import com.digidak.migration.model.ImportResult;
+import com.digidak.migration.parser.ExportCatalog;
 import com.digidak.migration.processor.ConcurrentImportProcessor;
+import com.digidak.migration.repository.FormatRegistry;
 import com.digidak.migration.repository.RealDocumentRepository;
 import com.digidak.migration.repository.RealFolderRepository;
 import com.digidak.migration.repository.RealSessionManager;
 import com.digidak.migration.service.AclService;
+import com.digidak.migration.service.ContentUploadPipeline;
 import com.digidak.migration.service.DocumentImportService;
 import com.digidak.migration.service.FolderService;
 import com.digidak.migration.service.MovementRegisterService;
+import com.digidak.migration.service.UserLookupService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -19,6 +23,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main application class for DigiDak Migration
@@ -43,9 +48,15 @@ public class DigidakMigrationApp {
             logger.info("Thread Pool Size: {}", migrationConfig.getThreadPoolSize());
             logger.info("Data Export Path: {}", migrationConfig.getDataExportPath());
 
+            // Index the export CSVs while DFC initializes and the session pool opens
+            CompletableFuture<ExportCatalog> catalogLoad = ExportCatalog.loadAsync(
+                    migrationConfig.getDataExportPath(), migrationConfig.getThreadPoolSize());
+
             // Initialize session manager
             logger.info("Initializing session manager...");
-            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig);
+            RealSessionManager sessionManager = RealSessionManager.getInstance(dfcConfig,
+                    migrationConfig.getThreadPoolSize()
+                    + ContentUploadPipeline.sessionsNeeded(migrationConfig.getUploadThreads()));
 
             // Initialize repositories
             logger.info("Initializing repositories...");
@@ -54,8 +65,23 @@ public class DigidakMigrationApp {
 
             // Initialize services
             logger.info("Initializing services...");
-            AclService aclService = new AclService(folderRepository, documentRepository);
-            FolderService folderService = new FolderService(folderRepository, migrationConfig);
+            UserLookupService userLookupService = new UserLookupService(sessionManager,
+                    migrationConfig.isUserDirectoryEnabled());
+            AclService aclService = new AclService(folderRepository, documentRepository, sessionManager);
+            FolderService folderService = new FolderService(folderRepository, migrationConfig,
+                                                           userLookupService, aclService, sessionManager);
+            folderService.setExportCatalog(catalogLoad.join());
+            // dm_user directory loads on its own session while the cabinet is set up
+            CompletableFuture.runAsync(userLookupService::preloadDirectory);
+            documentRepository.setUserNameSource(userLookupService::getUserNames);
+            if (migrationConfig.isLegacyDocumentAclEnabled()) {
+                aclService.useAclForNewDocuments(AclService.LEGACY_ACL_NAME);
+            }
+            if (migrationConfig.getContentStagingDir() != null) {
+                documentRepository.setContentStagingDir(migrationConfig.getContentStagingDir());
+            }
+            documentRepository.setFormatRegistry(
+                    FormatRegistry.load(sessionManager, migrationConfig.getFormatOverrides()));
             DocumentImportService documentImportService = new DocumentImportService(
                     documentRepository, folderService, aclService, migrationConfig);
             MovementRegisterService movementRegisterService = new MovementRegisterService(
@@ -20,6 +20,11 @@ public class DfcConfig {
     private static final String USERNAME = "dfc.username";
     private static final String PASSWORD = "dfc.password";
     private static final String SESSION_POOL_SIZE = "dfc.session.pool.size";
+    private static final String SESSION_POOL_TIMEOUT_MS = "dfc.session.pool.timeout.ms";
+    private static final String SESSION_POOL_WAIT_WARN_MS = "dfc.session.pool.wait.warn.ms";
+    private static final String SESSION_POOL_VALIDATION_INTERVAL_MS = "dfc.session.pool.validation.interval.ms";
+    private static final String SESSION_POOL_LEAK_THRESHOLD_MS = "dfc.session.pool.leak.threshold.ms";
+    private static final String SESSION_POOL_TRACE_CALLERS = "dfc.session.pool.trace.callers";
 
     // Global Registry Configuration keys
     private static final String GLOBAL_REGISTRY_REPOSITORY = "dfc.globalregistry.repository";
@@ -92,6 +97,26 @@ public class DfcConfig {
         return Integer.parseInt(dfcProperties.getProperty(SESSION_POOL_SIZE, "10"));
     }
 
+    public long getSessionPoolTimeoutMs() {
+        return Long.parseLong(dfcProperties.getProperty(SESSION_POOL_TIMEOUT_MS, "30000"));
+    }
+
+    public long getSessionPoolWaitWarnMs() {
+        return Long.parseLong(dfcProperties.getProperty(SESSION_POOL_WAIT_WARN_MS, "1000"));
+    }
+
+    public long getSessionPoolValidationIntervalMs() {
+        return Long.parseLong(dfcProperties.getProperty(SESSION_POOL_VALIDATION_INTERVAL_MS, "60000"));
+    }
+
+    public long getSessionPoolLeakThresholdMs() {
+        return Long.parseLong(dfcProperties.getProperty(SESSION_POOL_LEAK_THRESHOLD_MS, "300000"));
+    }
+
+    public boolean isSessionPoolTraceCallers() {
+        return Boolean.parseBoolean(dfcProperties.getProperty(SESSION_POOL_TRACE_CALLERS, "false").trim());
+    }
+
     public Properties getDfcProperties() {
         return new Properties(dfcProperties);
     }
@@ -3,6 +3,8 @@ package com.digidak.migration.config;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -21,6 +23,13 @@ public class MigrationConfig {
     private static final String DATA_EXPORT_PATH = "migration.data.export.path";
     private static final String SCHEMA_PATH = "migration.schema.path";
     private static final String CABINET_NAME = "migration.cabinet.name";
+    private static final String FORMAT_MAPPING_PREFIX = "format.mapping.";
+    private static final String USER_DIRECTORY_ENABLED = "migration.user.directory.enabled";
+    private static final String WORKFLOW_USER_ACLS = "migration.acl.workflow.users";
+    private static final String LEGACY_ACL_ON_DOCUMENTS = "migration.acl.legacy.documents";
+    private static final String CONTENT_STAGING_DIR = "migration.content.staging.dir";
+    private static final String UPLOAD_THREADS = "migration.upload.threads";
+    private static final String UPLOAD_MAX_INFLIGHT_MB = "migration.upload.max.inflight.mb";
 
     public MigrationConfig() throws IOException {
         this(DEFAULT_CONFIG_PATH);
@@ -62,6 +71,62 @@ public class MigrationConfig {
         return properties.getProperty(CABINET_NAME, "Digidak Legacy");
     }
 
+    /**
+     * Resolve users from an in-memory copy of dm_user instead of per-name queries
+     */
+    public boolean isUserDirectoryEnabled() {
+        return Boolean.parseBoolean(properties.getProperty(USER_DIRECTORY_ENABLED, "true"));
+    }
+
+    /**
+     * Give folders shared ACLs built from their workflow users instead of ecm_legacy_digidak
+     */
+    public boolean isWorkflowUserAclEnabled() {
+        return Boolean.parseBoolean(properties.getProperty(WORKFLOW_USER_ACLS, "false"));
+    }
+
+    /**
+     * Create documents and movement registers with ecm_legacy_digidak set in their first save
+     */
+    public boolean isLegacyDocumentAclEnabled() {
+        return Boolean.parseBoolean(properties.getProperty(LEGACY_ACL_ON_DOCUMENTS, "false"));
+    }
+
+    /**
+     * Directory for short-path aliases of long content paths (null = system temp directory)
+     */
+    public String getContentStagingDir() {
+        String dir = properties.getProperty(CONTENT_STAGING_DIR, "").trim();
+        return dir.isEmpty() ? null : dir;
+    }
+
+    /**
+     * Threads for content uploads (see ContentUploadPipeline.sessionsNeeded); 0 = upload inline on the import workers
+     */
+    public int getUploadThreads() {
+        return Integer.parseInt(properties.getProperty(UPLOAD_THREADS, "4").trim());
+    }
+
+    /**
+     * Content bytes queued or uploading at once
+     */
+    public long getUploadMaxInFlightBytes() {
+        return Long.parseLong(properties.getProperty(UPLOAD_MAX_INFLIGHT_MB, "256").trim()) * 1024 * 1024;
+    }
+
+    /**
+     * Configured extension -> dm_format overrides (format.mapping.<ext>=<format>)
+     */
+    public Map<String, String> getFormatOverrides() {
+        Map<String, String> overrides = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(FORMAT_MAPPING_PREFIX)) {
+                overrides.put(key.substring(FORMAT_MAPPING_PREFIX.length()), properties.getProperty(key).trim());
+            }
+        }
+        return overrides;
+    }
+
     public String getProperty(String key) {
         return properties.getProperty(key);
     }
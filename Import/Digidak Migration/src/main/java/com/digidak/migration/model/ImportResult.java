@@ -2,17 +2,18 @@ package com.digidak.migration.model;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Model class to track import results and statistics
+ * Counters are LongAdders so many import threads can update one shared result without contention
  */
 public class ImportResult {
-    private AtomicInteger totalDocuments = new AtomicInteger(0);
-    private AtomicInteger successfulImports = new AtomicInteger(0);
-    private AtomicInteger failedImports = new AtomicInteger(0);
-    private AtomicInteger foldersCreated = new AtomicInteger(0);
-    private AtomicInteger movementRegistersCreated = new AtomicInteger(0);
+    private final LongAdder totalDocuments = new LongAdder();
+    private final LongAdder successfulImports = new LongAdder();
+    private final LongAdder failedImports = new LongAdder();
+    private final LongAdder foldersCreated = new LongAdder();
+    private final LongAdder movementRegistersCreated = new LongAdder();
 
     private List<String> errors = new ArrayList<>();
     private long startTime;
@@ -23,29 +24,44 @@ public class ImportResult {
     }
 
     public void incrementTotal() {
-        totalDocuments.incrementAndGet();
+        totalDocuments.increment();
     }
 
     public void incrementSuccess() {
-        successfulImports.incrementAndGet();
+        successfulImports.increment();
     }
 
     public void incrementFailed() {
-        failedImports.incrementAndGet();
+        failedImports.increment();
     }
 
     public void incrementFoldersCreated() {
-        foldersCreated.incrementAndGet();
+        foldersCreated.increment();
     }
 
     public void incrementMovementRegisters() {
-        movementRegistersCreated.incrementAndGet();
+        movementRegistersCreated.increment();
     }
 
     public synchronized void addError(String error) {
         errors.add(error);
     }
 
+    /**
+     * Add all counters and errors of another result to this one
+     */
+    public void merge(ImportResult other) {
+        totalDocuments.add(other.totalDocuments.sum());
+        successfulImports.add(other.successfulImports.sum());
+        failedImports.add(other.failedImports.sum());
+        foldersCreated.add(other.foldersCreated.sum());
+        movementRegistersCreated.add(other.movementRegistersCreated.sum());
+        List<String> otherErrors = other.getErrors();
+        synchronized (this) {
+            errors.addAll(otherErrors);
+        }
+    }
+
     public void markComplete() {
         this.endTime = System.currentTimeMillis();
     }
@@ -55,37 +71,37 @@ public class ImportResult {
     }
 
     public int getTotalDocuments() {
-        return totalDocuments.get();
+        return totalDocuments.intValue();
     }
 
     public int getSuccessfulImports() {
-        return successfulImports.get();
+        return successfulImports.intValue();
     }
 
     public int getFailedImports() {
-        return failedImports.get();
+        return failedImports.intValue();
     }
 
     public int getFoldersCreated() {
-        return foldersCreated.get();
+        return foldersCreated.intValue();
     }
 
     public int getMovementRegistersCreated() {
-        return movementRegistersCreated.get();
+        return movementRegistersCreated.intValue();
     }
 
-    public List<String> getErrors() {
+    public synchronized List<String> getErrors() {
         return new ArrayList<>(errors);
     }
 
     @Override
     public String toString() {
         return "ImportResult{" +
-                "totalDocuments=" + totalDocuments.get() +
-                ", successfulImports=" + successfulImports.get() +
-                ", failedImports=" + failedImports.get() +
-                ", foldersCreated=" + foldersCreated.get() +
-                ", movementRegistersCreated=" + movementRegistersCreated.get() +
+                "totalDocuments=" + totalDocuments.sum() +
+                ", successfulImports=" + successfulImports.sum() +
+                ", failedImports=" + failedImports.sum() +
+                ", foldersCreated=" + foldersCreated.sum() +
+                ", movementRegistersCreated=" + movementRegistersCreated.sum() +
                 ", durationMillis=" + getDurationMillis() +
                 '}';
     }
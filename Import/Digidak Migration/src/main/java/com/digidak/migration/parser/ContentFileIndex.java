@@ -0,0 +1,95 @@
+package com.digidak.migration.parser;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Content files of one record directory, listed once
+ * The directory is read with a single list() call and its non-CSV file names are indexed by
+ * exact name, by name without extension and in sorted order for prefix matches, so every
+ * document of the directory is matched without going back to the (often network-mounted)
+ * export tree.
+ * Read-only after creation and safe to share between threads.
+ */
+public class ContentFileIndex {
+
+    private static final String CSV_SUFFIX = ".csv";
+
+    private final File directory;
+    // File name -> file
+    private final Map<String, File> byName = new HashMap<>();
+    // File name without its last extension -> first file in name order
+    private final Map<String, File> byBaseName = new HashMap<>();
+    // File name -> file, sorted for prefix matches
+    private final NavigableMap<String, File> sortedByName = new TreeMap<>();
+
+    private ContentFileIndex(File directory, String[] names) {
+        this.directory = directory;
+        if (names != null) {
+            for (String name : names) {
+                if (!name.toLowerCase().endsWith(CSV_SUFFIX)) {
+                    sortedByName.put(name, new File(directory, name));
+                }
+            }
+        }
+        for (Map.Entry<String, File> entry : sortedByName.entrySet()) {
+            byName.put(entry.getKey(), entry.getValue());
+            byBaseName.putIfAbsent(stripExtension(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * List a record directory once (an unreadable directory gives an empty index)
+     */
+    public static ContentFileIndex of(File directory) {
+        return new ContentFileIndex(directory, directory.list());
+    }
+
+    /**
+     * Content file for an object_name: exact name, then same name without extension,
+     * then the first file starting with the name without extension
+     */
+    public File findContentFile(String objectName) {
+        if (objectName == null || objectName.trim().isEmpty()) {
+            return null;
+        }
+        File file = findByName(objectName);
+        if (file != null) {
+            return file;
+        }
+        String baseName = stripExtension(objectName);
+        file = byBaseName.get(baseName);
+        return file != null ? file : findByPrefix(baseName);
+    }
+
+    /**
+     * File with exactly this name
+     */
+    public File findByName(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * First file, in name order, whose name starts with the prefix
+     */
+    public File findByPrefix(String prefix) {
+        Map.Entry<String, File> entry = sortedByName.ceilingEntry(prefix);
+        return entry != null && entry.getKey().startsWith(prefix) ? entry.getValue() : null;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    private static String stripExtension(String name) {
+        int lastDot = name.lastIndexOf('.');
+        return lastDot > 0 ? name.substring(0, lastDot) : name;
+    }
+}
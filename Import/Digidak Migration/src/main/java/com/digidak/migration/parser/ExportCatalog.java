@@ -0,0 +1,393 @@
+package com.digidak.migration.parser;
+
+import com.opencsv.CSVReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * In-memory index over the export CSVs
+ * Loads the master record CSVs and all repeating_*.csv files once, in parallel, and
+ * indexes them by r_object_id and object_name so per-folder lookups need no file I/O.
+ * The catalog is read-only after load and safe to share between threads.
+ */
+public class ExportCatalog {
+    private static final Logger logger = LogManager.getLogger(ExportCatalog.class);
+
+    public static final String SINGLE_RECORDS_CSV = "DigidakSingleRecords_Export.csv";
+    public static final String GROUP_RECORDS_CSV = "DigidakGroupRecords_Export.csv";
+    public static final String SUBLETTER_RECORDS_CSV = "DigidakSubletterRecords_Export.csv";
+
+    private static final String[] MASTER_FILES = {
+            SINGLE_RECORDS_CSV,
+            GROUP_RECORDS_CSV,
+            SUBLETTER_RECORDS_CSV
+    };
+
+    private static final String REPEATING_PREFIX = "repeating_";
+    private static final String CSV_SUFFIX = ".csv";
+
+    // Master file name -> table, in MASTER_FILES order
+    private final Map<String, MasterTable> masters;
+    // Attribute name (repeating_<attribute>.csv) -> migrated_id -> values in file order
+    private final Map<String, Map<String, List<String>>> repeating;
+    // Normalized group name (G1-2024-25) -> subletter r_object_ids, in file order
+    private final Map<String, List<String>> subletterIdsByGroup;
+    // Normalized group name -> unique workflow users of all its subletters
+    private final Map<String, List<String>> workflowUsersByGroup;
+
+    private ExportCatalog(Map<String, MasterTable> masters,
+                          Map<String, Map<String, List<String>>> repeating) {
+        this.masters = masters;
+        this.repeating = repeating;
+        this.subletterIdsByGroup = indexSublettersByGroup(masters.get(SUBLETTER_RECORDS_CSV));
+        this.workflowUsersByGroup = indexWorkflowUsersByGroup(subletterIdsByGroup, repeating.get("workflow_users"));
+    }
+
+    /**
+     * Load catalog from an export directory, reading files on up to maxThreads threads
+     */
+    public static ExportCatalog load(String exportPath, int maxThreads) throws Exception {
+        long startTime = System.currentTimeMillis();
+        File exportDir = new File(exportPath);
+
+        List<File> masterFiles = new ArrayList<>();
+        for (String fileName : MASTER_FILES) {
+            File file = new File(exportDir, fileName);
+            if (file.exists()) {
+                masterFiles.add(file);
+            } else {
+                logger.warn("Export CSV not found, catalog will have no entries for it: {}",
+                           file.getAbsolutePath());
+            }
+        }
+        File[] repeatingFiles = exportDir.listFiles((dir, name) ->
+                name.startsWith(REPEATING_PREFIX) && name.endsWith(CSV_SUFFIX));
+        if (repeatingFiles == null) {
+            repeatingFiles = new File[0];
+        }
+
+        int fileCount = masterFiles.size() + repeatingFiles.length;
+        if (fileCount == 0) {
+            logger.warn("No export CSVs found in {}", exportPath);
+            return new ExportCatalog(Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxThreads, fileCount)));
+        try {
+            Map<String, Future<MasterTable>> masterFutures = new LinkedHashMap<>();
+            for (File file : masterFiles) {
+                masterFutures.put(file.getName(), executor.submit(() -> readMaster(file)));
+            }
+            Map<String, Future<Map<String, List<String>>>> repeatingFutures = new LinkedHashMap<>();
+            for (File file : repeatingFiles) {
+                // repeating_office_type.csv -> office_type
+                String attributeName = file.getName().substring(REPEATING_PREFIX.length(),
+                        file.getName().length() - CSV_SUFFIX.length());
+                repeatingFutures.put(attributeName, executor.submit(() -> readRepeating(file, attributeName)));
+            }
+
+            Map<String, MasterTable> masters = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<MasterTable>> entry : masterFutures.entrySet()) {
+                masters.put(entry.getKey(), entry.getValue().get());
+            }
+            Map<String, Map<String, List<String>>> repeating = new HashMap<>();
+            for (Map.Entry<String, Future<Map<String, List<String>>>> entry : repeatingFutures.entrySet()) {
+                repeating.put(entry.getKey(), entry.getValue().get());
+            }
+
+            ExportCatalog catalog = new ExportCatalog(Collections.unmodifiableMap(masters),
+                                                      Collections.unmodifiableMap(repeating));
+            logger.info("Export catalog loaded: {} master files ({} records), {} repeating files, {} groups with subletters in {} ms",
+                       masters.size(), catalog.getRecordCount(), repeating.size(),
+                       catalog.subletterIdsByGroup.size(), System.currentTimeMillis() - startTime);
+            return catalog;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Start loading the catalog on a background thread, e.g. while DFC sessions are opening
+     * A failed load completes the future exceptionally, so join() fails the run
+     */
+    public static CompletableFuture<ExportCatalog> loadAsync(String exportPath, int maxThreads) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(exportPath, maxThreads);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Find a record by r_object_id in one master CSV, or null
+     */
+    public ExportRecord findById(String csvFileName, String rObjectId) {
+        MasterTable table = masters.get(csvFileName);
+        if (table == null || rObjectId == null) {
+            return null;
+        }
+        return table.byId.get(rObjectId.trim());
+    }
+
+    /**
+     * Find a record by r_object_id in any master CSV (single, group, subletter order), or null
+     */
+    public ExportRecord findById(String rObjectId) {
+        for (String csvFileName : masters.keySet()) {
+            ExportRecord record = findById(csvFileName, rObjectId);
+            if (record != null) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find a record by object_name in one master CSV, or null
+     */
+    public ExportRecord findByName(String csvFileName, String objectName) {
+        MasterTable table = masters.get(csvFileName);
+        if (table == null || objectName == null) {
+            return null;
+        }
+        return table.byName.get(objectName.trim());
+    }
+
+    public boolean containsId(String csvFileName, String rObjectId) {
+        return findById(csvFileName, rObjectId) != null;
+    }
+
+    /**
+     * All r_object_ids of one master CSV, in file order
+     */
+    public List<String> getIds(String csvFileName) {
+        MasterTable table = masters.get(csvFileName);
+        if (table == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(table.byId.keySet()));
+    }
+
+    /**
+     * Values of repeating_<attributeName>.csv for a migrated_id, in file order (empty if none)
+     */
+    public List<String> getRepeatingValues(String attributeName, String migratedId) {
+        Map<String, List<String>> valuesById = repeating.get(attributeName);
+        if (valuesById == null || migratedId == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = valuesById.get(migratedId.trim());
+        return values != null ? Collections.unmodifiableList(values) : Collections.emptyList();
+    }
+
+    /**
+     * Subletter r_object_ids whose group_id is the given group (G1/2024-25 or G1-2024-25)
+     */
+    public List<String> getSubletterIds(String groupName) {
+        List<String> ids = subletterIdsByGroup.get(normalizeGroupName(groupName));
+        return ids != null ? ids : Collections.emptyList();
+    }
+
+    /**
+     * Unique workflow users of all subletters of a group, in first-seen order
+     */
+    public List<String> getGroupWorkflowUsers(String groupName) {
+        List<String> users = workflowUsersByGroup.get(normalizeGroupName(groupName));
+        return users != null ? users : Collections.emptyList();
+    }
+
+    /**
+     * Normalize group_id format: 'G67/2024-25' -> 'G67-2024-25' (the group folder name)
+     */
+    public static String normalizeGroupName(String groupName) {
+        return groupName == null ? "" : groupName.trim().replace("/", "-");
+    }
+
+    public boolean hasRepeatingFile(String attributeName) {
+        return repeating.containsKey(attributeName);
+    }
+
+    public int getRecordCount() {
+        int count = 0;
+        for (MasterTable table : masters.values()) {
+            count += table.byId.size();
+        }
+        return count;
+    }
+
+    private static Map<String, List<String>> indexSublettersByGroup(MasterTable subletters) {
+        if (subletters == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> index = new HashMap<>();
+        for (Map.Entry<String, ExportRecord> entry : subletters.byId.entrySet()) {
+            String groupId = entry.getValue().get("group_id");
+            if (groupId != null && !groupId.isEmpty()) {
+                index.computeIfAbsent(normalizeGroupName(groupId), k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, List<String>> indexWorkflowUsersByGroup(Map<String, List<String>> subletterIdsByGroup,
+                                                                      Map<String, List<String>> workflowUsers) {
+        if (workflowUsers == null || workflowUsers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> index = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : subletterIdsByGroup.entrySet()) {
+            LinkedHashSet<String> users = new LinkedHashSet<>();
+            for (String subletterId : entry.getValue()) {
+                List<String> subletterUsers = workflowUsers.get(subletterId);
+                if (subletterUsers != null) {
+                    users.addAll(subletterUsers);
+                }
+            }
+            if (!users.isEmpty()) {
+                index.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(users)));
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static MasterTable readMaster(File file) throws Exception {
+        MasterTable table = new MasterTable();
+        try (CSVReader csvReader = new CSVReader(new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))) {
+            String[] headers = csvReader.readNext();
+            if (headers == null) {
+                return table;
+            }
+
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < headers.length; i++) {
+                columns.putIfAbsent(headers[i].trim(), i);
+            }
+            int rObjectIdIndex = columns.getOrDefault("r_object_id", -1);
+            int objectNameIndex = columns.getOrDefault("object_name", -1);
+            if (rObjectIdIndex < 0 && objectNameIndex < 0) {
+                logger.warn("Neither r_object_id nor object_name column found in {}", file.getName());
+                return table;
+            }
+
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                ExportRecord record = new ExportRecord(file.getName(), columns, row);
+                // First row wins, matching the old first-match scans
+                String id = record.get("r_object_id");
+                if (id != null && !id.isEmpty()) {
+                    table.byId.putIfAbsent(id, record);
+                }
+                String name = record.get("object_name");
+                if (name != null && !name.isEmpty()) {
+                    table.byName.putIfAbsent(name, record);
+                }
+            }
+        }
+        logger.debug("Indexed {} records from {}", table.byId.size(), file.getName());
+        return table;
+    }
+
+    private static Map<String, List<String>> readRepeating(File file, String attributeName) throws Exception {
+        Map<String, List<String>> valuesById = new HashMap<>();
+        try (CSVReader csvReader = new CSVReader(new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))) {
+            String[] headers = csvReader.readNext();
+            if (headers == null) {
+                return valuesById;
+            }
+
+            // Check for migrated_id first, fallback to r_object_id
+            int idIndex = findColumnIndex(headers, "migrated_id");
+            if (idIndex < 0) {
+                idIndex = findColumnIndex(headers, "r_object_id");
+            }
+            int valueIndex = findColumnIndex(headers, attributeName);
+            if (idIndex < 0 || valueIndex < 0) {
+                logger.warn("Required columns not found in {} (need migrated_id/r_object_id and {})",
+                           file.getName(), attributeName);
+                return valuesById;
+            }
+
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                if (row.length > Math.max(idIndex, valueIndex)) {
+                    String id = row[idIndex].trim();
+                    String value = row[valueIndex].trim();
+                    if (!id.isEmpty() && !value.isEmpty()) {
+                        valuesById.computeIfAbsent(id, k -> new ArrayList<>(2)).add(value);
+                    }
+                }
+            }
+        }
+        logger.debug("Indexed {} ids from {}", valuesById.size(), file.getName());
+        return valuesById;
+    }
+
+    private static int findColumnIndex(String[] headers, String columnName) {
+        for (int i = 0; i < headers.length; i++) {
+            if (columnName.equals(headers[i].trim())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class MasterTable {
+        private final Map<String, ExportRecord> byId = new LinkedHashMap<>();
+        private final Map<String, ExportRecord> byName = new HashMap<>();
+    }
+
+    /**
+     * One row of a master export CSV
+     */
+    public static final class ExportRecord {
+        private final String sourceFile;
+        private final Map<String, Integer> columns;
+        private final String[] values;
+
+        ExportRecord(String sourceFile, Map<String, Integer> columns, String[] values) {
+            this.sourceFile = sourceFile;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        /**
+         * Trimmed value of a column, or null if the column is missing in this row
+         */
+        public String get(String columnName) {
+            Integer index = columns.get(columnName);
+            if (index == null || index >= values.length) {
+                return null;
+            }
+            return values[index].trim();
+        }
+
+        public String getSourceFile() {
+            return sourceFile;
+        }
+    }
+}
@@ -93,8 +93,7 @@ public class MetadataCsvParser {
                         if (rObjectId != null && !rObjectId.isEmpty()) {
                             metadata.addCustomAttribute("migrated_id", rObjectId);
                         }
-                        // Always set is_migrated=true
-                        metadata.addCustomAttribute("is_migrated", true);
+                        // is_migrated is stamped set-based after save (ConstantAttributeStamper)
 
                         metadataList.add(metadata);
                     }
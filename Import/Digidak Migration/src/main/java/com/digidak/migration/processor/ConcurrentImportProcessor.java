@@ -11,20 +11,34 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Concurrent processor for parallel document import
+ * Per-folder document imports are scheduled on the pool through a bounded number of in-flight
+ * tasks; all tasks update one shared ImportResult
  */
 public class ConcurrentImportProcessor {
     private static final Logger logger = LogManager.getLogger(ConcurrentImportProcessor.class);
 
+    // In-flight folder tasks per worker thread (running + queued)
+    private static final int QUEUE_DEPTH_PER_THREAD = 2;
+
+    private static final String SUBLETTER_RECORDS = "digidak_subletter_records";
+
     private MigrationConfig config;
     private DocumentImportService documentImportService;
     private FolderService folderService;
     private MovementRegisterService movementRegisterService;
     private ExecutorService executorService;
 
+    private final int threadPoolSize;
+    private final Map<Future<?>, File> inFlight = new ConcurrentHashMap<>();
+    private volatile boolean aborted = false;
+
     public ConcurrentImportProcessor(MigrationConfig config,
                                       DocumentImportService documentImportService,
                                       FolderService folderService,
@@ -33,14 +47,15 @@ public class ConcurrentImportProcessor {
         this.documentImportService = documentImportService;
         this.folderService = folderService;
         this.movementRegisterService = movementRegisterService;
-        this.executorService = Executors.newFixedThreadPool(config.getThreadPoolSize());
+        this.threadPoolSize = config.getThreadPoolSize();
+        this.executorService = Executors.newFixedThreadPool(threadPoolSize);
     }
 
     /**
      * Process import concurrently
      */
     public ImportResult processImport() {
-        logger.info("Starting concurrent import process with {} threads", config.getThreadPoolSize());
+        logger.info("Starting concurrent import process with {} threads", threadPoolSize);
 
         ImportResult result = new ImportResult();
 
@@ -50,23 +65,27 @@ public class ConcurrentImportProcessor {
             folderService.setupFolderStructure();
             result.incrementFoldersCreated(); // Increment for each folder created
 
-            // Phase 2: Import documents (concurrent)
+            // Phase 2: Import documents (concurrent, one task per folder)
             logger.info("Phase 2: Importing documents concurrently");
-            ImportResult importResult = documentImportService.importAllDocuments();
-
-            // Merge results
-            mergeResults(result, importResult);
+            importDocumentsConcurrently(result);
 
-            // Phase 3: Create movement registers (sequential)
-            logger.info("Phase 3: Creating movement registers");
-            movementRegisterService.createAllMovementRegisters(result);
+            // Phase 3: Create movement registers (concurrent, one task per folder)
+            if (!aborted) {
+                logger.info("Phase 3: Creating movement registers");
+                movementRegisterService.createAllMovementRegisters(result, executorService);
+            }
 
             result.markComplete();
             logger.info("Concurrent import process completed");
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            result.addError("Import process interrupted");
         } catch (Exception e) {
             logger.error("Error in concurrent import process", e);
             result.addError("Import process failed: " + e.getMessage());
+            abort();
         } finally {
             shutdown();
         }
@@ -81,42 +100,28 @@ public class ConcurrentImportProcessor {
         logger.info("Processing folders concurrently");
 
         ImportResult result = new ImportResult();
-        List<Future<ImportResult>> futures = new ArrayList<>();
 
         try {
             // Setup folder structure first
             folderService.setupFolderStructure();
 
-            // Get all folders to process
-            List<File> foldersToProcess = getAllFolders();
-
-            // Submit tasks for each folder
-            for (File folder : foldersToProcess) {
-                Future<ImportResult> future = executorService.submit(
-                        new FolderImportTask(folder, documentImportService)
-                );
-                futures.add(future);
-            }
-
-            // Wait for all tasks to complete
-            for (Future<ImportResult> future : futures) {
-                try {
-                    ImportResult folderResult = future.get();
-                    mergeResults(result, folderResult);
-                } catch (ExecutionException e) {
-                    logger.error("Folder import task failed", e.getCause());
-                    result.addError("Task execution failed: " + e.getCause().getMessage());
-                }
-            }
+            importDocumentsConcurrently(result);
 
             // Create movement registers
-            movementRegisterService.createAllMovementRegisters(result);
+            if (!aborted) {
+                movementRegisterService.createAllMovementRegisters(result, executorService);
+            }
 
             result.markComplete();
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            result.addError("Concurrent processing interrupted");
         } catch (Exception e) {
             logger.error("Error in concurrent folder processing", e);
             result.addError("Concurrent processing failed: " + e.getMessage());
+            abort();
         } finally {
             shutdown();
         }
@@ -124,6 +129,102 @@ public class ConcurrentImportProcessor {
         return result;
     }
 
+    /**
+     * Import documents of all exported folders on the pool
+     * Submission blocks once threadPoolSize * QUEUE_DEPTH_PER_THREAD tasks are in flight,
+     * and returns when every submitted task has finished. A task's permit is given back when its
+     * body ends (or when it is cancelled before it started), not when it is cancelled, so an abort
+     * still waits for running folder imports before the deferred updates are flushed.
+     */
+    public void importDocumentsConcurrently(ImportResult result) throws InterruptedException {
+        List<File> foldersToProcess = getAllFolders();
+        int maxInFlight = threadPoolSize * QUEUE_DEPTH_PER_THREAD;
+        Semaphore permits = new Semaphore(maxInFlight);
+        AtomicLong completed = new AtomicLong(0);
+        int progressInterval = Math.max(1,
+                Integer.parseInt(config.getProperty("migration.log.progress.interval", "100").trim()));
+        long startTime = System.currentTimeMillis();
+
+        for (File folder : foldersToProcess) {
+            permits.acquire();
+            if (aborted) {
+                permits.release();
+                break;
+            }
+            boolean importDocs = !SUBLETTER_RECORDS.equals(folder.getParentFile().getName());
+            // Whoever claims this first (the task body, or done() for a task cancelled before it ran)
+            // gives the permit back
+            AtomicBoolean claimed = new AtomicBoolean(false);
+            Runnable finish = () -> {
+                permits.release();
+                long count = completed.incrementAndGet();
+                if (count % progressInterval == 0) {
+                    logger.info("Document import progress: {}/{} folders", count, foldersToProcess.size());
+                }
+            };
+            FutureTask<Void> task = new FutureTask<Void>(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    if (!aborted) {
+                        documentImportService.importFolder(folder, result, importDocs);
+                    }
+                } catch (Exception e) {
+                    logger.error("Error importing folder: {}", folder.getName(), e);
+                    result.addError("Folder import failed: " + folder.getName() + " - " + e.getMessage());
+                    result.incrementFailed();
+                } finally {
+                    finish.run();
+                }
+                return null;
+            }) {
+                @Override
+                protected void done() {
+                    inFlight.remove(this);
+                    if (claimed.compareAndSet(false, true)) {
+                        finish.run();
+                    }
+                }
+            };
+            inFlight.put(task, folder);
+            try {
+                executorService.execute(task);
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(task);
+                permits.release();
+                logger.warn("Folder import rejected (pool shut down): {}", folder.getName());
+                break;
+            }
+        }
+
+        // All permits back means every submitted task has completed
+        permits.acquire(maxInFlight);
+        permits.release(maxInFlight);
+        documentImportService.flushDeferredUpdates(result);
+
+        logger.info("Document import finished: {} folders in {} ms{}", completed.get(),
+                System.currentTimeMillis() - startTime, aborted ? " (aborted)" : "");
+    }
+
+    /**
+     * Abort the run: stop scheduling folders and cancel running folder imports
+     */
+    public void abort() {
+        if (aborted) {
+            return;
+        }
+        aborted = true;
+        logger.warn("Aborting import, cancelling {} in-flight folder tasks", inFlight.size());
+        for (Future<?> future : new ArrayList<>(inFlight.keySet())) {
+            future.cancel(true);
+        }
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
     /**
      * Get all folders to process
      */
@@ -133,7 +234,7 @@ public class ConcurrentImportProcessor {
         String[] directoryNames = {
                 "digidak_single_records",
                 "digidak_group_records",
-                "digidak_subletter_records"
+                SUBLETTER_RECORDS
         };
 
         for (String dirName : directoryNames) {
@@ -154,28 +255,6 @@ public class ConcurrentImportProcessor {
         return folders;
     }
 
-    /**
-     * Merge import results
-     */
-    private void mergeResults(ImportResult target, ImportResult source) {
-        for (int i = 0; i < source.getTotalDocuments(); i++) {
-            target.incrementTotal();
-        }
-        for (int i = 0; i < source.getSuccessfulImports(); i++) {
-            target.incrementSuccess();
-        }
-        for (int i = 0; i < source.getFailedImports(); i++) {
-            target.incrementFailed();
-        }
-        for (int i = 0; i < source.getFoldersCreated(); i++) {
-            target.incrementFoldersCreated();
-        }
-        for (int i = 0; i < source.getMovementRegistersCreated(); i++) {
-            target.incrementMovementRegisters();
-        }
-        source.getErrors().forEach(target::addError);
-    }
-
     /**
      * Shutdown executor service
      */
@@ -185,36 +264,13 @@ public class ConcurrentImportProcessor {
         try {
             if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
                 executorService.shutdownNow();
+                if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+                    logger.warn("Folder import tasks still running after shutdown");
+                }
             }
         } catch (InterruptedException e) {
             executorService.shutdownNow();
             Thread.currentThread().interrupt();
         }
     }
-
-    /**
-     * Callable task for folder import
-     */
-    private static class FolderImportTask implements Callable<ImportResult> {
-        private File folder;
-        private DocumentImportService documentImportService;
-
-        public FolderImportTask(File folder, DocumentImportService documentImportService) {
-            this.folder = folder;
-            this.documentImportService = documentImportService;
-        }
-
-        @Override
-        public ImportResult call() {
-            ImportResult result = new ImportResult();
-            try {
-                boolean importDocs = !folder.getParentFile().getName().equals("digidak_subletter_records");
-                documentImportService.importFromPath(folder.getAbsolutePath(), result);
-            } catch (Exception e) {
-                logger.error("Error importing folder: {}", folder.getName(), e);
-                result.addError("Folder import failed: " + folder.getName() + " - " + e.getMessage());
-            }
-            return result;
-        }
-    }
 }
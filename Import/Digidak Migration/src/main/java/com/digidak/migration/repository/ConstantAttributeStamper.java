@@ -0,0 +1,101 @@
+package com.digidak.migration.repository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batches run-wide constant attributes (is_migrated, folder status) for migrated objects
+ * Saved objects are stamped through a {@link DqlUpdateBatcher}, one
+ * UPDATE ... OBJECTS SET ... WHERE r_object_id IN (...) per batch, instead of being set
+ * object by object. Objects the update failed for are reported by getFailedObjectIds.
+ */
+public class ConstantAttributeStamper implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ConstantAttributeStamper.class);
+
+    /**
+     * Every migrated document and movement register
+     */
+    public static final Map<String, Object> MIGRATED = constants("is_migrated", true);
+
+    /**
+     * Every migrated folder
+     */
+    public static final Map<String, Object> MIGRATED_CLOSED = constants("status", "Closed", "is_migrated", true);
+
+    private final DqlUpdateBatcher batcher;
+
+    public ConstantAttributeStamper(RealSessionManager sessionManager) {
+        this(sessionManager, DqlUpdateBatcher.DEFAULT_BATCH_SIZE, DqlUpdateBatcher.DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    public ConstantAttributeStamper(RealSessionManager sessionManager, int batchSize, long flushIntervalMs) {
+        this.batcher = new DqlUpdateBatcher(sessionManager, "constant-stamp", batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Queue constant attributes for a saved object
+     */
+    public void stamp(String objectType, String objectId, Map<String, Object> constants) {
+        batcher.queue(objectType, setClause(constants), objectId);
+    }
+
+    /**
+     * Apply every queued stamp now
+     */
+    public void flush() {
+        batcher.flush();
+    }
+
+    /**
+     * Stop periodic flushing and apply what is left
+     */
+    @Override
+    public void close() {
+        batcher.close();
+        logger.info("Constant attributes stamped: {} objects in {} statements ({} retried one by one, {} failed)",
+                   batcher.getObjectsUpdated(), batcher.getStatementsExecuted(), batcher.getObjectsRetried(),
+                   batcher.getFailedObjectIds().size());
+    }
+
+    /**
+     * Objects whose constants could not be stamped, even one by one
+     */
+    public List<String> getFailedObjectIds() {
+        return batcher.getFailedObjectIds();
+    }
+
+    /**
+     * DQL update list for constants, e.g. SET status = 'Closed', SET is_migrated = TRUE
+     */
+    static String setClause(Map<String, Object> constants) {
+        StringBuilder clause = new StringBuilder();
+        for (Map.Entry<String, Object> entry : constants.entrySet()) {
+            if (clause.length() > 0) {
+                clause.append(", ");
+            }
+            clause.append("SET ").append(entry.getKey()).append(" = ");
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                clause.append((Boolean) value ? "TRUE" : "FALSE");
+            } else if (value instanceof Number) {
+                clause.append(value);
+            } else {
+                clause.append("'").append(String.valueOf(value).replace("'", "''")).append("'");
+            }
+        }
+        return clause.toString();
+    }
+
+    private static Map<String, Object> constants(Object... namesAndValues) {
+        Map<String, Object> constants = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            constants.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return Collections.unmodifiableMap(constants);
+    }
+}
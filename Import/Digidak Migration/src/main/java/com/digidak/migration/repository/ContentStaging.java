@@ -0,0 +1,201 @@
+package com.digidak.migration.repository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-path aliases for content files whose path is too long for DFC set_file
+ * set_file takes at most 255 UTF-8 bytes, which Hindi file names exceed easily. Such files
+ * are staged in a per-run directory under a short name as a hard link, else a symbolic link,
+ * and only copied when neither can be created, so large PDFs are not duplicated on disk.
+ * Hard links are given up for the run only when the file system cannot make them or the content
+ * is on another volume; any other failure falls back for that one file.
+ * Safe to share between threads.
+ */
+public class ContentStaging {
+    private static final Logger logger = LogManager.getLogger(ContentStaging.class);
+
+    public static final int SET_FILE_MAX_BYTES = 255;
+    private static final int MAX_EXTENSION_LENGTH = 10;
+
+    private final Path stagingRoot;
+    private volatile Path runDir;
+    private volatile boolean hardLinks = true;
+    private volatile boolean symbolicLinks = true;
+
+    private final AtomicLong sequence = new AtomicLong(0);
+    private final AtomicLong hardLinked = new AtomicLong(0);
+    private final AtomicLong symbolicLinked = new AtomicLong(0);
+    private final AtomicLong copied = new AtomicLong(0);
+
+    /**
+     * Stage under the system temp directory
+     */
+    public ContentStaging() {
+        this(Paths.get(System.getProperty("java.io.tmpdir"), "digidak_stage"));
+    }
+
+    /**
+     * Stage under the given directory (same volume as the export for hard links)
+     */
+    public ContentStaging(Path stagingRoot) {
+        this.stagingRoot = stagingRoot;
+    }
+
+    /**
+     * Path DFC can take for this file: the file itself when its path is short enough,
+     * otherwise a short-named alias that is removed when the result is closed
+     */
+    public StagedContent stage(File contentFile) throws IOException {
+        if (!needsStaging(contentFile.getAbsolutePath())) {
+            return new StagedContent(contentFile, null);
+        }
+
+        Path source = contentFile.toPath().toAbsolutePath();
+        Path alias = getRunDir().resolve("c" + Long.toString(sequence.incrementAndGet(), 36)
+                                         + extension(contentFile.getName()));
+
+        if (hardLinks) {
+            try {
+                Files.createLink(alias, source);
+                hardLinked.incrementAndGet();
+                logger.debug("Staged long content path as hard link: {}", alias);
+                return new StagedContent(alias.toFile(), alias);
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                if (hardLinksImpossible(e, source)) {
+                    hardLinks = false;
+                    logger.info("Hard links unavailable in {} ({}), trying symbolic links",
+                               stagingRoot, e.getMessage());
+                } else {
+                    logger.debug("Hard link failed for {} ({}), trying a symbolic link", source, e.getMessage());
+                }
+            }
+        }
+        if (symbolicLinks) {
+            try {
+                Files.createSymbolicLink(alias, source);
+                symbolicLinked.incrementAndGet();
+                logger.debug("Staged long content path as symbolic link: {}", alias);
+                return new StagedContent(alias.toFile(), alias);
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                symbolicLinks = false;
+                logger.info("Symbolic links unavailable in {} ({}), copying long-path content",
+                           stagingRoot, e.getMessage());
+            }
+        }
+
+        Files.copy(source, alias, StandardCopyOption.REPLACE_EXISTING);
+        copied.incrementAndGet();
+        logger.debug("Staged long content path as copy: {}", alias);
+        return new StagedContent(alias.toFile(), alias);
+    }
+
+    // No later hard link can work: unsupported or forbidden, or the content is on another volume
+    private boolean hardLinksImpossible(Exception e, Path source) {
+        if (!(e instanceof IOException)) {
+            return true;
+        }
+        try {
+            return !Files.getFileStore(source).equals(Files.getFileStore(runDir));
+        } catch (IOException storeError) {
+            return false;
+        }
+    }
+
+    /**
+     * True when the path exceeds the DFC set_file limit
+     */
+    static boolean needsStaging(String absolutePath) {
+        return absolutePath.getBytes(StandardCharsets.UTF_8).length > SET_FILE_MAX_BYTES;
+    }
+
+    public long getHardLinkedCount() {
+        return hardLinked.get();
+    }
+
+    public long getSymbolicLinkedCount() {
+        return symbolicLinked.get();
+    }
+
+    public long getCopiedCount() {
+        return copied.get();
+    }
+
+    /**
+     * Log how long-path content was staged
+     */
+    public void logSummary() {
+        long total = hardLinked.get() + symbolicLinked.get() + copied.get();
+        if (total > 0) {
+            logger.info("Long content paths staged: {} ({} hard links, {} symbolic links, {} copies)",
+                       total, hardLinked.get(), symbolicLinked.get(), copied.get());
+        }
+    }
+
+    // Created once, on the first long path
+    private Path getRunDir() throws IOException {
+        Path dir = runDir;
+        if (dir == null) {
+            synchronized (this) {
+                dir = runDir;
+                if (dir == null) {
+                    Files.createDirectories(stagingRoot);
+                    dir = Files.createTempDirectory(stagingRoot, "r");
+                    dir.toFile().deleteOnExit();
+                    runDir = dir;
+                }
+            }
+        }
+        return dir;
+    }
+
+    private static String extension(String name) {
+        int dotIndex = name.lastIndexOf('.');
+        return dotIndex >= 0 && name.length() - dotIndex <= MAX_EXTENSION_LENGTH ? name.substring(dotIndex) : "";
+    }
+
+    /**
+     * File to hand to set_file; close once the document is saved
+     */
+    public static final class StagedContent implements AutoCloseable {
+        private final File file;
+        private final Path alias;
+
+        StagedContent(File file, Path alias) {
+            this.file = file;
+            this.alias = alias;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public boolean isStaged() {
+            return alias != null;
+        }
+
+        /**
+         * Remove the alias (never the original file)
+         */
+        @Override
+        public void close() {
+            if (alias == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(alias);
+            } catch (IOException e) {
+                logger.warn("Failed to remove staged content {}: {}", alias, e.getMessage());
+            }
+        }
+    }
+}
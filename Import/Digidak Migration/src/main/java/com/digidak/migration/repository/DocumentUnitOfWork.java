@@ -0,0 +1,122 @@
+package com.digidak.migration.repository;
+
+import com.digidak.migration.model.DocumentMetadata;
+import com.documentum.fc.client.IDfSession;
+import com.documentum.fc.client.IDfSysObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Unit of work for creating one document or movement register
+ * Holds a single pooled session and object handle from create through save,
+ * instead of a session checkout and object fetch per step
+ *
+ * Usage:
+ *   try (DocumentUnitOfWork work = documentRepository.begin(metadata, folderId)) {
+ *       work.setMetadata(metadata);
+ *       work.setContent(file);
+ *       String id = work.save(metadata);
+ *   }
+ */
+public class DocumentUnitOfWork implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(DocumentUnitOfWork.class);
+
+    private final RealDocumentRepository repository;
+    private final RealSessionManager sessionManager;
+    private IDfSession session;
+    private final IDfSysObject document;
+    private ContentStaging.StagedContent content;
+    private boolean saved = false;
+
+    DocumentUnitOfWork(RealDocumentRepository repository, RealSessionManager sessionManager,
+                       IDfSession session, IDfSysObject document) {
+        this.repository = repository;
+        this.sessionManager = sessionManager;
+        this.session = session;
+        this.document = document;
+    }
+
+    /**
+     * Object ID of the document (assigned at create, before save)
+     */
+    public String getDocumentId() throws Exception {
+        return document.getObjectId().getId();
+    }
+
+    /**
+     * Set document metadata
+     */
+    public DocumentUnitOfWork setMetadata(DocumentMetadata metadata) throws Exception {
+        checkOpen();
+        repository.applyMetadata(document, metadata);
+        return this;
+    }
+
+    /**
+     * Set repeating attribute values
+     */
+    public DocumentUnitOfWork setRepeatingAttribute(String attributeName, List<String> values) throws Exception {
+        checkOpen();
+        repository.applyRepeatingAttribute(document, attributeName, values);
+        return this;
+    }
+
+    /**
+     * Attach content file
+     */
+    public DocumentUnitOfWork setContent(File contentFile) throws Exception {
+        checkOpen();
+        ContentStaging.StagedContent previous = content;
+        content = repository.attachContent(session, document, contentFile);
+        if (previous != null) {
+            previous.close();
+        }
+        return this;
+    }
+
+    /**
+     * Save document (metadata may carry a deferred owner_name) and return its ID
+     */
+    public String save(DocumentMetadata metadata) throws Exception {
+        checkOpen();
+        repository.saveDocument(session, document, metadata);
+        saved = true;
+        return getDocumentId();
+    }
+
+    public String save() throws Exception {
+        return save(null);
+    }
+
+    public boolean isSaved() {
+        return saved;
+    }
+
+    /**
+     * Release the session and any staged content alias; an unsaved document is simply discarded
+     */
+    @Override
+    public void close() {
+        if (session == null) {
+            return;
+        }
+        if (!saved) {
+            logger.debug("Unit of work closed without save, discarding new document");
+        }
+        sessionManager.releaseSession(session);
+        session = null;
+        if (content != null) {
+            content.close();
+            content = null;
+        }
+    }
+
+    private void checkOpen() {
+        if (session == null) {
+            throw new IllegalStateException("Unit of work already closed");
+        }
+    }
+}
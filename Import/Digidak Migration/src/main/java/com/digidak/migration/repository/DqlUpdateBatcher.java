@@ -0,0 +1,221 @@
+package com.digidak.migration.repository;
+
+import com.documentum.fc.client.DfQuery;
+import com.documentum.fc.client.IDfCollection;
+import com.documentum.fc.client.IDfQuery;
+import com.documentum.fc.client.IDfSession;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chunked set-based DQL updates for saved objects
+ * Objects are queued per (object type, SET clause) and updated with one
+ * UPDATE ... OBJECTS SET ... WHERE r_object_id IN (...) per batch, either when a batch
+ * fills up or on a periodic flush. A failed batch is retried object by object; objects
+ * that still fail are kept for getFailedObjectIds.
+ */
+public class DqlUpdateBatcher implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(DqlUpdateBatcher.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 250;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 5000;
+
+    private final RealSessionManager sessionManager;
+    private final String description;
+    private final int batchSize;
+    private final Map<BatchKey, List<String>> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final List<String> failedObjectIds = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicLong objectsUpdated = new AtomicLong(0);
+    private final AtomicLong statementsExecuted = new AtomicLong(0);
+    private final AtomicLong objectsRetried = new AtomicLong(0);
+
+    /**
+     * @param description what the updates set, for thread names and log messages (e.g. "owner-assignment")
+     */
+    public DqlUpdateBatcher(RealSessionManager sessionManager, String description, int batchSize,
+                            long flushIntervalMs) {
+        this.sessionManager = sessionManager;
+        this.description = description;
+        this.batchSize = Math.max(1, batchSize);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, description + "-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue an update for a saved object
+     *
+     * @param setClause DQL update list, e.g. SET is_migrated = TRUE
+     */
+    public void queue(String objectType, String setClause, String objectId) {
+        BatchKey key = new BatchKey(objectType, setClause);
+        List<String> full = null;
+        synchronized (pending) {
+            List<String> ids = pending.computeIfAbsent(key, k -> new ArrayList<>());
+            ids.add(objectId);
+            if (ids.size() >= batchSize) {
+                full = pending.remove(key);
+            }
+        }
+        if (full != null) {
+            execute(key, full);
+        }
+    }
+
+    /**
+     * Apply every queued update now
+     */
+    public void flush() {
+        Map<BatchKey, List<String>> batches;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batches = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        for (Map.Entry<BatchKey, List<String>> entry : batches.entrySet()) {
+            execute(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Stop periodic flushing and apply what is left
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Objects whose update failed, even one by one
+     */
+    public List<String> getFailedObjectIds() {
+        synchronized (failedObjectIds) {
+            return new ArrayList<>(failedObjectIds);
+        }
+    }
+
+    public long getObjectsUpdated() {
+        return objectsUpdated.get();
+    }
+
+    public long getStatementsExecuted() {
+        return statementsExecuted.get();
+    }
+
+    public long getObjectsRetried() {
+        return objectsRetried.get();
+    }
+
+    // A failed batch is retried per object so one bad id does not leave the rest without the update
+    private void execute(BatchKey key, List<String> objectIds) {
+        if (update(key, objectIds)) {
+            return;
+        }
+        if (objectIds.size() == 1) {
+            failedObjectIds.addAll(objectIds);
+            return;
+        }
+        objectsRetried.addAndGet(objectIds.size());
+        for (String id : objectIds) {
+            if (!update(key, Collections.singletonList(id))) {
+                failedObjectIds.add(id);
+            }
+        }
+    }
+
+    private boolean update(BatchKey key, List<String> objectIds) {
+        IDfSession session = null;
+        try {
+            session = sessionManager.getSession();
+            StringBuilder inList = new StringBuilder();
+            for (String id : objectIds) {
+                if (inList.length() > 0) {
+                    inList.append(",");
+                }
+                inList.append("'").append(id).append("'");
+            }
+            String dql = "UPDATE " + key.objectType + " OBJECTS " + key.setClause
+                        + " WHERE r_object_id IN (" + inList + ")";
+            logger.debug("{}: updating {} {} objects via DQL", description, objectIds.size(), key.objectType);
+
+            IDfQuery query = new DfQuery();
+            query.setDQL(dql);
+            IDfCollection result = null;
+            try {
+                result = query.execute(session, IDfQuery.DF_EXEC_QUERY);
+            } finally {
+                if (result != null) {
+                    result.close();
+                }
+            }
+            objectsUpdated.addAndGet(objectIds.size());
+            statementsExecuted.incrementAndGet();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("{}: interrupted applying '{}' to {} {} objects",
+                        description, key.setClause, objectIds.size(), key.objectType);
+            return false;
+        } catch (Exception e) {
+            logger.error("{}: failed to apply '{}' to {} {} objects{}: {}", description, key.setClause,
+                        objectIds.size(), key.objectType,
+                        objectIds.size() == 1 ? " (" + objectIds.get(0) + ")" : "", e.getMessage());
+            return false;
+        } finally {
+            if (session != null) {
+                sessionManager.releaseSession(session);
+            }
+        }
+    }
+
+    private static final class BatchKey {
+        private final String objectType;
+        private final String setClause;
+
+        BatchKey(String objectType, String setClause) {
+            this.objectType = objectType;
+            this.setClause = setClause;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return objectType.equals(other.objectType) && setClause.equals(other.setClause);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * objectType.hashCode() + setClause.hashCode();
+        }
+    }
+}
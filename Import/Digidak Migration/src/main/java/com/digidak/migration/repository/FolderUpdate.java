@@ -0,0 +1,98 @@
+package com.digidak.migration.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pending changes to one folder
+ * Collects scalar attributes, repeating attribute lists and an ACL assignment so
+ * RealFolderRepository#applyUpdate can write them to one fetched object with a single save()
+ *
+ * Usage:
+ *   FolderUpdate update = new FolderUpdate(folderId)
+ *           .setAll(attributes)
+ *           .setRepeating("workflow_groups", users)
+ *           .setAcl(aclDomain, aclName);
+ *   folderRepository.applyUpdate(update);
+ */
+public class FolderUpdate {
+    private final String folderId;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private final Map<String, List<String>> repeatingAttributes = new LinkedHashMap<>();
+    private String aclDomain;
+    private String aclName;
+
+    public FolderUpdate(String folderId) {
+        this.folderId = folderId;
+    }
+
+    /**
+     * Set a single-valued attribute (String, Boolean, Integer or toString() of anything else)
+     */
+    public FolderUpdate set(String attributeName, Object value) {
+        attributes.put(attributeName, value);
+        return this;
+    }
+
+    public FolderUpdate setAll(Map<String, Object> values) {
+        attributes.putAll(values);
+        return this;
+    }
+
+    /**
+     * Replace all values of a repeating attribute
+     */
+    public FolderUpdate setRepeating(String attributeName, List<String> values) {
+        repeatingAttributes.put(attributeName, new ArrayList<>(values));
+        return this;
+    }
+
+    /**
+     * Assign an existing ACL by domain and name
+     */
+    public FolderUpdate setAcl(String aclDomain, String aclName) {
+        this.aclDomain = aclDomain;
+        this.aclName = aclName;
+        return this;
+    }
+
+    /**
+     * Drop the ACL assignment (used to retry the attribute changes without it)
+     */
+    public FolderUpdate clearAcl() {
+        this.aclDomain = null;
+        this.aclName = null;
+        return this;
+    }
+
+    public String getFolderId() {
+        return folderId;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public Map<String, List<String>> getRepeatingAttributes() {
+        return Collections.unmodifiableMap(repeatingAttributes);
+    }
+
+    public String getAclDomain() {
+        return aclDomain;
+    }
+
+    public String getAclName() {
+        return aclName;
+    }
+
+    public boolean hasAcl() {
+        return aclName != null;
+    }
+
+    public boolean isEmpty() {
+        return attributes.isEmpty() && repeatingAttributes.isEmpty() && !hasAcl();
+    }
+}
@@ -0,0 +1,130 @@
+package com.digidak.migration.repository;
+
+import com.documentum.fc.client.DfQuery;
+import com.documentum.fc.client.IDfCollection;
+import com.documentum.fc.client.IDfQuery;
+import com.documentum.fc.client.IDfSession;
+import com.documentum.fc.common.DfException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable extension -> dm_format name registry
+ * Loads all of dm_format once and layers configured overrides (format.mapping.*) on top,
+ * so content type resolution needs no DQL and is safe to read from any thread
+ */
+public final class FormatRegistry {
+    private static final Logger logger = LogManager.getLogger(FormatRegistry.class);
+
+    private static final FormatRegistry EMPTY = new FormatRegistry(Collections.emptyMap());
+
+    private final Map<String, String> formatsByExtension;
+
+    private FormatRegistry(Map<String, String> formatsByExtension) {
+        this.formatsByExtension = formatsByExtension;
+    }
+
+    /**
+     * Load registry using a pooled session
+     */
+    public static FormatRegistry load(RealSessionManager sessionManager,
+                                      Map<String, String> overrides) throws Exception {
+        IDfSession session = sessionManager.getSession();
+        try {
+            return load(session, overrides);
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
+
+    /**
+     * Load registry with one dm_format query; overrides win over repository formats
+     * A failed query is thrown rather than degraded to an overrides-only registry
+     */
+    public static FormatRegistry load(IDfSession session, Map<String, String> overrides) throws DfException {
+        long startTime = System.currentTimeMillis();
+        Map<String, String> formats = new HashMap<>();
+
+        String dql = "SELECT name, dos_extension FROM dm_format " +
+                     "WHERE dos_extension IS NOT NULLSTRING ORDER BY dos_extension, name";
+        IDfCollection result = null;
+        try {
+            IDfQuery query = new DfQuery();
+            query.setDQL(dql);
+            result = query.execute(session, IDfQuery.DF_READ_QUERY);
+            while (result.next()) {
+                String extension = result.getString("dos_extension").trim().toLowerCase();
+                if (!extension.isEmpty()) {
+                    // First format per extension wins, matching the old single-row lookup
+                    formats.putIfAbsent(extension, result.getString("name"));
+                }
+            }
+        } finally {
+            if (result != null) {
+                try {
+                    result.close();
+                } catch (Exception e) {
+                    logger.debug("Error closing collection: {}", e.getMessage());
+                }
+            }
+        }
+
+        int repositoryCount = formats.size();
+        if (overrides != null) {
+            for (Map.Entry<String, String> entry : overrides.entrySet()) {
+                formats.put(entry.getKey().trim().toLowerCase(), entry.getValue().trim());
+            }
+        }
+
+        logger.info("Format registry loaded: {} extensions from dm_format, {} overrides in {} ms",
+                   repositoryCount, overrides != null ? overrides.size() : 0,
+                   System.currentTimeMillis() - startTime);
+        return new FormatRegistry(Collections.unmodifiableMap(formats));
+    }
+
+    /**
+     * Registry with no entries (every lookup misses)
+     */
+    public static FormatRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get format name for an extension, or null if unknown
+     */
+    public String getFormat(String extension) {
+        if (extension == null || extension.isEmpty()) {
+            return null;
+        }
+        return formatsByExtension.get(extension.toLowerCase());
+    }
+
+    /**
+     * Get format name for a file name's extension, or null if unknown
+     */
+    public String getFormatForFile(String fileName) {
+        return getFormat(getExtension(fileName));
+    }
+
+    public int size() {
+        return formatsByExtension.size();
+    }
+
+    /**
+     * Lower-case extension without the dot, or empty string
+     */
+    public static String getExtension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dotIndex = fileName.lastIndexOf('.');
+        if (dotIndex >= 0 && dotIndex < fileName.length() - 1) {
+            return fileName.substring(dotIndex + 1).toLowerCase();
+        }
+        return "";
+    }
+}
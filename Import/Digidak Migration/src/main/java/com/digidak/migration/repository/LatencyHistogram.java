@@ -0,0 +1,66 @@
+package com.digidak.migration.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two millisecond buckets
+ * Bucket 0 holds samples under 1 ms, bucket i holds [2^(i-1), 2^i) ms; the last bucket is open-ended.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 24; // up to ~2.3 hours
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong totalMs = new AtomicLong(0);
+    private final AtomicLong maxMs = new AtomicLong(0);
+
+    public void record(long millis) {
+        long ms = Math.max(0, millis);
+        int bucket = ms == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(ms));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalMs.addAndGet(ms);
+        maxMs.accumulateAndGet(ms, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxMs() {
+        return maxMs.get();
+    }
+
+    public double getMeanMs() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) totalMs.get() / n;
+    }
+
+    /**
+     * Upper bound (ms) of the bucket holding the given percentile (0-100)
+     */
+    public long getPercentileMs(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? maxMs.get() : Math.min(1L << i, maxMs.get());
+            }
+        }
+        return maxMs.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1fms p50<=%dms p95<=%dms p99<=%dms max=%dms",
+                getCount(), getMeanMs(), getPercentileMs(50), getPercentileMs(95),
+                getPercentileMs(99), getMaxMs());
+    }
+}
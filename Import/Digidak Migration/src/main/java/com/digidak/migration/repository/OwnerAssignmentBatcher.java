@@ -0,0 +1,149 @@
+package com.digidak.migration.repository;
+
+import com.documentum.fc.client.DfQuery;
+import com.documentum.fc.client.IDfCollection;
+import com.documentum.fc.client.IDfQuery;
+import com.documentum.fc.client.IDfSession;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Batches deferred owner_name assignments
+ * Saved objects are queued per owner on a {@link DqlUpdateBatcher}, one
+ * UPDATE ... WHERE r_object_id IN (...) per batch; objects the update failed for are
+ * reported by getFailedObjectIds. Owners are checked against a preloaded dm_user set
+ * (shared with the user directory when one is available); unknown owners fall back to
+ * the session user up front instead of via a failed DQL.
+ */
+public class OwnerAssignmentBatcher implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(OwnerAssignmentBatcher.class);
+
+    private final RealSessionManager sessionManager;
+    private final DqlUpdateBatcher batcher;
+
+    private volatile Supplier<Set<String>> userNameSource;
+    private volatile Set<String> knownUsers;
+    private volatile String fallbackOwner;
+
+    private final AtomicLong fallbackAssignments = new AtomicLong(0);
+
+    public OwnerAssignmentBatcher(RealSessionManager sessionManager) {
+        this(sessionManager, DqlUpdateBatcher.DEFAULT_BATCH_SIZE, DqlUpdateBatcher.DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    public OwnerAssignmentBatcher(RealSessionManager sessionManager, int batchSize, long flushIntervalMs) {
+        this.sessionManager = sessionManager;
+        this.batcher = new DqlUpdateBatcher(sessionManager, "owner-assignment", batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Take the known user_name set from an already loaded source (the dm_user directory)
+     * instead of querying dm_user again; a source returning null falls back to the query
+     */
+    public void setUserNameSource(Supplier<Set<String>> userNameSource) {
+        this.userNameSource = userNameSource;
+    }
+
+    /**
+     * Load the dm_user set now instead of on the first assignment
+     */
+    public void preloadUsers() throws Exception {
+        ensureUsersLoaded();
+    }
+
+    /**
+     * Queue owner_name assignment for a saved object
+     */
+    public void assign(String objectType, String objectId, String ownerName) throws Exception {
+        if (ownerName == null || ownerName.trim().isEmpty()) {
+            return;
+        }
+        ensureUsersLoaded();
+
+        String owner = ownerName.trim();
+        if (!knownUsers.contains(owner)) {
+            logger.warn("User '{}' not found in repository, using session user as owner for document: {}",
+                       owner, objectId);
+            owner = fallbackOwner;
+            fallbackAssignments.incrementAndGet();
+        }
+
+        batcher.queue(objectType, ConstantAttributeStamper.setClause(Collections.singletonMap("owner_name", owner)),
+                      objectId);
+    }
+
+    /**
+     * Apply every queued assignment now
+     */
+    public void flush() {
+        batcher.flush();
+    }
+
+    /**
+     * Stop periodic flushing and apply what is left
+     */
+    @Override
+    public void close() {
+        batcher.close();
+        logger.info("Owner assignments applied: {} objects in {} statements ({} fell back to session user, "
+                   + "{} retried one by one, {} failed)", batcher.getObjectsUpdated(), batcher.getStatementsExecuted(),
+                   fallbackAssignments.get(), batcher.getObjectsRetried(), batcher.getFailedObjectIds().size());
+    }
+
+    /**
+     * Objects whose owner_name could not be set, even one by one
+     */
+    public List<String> getFailedObjectIds() {
+        return batcher.getFailedObjectIds();
+    }
+
+    private void ensureUsersLoaded() throws Exception {
+        if (knownUsers != null) {
+            return;
+        }
+        synchronized (this) {
+            if (knownUsers != null) {
+                return;
+            }
+            Supplier<Set<String>> source = userNameSource;
+            Set<String> users = source != null ? source.get() : null;
+            IDfSession session = sessionManager.getSession();
+            try {
+                fallbackOwner = session.getLoginUserName();
+                if (users == null) {
+                    users = queryUserNames(session);
+                    logger.info("Preloaded {} repository users for owner_name checks (fallback owner: {})",
+                               users.size(), fallbackOwner);
+                } else {
+                    logger.info("Using {} dm_user names from the user directory for owner_name checks "
+                               + "(fallback owner: {})", users.size(), fallbackOwner);
+                }
+            } finally {
+                sessionManager.releaseSession(session);
+            }
+            knownUsers = Collections.unmodifiableSet(users);
+        }
+    }
+
+    private static Set<String> queryUserNames(IDfSession session) throws Exception {
+        Set<String> users = new HashSet<>();
+        IDfQuery query = new DfQuery();
+        query.setDQL("SELECT user_name FROM dm_user");
+        IDfCollection result = query.execute(session, IDfQuery.DF_READ_QUERY);
+        try {
+            while (result.next()) {
+                users.add(result.getString("user_name"));
+            }
+        } finally {
+            result.close();
+        }
+        return users;
+    }
+}
@@ -4,12 +4,18 @@ import com.digidak.migration.model.DocumentMetadata;
 import com.documentum.fc.client.IDfSession;
 import com.documentum.fc.client.IDfPersistentObject;
 import com.documentum.fc.client.IDfSysObject;
+import com.documentum.fc.common.DfException;
 import com.documentum.fc.common.DfId;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Real Documentum DFC Document Repository
@@ -20,6 +26,14 @@ public class RealDocumentRepository {
     private static final Logger logger = LogManager.getLogger(RealDocumentRepository.class);
 
     private RealSessionManager sessionManager;
+    private volatile OwnerAssignmentBatcher ownerBatcher;
+    private volatile ConstantAttributeStamper constantStamper;
+    // ACL set on every new document before its first save (null = repository default)
+    private volatile String[] newDocumentAcl;
+    // Short-path aliases for content paths over the set_file limit
+    private volatile ContentStaging contentStaging = new ContentStaging();
+    // Known dm_user names for owner_name checks (null = owner batcher queries dm_user itself)
+    private volatile Supplier<Set<String>> userNameSource;
 
     public RealDocumentRepository(RealSessionManager sessionManager) {
         this.sessionManager = sessionManager;
@@ -31,36 +45,58 @@ public class RealDocumentRepository {
     public String createDocument(DocumentMetadata metadata, String folderId) throws Exception {
         IDfSession session = sessionManager.getSession();
         try {
-            logger.debug("Creating document: {}", metadata.getObjectName());
+            IDfPersistentObject document = newDocument(session, metadata, folderId);
+            return document.getObjectId().getId();
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
 
-            // Use specified object type, or default to cms_digidak_document for regular documents
-            // (source system type edmapp_letter_document doesn't exist in target)
-            String objectType = metadata.getrObjectType();
-            if (objectType == null || objectType.trim().isEmpty() || objectType.equals("edmapp_letter_document")) {
-                objectType = "cms_digidak_document";
-            }
-            logger.debug("Using document type: {}", objectType);
+    /**
+     * Begin a unit of work for one new document: a single session and object handle
+     * are held through metadata, content and save. Close it to release the session.
+     */
+    public DocumentUnitOfWork begin(DocumentMetadata metadata, String folderId) throws Exception {
+        IDfSession session = sessionManager.getSession();
+        try {
+            IDfSysObject document = (IDfSysObject) newDocument(session, metadata, folderId);
+            return new DocumentUnitOfWork(this, sessionManager, session, document);
+        } catch (Exception e) {
+            sessionManager.releaseSession(session);
+            throw e;
+        }
+    }
 
-            // Create new document using DFC
-            IDfPersistentObject document = session.newObject(objectType);
-            document.setString("object_name", metadata.getObjectName());
+    IDfPersistentObject newDocument(IDfSession session, DocumentMetadata metadata, String folderId) throws Exception {
+        logger.debug("Creating document: {}", metadata.getObjectName());
 
-            // Link to folder using folder path
-            if (folderId != null && !folderId.trim().isEmpty()) {
-                document.setString("i_folder_id", folderId);
-            }
+        // Use specified object type, or default to cms_digidak_document for regular documents
+        // (source system type edmapp_letter_document doesn't exist in target)
+        String objectType = metadata.getrObjectType();
+        if (objectType == null || objectType.trim().isEmpty() || objectType.equals("edmapp_letter_document")) {
+            objectType = "cms_digidak_document";
+        }
+        logger.debug("Using document type: {}", objectType);
 
-            // Note: ACL will inherit from parent folder automatically
-            // No need to explicitly set ACL - Documentum will use folder's ACL or system default
+        // Create new document using DFC
+        IDfPersistentObject document = session.newObject(objectType);
+        document.setString("object_name", metadata.getObjectName());
 
-            // Don't save yet - metadata and content will be set first
-            String documentId = document.getObjectId().getId();
-            logger.debug("Document created with ID: {} (ACL will inherit from folder)", documentId);
+        // Link to folder using folder path
+        if (folderId != null && !folderId.trim().isEmpty()) {
+            document.setString("i_folder_id", folderId);
+        }
 
-            return documentId;
-        } finally {
-            sessionManager.releaseSession(session);
+        // ACL: the configured shared ACL if any, otherwise Documentum's default (folder's ACL or system default)
+        String[] acl = newDocumentAcl;
+        if (acl != null) {
+            ((IDfSysObject) document).setACLDomain(acl[0]);
+            ((IDfSysObject) document).setACLName(acl[1]);
         }
+
+        // Don't save yet - metadata and content will be set first
+        logger.debug("Document created with ID: {} (ACL will inherit from folder)", document.getObjectId().getId());
+        return document;
     }
 
     /**
@@ -69,55 +105,59 @@ public class RealDocumentRepository {
     public void setMetadata(String documentId, DocumentMetadata metadata) throws Exception {
         IDfSession session = sessionManager.getSession();
         try {
-            logger.debug("Setting metadata for document: {}", documentId);
-
             IDfPersistentObject document = session.getObject(new DfId(documentId));
             if (document == null) {
                 throw new Exception("Document not found: " + documentId);
             }
+            applyMetadata(document, metadata);
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
 
-            // Set basic metadata
-            if (metadata.getObjectName() != null) {
-                document.setString("object_name", metadata.getObjectName());
-            }
+    void applyMetadata(IDfPersistentObject document, DocumentMetadata metadata) throws Exception {
+        String documentId = document.getObjectId().getId();
+        logger.debug("Setting metadata for document: {}", documentId);
 
-            // Skip setting owner_name - use current session user as owner
-            // Setting owner from metadata causes ACL domain issues
-            // if (metadata.getrCreatorName() != null) {
-            //     document.setString("owner_name", metadata.getrCreatorName());
-            // }
-
-            // Set custom attributes if they exist in the object type
-            // Skip owner_name here - it will be set via DQL after save to avoid ACL domain issues
-            if (metadata.getCustomAttributes() != null) {
-                for (Map.Entry<String, Object> entry : metadata.getCustomAttributes().entrySet()) {
-                    String attrName = entry.getKey();
-                    Object attrValue = entry.getValue();
-
-                    // Skip owner_name - setting it via DFC changes acl_domain and causes
-                    // DM_SYSOBJECT_E_INVALID_ACL_DOMAIN error. Will be set via DQL after save.
-                    if ("owner_name".equals(attrName)) {
-                        continue;
-                    }
+        // Set basic metadata
+        if (metadata.getObjectName() != null) {
+            document.setString("object_name", metadata.getObjectName());
+        }
 
-                    try {
-                        if (attrValue instanceof String) {
-                            document.setString(attrName, (String) attrValue);
-                        } else if (attrValue instanceof Integer) {
-                            document.setInt(attrName, (Integer) attrValue);
-                        } else if (attrValue instanceof Boolean) {
-                            document.setBoolean(attrName, (Boolean) attrValue);
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Failed to set attribute {}: {}", attrName, e.getMessage());
+        // Skip setting owner_name - use current session user as owner
+        // Setting owner from metadata causes ACL domain issues
+        // if (metadata.getrCreatorName() != null) {
+        //     document.setString("owner_name", metadata.getrCreatorName());
+        // }
+
+        // Set custom attributes if they exist in the object type
+        // Skip owner_name here - it will be set via DQL after save to avoid ACL domain issues
+        if (metadata.getCustomAttributes() != null) {
+            for (Map.Entry<String, Object> entry : metadata.getCustomAttributes().entrySet()) {
+                String attrName = entry.getKey();
+                Object attrValue = entry.getValue();
+
+                // Skip owner_name - setting it via DFC changes acl_domain and causes
+                // DM_SYSOBJECT_E_INVALID_ACL_DOMAIN error. Will be set via DQL after save.
+                if ("owner_name".equals(attrName)) {
+                    continue;
+                }
+
+                try {
+                    if (attrValue instanceof String) {
+                        document.setString(attrName, (String) attrValue);
+                    } else if (attrValue instanceof Integer) {
+                        document.setInt(attrName, (Integer) attrValue);
+                    } else if (attrValue instanceof Boolean) {
+                        document.setBoolean(attrName, (Boolean) attrValue);
                     }
+                } catch (Exception e) {
+                    logger.warn("Failed to set attribute {}: {}", attrName, e.getMessage());
                 }
             }
-
-            logger.debug("Metadata set successfully for document: {}", documentId);
-        } finally {
-            sessionManager.releaseSession(session);
         }
+
+        logger.debug("Metadata set successfully for document: {}", documentId);
     }
 
     /**
@@ -126,9 +166,6 @@ public class RealDocumentRepository {
     public void setContent(String documentId, File contentFile) throws Exception {
         IDfSession session = sessionManager.getSession();
         try {
-            logger.debug("Setting content for document: {} from file: {}",
-                    documentId, contentFile.getName());
-
             if (!contentFile.exists()) {
                 throw new IllegalArgumentException("Content file does not exist: " +
                         contentFile.getAbsolutePath());
@@ -138,45 +175,53 @@ public class RealDocumentRepository {
             if (document == null) {
                 throw new Exception("Document not found: " + documentId);
             }
+            attachContent(session, document, contentFile).close();
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
 
-            // Set content type by looking up dm_format table
-            String contentType = getContentType(contentFile.getName(), session);
-            document.setContentType(contentType);
-
-            // Upload file content using DFC setFile method
-            // DFC set_file attribute has a 255-byte UTF-8 limit, so if the file path is too long
-            // (common with Hindi/Unicode filenames), copy to a temp file with a short name
-            String filePath = contentFile.getAbsolutePath();
-            File fileToUpload = contentFile;
-            File tempFile = null;
-            if (filePath.getBytes(java.nio.charset.StandardCharsets.UTF_8).length > 255) {
-                String extension = "";
-                String name = contentFile.getName();
-                int dotIndex = name.lastIndexOf('.');
-                if (dotIndex >= 0) {
-                    extension = name.substring(dotIndex);
-                }
-                tempFile = File.createTempFile("digidak_import_", extension);
-                java.nio.file.Files.copy(contentFile.toPath(), tempFile.toPath(),
-                        java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                fileToUpload = tempFile;
-                logger.debug("Using temp file for content upload (original path too long): {}",
-                            tempFile.getAbsolutePath());
-            }
+    /**
+     * Set the content file on a document; close the result once the document is saved
+     */
+    ContentStaging.StagedContent attachContent(IDfSession session, IDfSysObject document,
+                                               File contentFile) throws Exception {
+        String documentId = document.getObjectId().getId();
+        logger.debug("Setting content for document: {} from file: {}",
+                documentId, contentFile.getName());
+
+        if (!contentFile.exists()) {
+            throw new IllegalArgumentException("Content file does not exist: " +
+                    contentFile.getAbsolutePath());
+        }
 
-            try {
-                document.setFile(fileToUpload.getAbsolutePath());
-            } finally {
-                if (tempFile != null) {
-                    tempFile.delete();
-                }
-            }
+        // Set content type by looking up dm_format table
+        String contentType = getContentType(contentFile.getName(), session);
+        document.setContentType(contentType);
 
-            logger.info("Content uploaded successfully for document: {} ({})",
-                       documentId, contentFile.getName());
-        } finally {
-            sessionManager.releaseSession(session);
+        // Upload file content using DFC setFile method
+        // DFC set_file attribute has a 255-byte UTF-8 limit, so a long path (common with
+        // Hindi/Unicode filenames) is handed over as a short-named alias instead
+        ContentStaging.StagedContent staged = contentStaging.stage(contentFile);
+        try {
+            document.setFile(staged.getFile().getAbsolutePath());
+        } catch (Exception e) {
+            staged.close();
+            throw e;
         }
+
+        logger.info("Content uploaded successfully for document: {} ({})",
+                   documentId, contentFile.getName());
+        return staged;
+    }
+
+    /**
+     * Stage long content paths under this directory instead of the system temp directory
+     * (on the export volume, so they can be hard links)
+     */
+    public void setContentStagingDir(String stagingDir) {
+        this.contentStaging = new ContentStaging(java.nio.file.Paths.get(stagingDir));
+        logger.info("Long content paths will be staged under: {}", stagingDir);
     }
 
     /**
@@ -201,6 +246,13 @@ public class RealDocumentRepository {
         }
     }
 
+    /**
+     * Give every document created from now on this ACL as part of its first save
+     */
+    public void setNewDocumentAcl(String aclDomain, String aclName) {
+        this.newDocumentAcl = new String[]{aclDomain, aclName};
+    }
+
     /**
      * Apply ACL to document
      */
@@ -236,61 +288,123 @@ public class RealDocumentRepository {
     public void save(String documentId, DocumentMetadata metadata) throws Exception {
         IDfSession session = sessionManager.getSession();
         try {
-            logger.debug("Saving document: {}", documentId);
-
             IDfPersistentObject document = session.getObject(new DfId(documentId));
             if (document == null) {
                 throw new Exception("Document not found: " + documentId);
             }
+            saveDocument(session, document, metadata);
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
+
+    void saveDocument(IDfSession session, IDfPersistentObject document, DocumentMetadata metadata) throws Exception {
+        String documentId = document.getObjectId().getId();
+        logger.debug("Saving document: {}", documentId);
 
-            // Force ACL domain to repository name before saving
-            String currentAclDomain = document.getString("acl_domain");
-            if (currentAclDomain == null || currentAclDomain.isEmpty() || !currentAclDomain.equals(session.getDocbaseName())) {
-                document.setString("acl_domain", session.getDocbaseName());
-                logger.debug("Set ACL domain to repository: {}", session.getDocbaseName());
+        // Force ACL domain to repository name before saving (unless a configured ACL was set at create)
+        String currentAclDomain = document.getString("acl_domain");
+        if (newDocumentAcl == null && (currentAclDomain == null || currentAclDomain.isEmpty()
+                || !currentAclDomain.equals(session.getDocbaseName()))) {
+            document.setString("acl_domain", session.getDocbaseName());
+            logger.debug("Set ACL domain to repository: {}", session.getDocbaseName());
+        }
+
+        document.save();
+        logger.debug("Document saved successfully: {}", document.getString("object_name"));
+
+        // Set owner_name via DQL after save to avoid ACL domain validation issues
+        String ownerName = null;
+        if (metadata != null && metadata.getCustomAttributes() != null) {
+            Object ownerVal = metadata.getCustomAttributes().get("owner_name");
+            if (ownerVal instanceof String) {
+                ownerName = (String) ownerVal;
             }
+        }
+        if (ownerName != null && !ownerName.trim().isEmpty()) {
+            // Applied in batches per owner; unknown users fall back to the session user
+            getOwnerBatcher().assign(document.getString("r_object_type"), documentId, ownerName);
+        }
 
-            document.save();
-            logger.debug("Document saved successfully: {}", document.getString("object_name"));
+        // is_migrated is the same for every object, applied set-based per batch
+        getConstantStamper().stamp(document.getString("r_object_type"), documentId, ConstantAttributeStamper.MIGRATED);
+    }
 
-            // Set owner_name via DQL after save to avoid ACL domain validation issues
-            String ownerName = null;
-            if (metadata != null && metadata.getCustomAttributes() != null) {
-                Object ownerVal = metadata.getCustomAttributes().get("owner_name");
-                if (ownerVal instanceof String) {
-                    ownerName = (String) ownerVal;
+    private ConstantAttributeStamper getConstantStamper() {
+        ConstantAttributeStamper stamper = constantStamper;
+        if (stamper == null) {
+            synchronized (this) {
+                stamper = constantStamper;
+                if (stamper == null) {
+                    stamper = new ConstantAttributeStamper(sessionManager);
+                    constantStamper = stamper;
                 }
             }
-            if (ownerName != null && !ownerName.trim().isEmpty()) {
-                String objectType = document.getString("r_object_type");
-                try {
-                    String dql = "UPDATE " + objectType + " OBJECTS SET owner_name = '" +
-                                ownerName.replace("'", "''") + "' WHERE r_object_id = '" + documentId + "'";
-                    logger.debug("Setting owner_name via DQL: {}", dql);
-                    com.documentum.fc.client.IDfQuery query = new com.documentum.fc.client.DfQuery();
-                    query.setDQL(dql);
-                    query.execute(session, com.documentum.fc.client.IDfQuery.DF_EXEC_QUERY);
-                    logger.debug("owner_name set to '{}' via DQL for document: {}", ownerName, documentId);
-                } catch (Exception ownerEx) {
-                    // User does not exist in repository - fall back to repository owner (session user)
-                    logger.warn("User '{}' not found in repository, using session user as owner for document: {}",
-                               ownerName, documentId);
-                    try {
-                        String sessionUser = session.getLoginUserName();
-                        String fallbackDql = "UPDATE " + objectType + " OBJECTS SET owner_name = '" +
-                                    sessionUser.replace("'", "''") + "' WHERE r_object_id = '" + documentId + "'";
-                        com.documentum.fc.client.IDfQuery fallbackQuery = new com.documentum.fc.client.DfQuery();
-                        fallbackQuery.setDQL(fallbackDql);
-                        fallbackQuery.execute(session, com.documentum.fc.client.IDfQuery.DF_EXEC_QUERY);
-                        logger.debug("owner_name set to session user '{}' for document: {}", sessionUser, documentId);
-                    } catch (Exception fallbackEx) {
-                        logger.warn("Failed to set fallback owner_name for document {}: {}", documentId, fallbackEx.getMessage());
-                    }
+        }
+        return stamper;
+    }
+
+    private OwnerAssignmentBatcher getOwnerBatcher() {
+        OwnerAssignmentBatcher batcher = ownerBatcher;
+        if (batcher == null) {
+            synchronized (this) {
+                batcher = ownerBatcher;
+                if (batcher == null) {
+                    batcher = new OwnerAssignmentBatcher(sessionManager);
+                    batcher.setUserNameSource(userNameSource);
+                    ownerBatcher = batcher;
                 }
             }
+        }
+        return batcher;
+    }
+
+    /**
+     * Check owners against an already loaded dm_user name set (e.g. the user directory)
+     * instead of a separate dm_user query
+     */
+    public void setUserNameSource(Supplier<Set<String>> userNameSource) {
+        this.userNameSource = userNameSource;
+        OwnerAssignmentBatcher batcher = ownerBatcher;
+        if (batcher != null) {
+            batcher.setUserNameSource(userNameSource);
+        }
+    }
+
+    /**
+     * Load the dm_user set used for owner_name checks ahead of the first import
+     */
+    public void preloadOwnerUsers() throws Exception {
+        getOwnerBatcher().preloadUsers();
+    }
+
+    /**
+     * Apply all pending owner_name assignments and constant attribute stamps (call at the end of a phase)
+     * Returns the objects whose owner_name or constant attributes could not be set
+     */
+    public List<String> flushDeferredUpdates() {
+        OwnerAssignmentBatcher batcher;
+        ConstantAttributeStamper stamper;
+        synchronized (this) {
+            batcher = ownerBatcher;
+            ownerBatcher = null;
+            stamper = constantStamper;
+            constantStamper = null;
+        }
+        contentStaging.logSummary();
+        Set<String> failedObjectIds = new LinkedHashSet<>();
+        try {
+            if (batcher != null) {
+                batcher.close();
+                failedObjectIds.addAll(batcher.getFailedObjectIds());
+            }
         } finally {
-            sessionManager.releaseSession(session);
+            if (stamper != null) {
+                stamper.close();
+                failedObjectIds.addAll(stamper.getFailedObjectIds());
+            }
         }
+        return new ArrayList<>(failedObjectIds);
     }
 
     /**
@@ -314,51 +428,57 @@ public class RealDocumentRepository {
         }
     }
 
-    // Cache for format lookups to avoid repeated DQL queries
-    private final java.util.Map<String, String> formatCache = new java.util.HashMap<>();
+    // Extension -> dm_format name, loaded once and shared by all threads
+    private volatile FormatRegistry formatRegistry;
+    // format.mapping.* overrides for a registry loaded on first use
+    private volatile Map<String, String> formatOverrides;
 
     /**
-     * Get content type from file extension by querying dm_format table.
-     * Falls back to the file extension itself if no format is found.
+     * Use a preloaded format registry (otherwise it is loaded on first content upload)
      */
-    private String getContentType(String filename, IDfSession session) {
-        String extension = "";
-        int dotIndex = filename.lastIndexOf('.');
-        if (dotIndex >= 0 && dotIndex < filename.length() - 1) {
-            extension = filename.substring(dotIndex + 1).toLowerCase();
+    public void setFormatRegistry(FormatRegistry formatRegistry) {
+        this.formatRegistry = formatRegistry;
+    }
+
+    /**
+     * Overrides applied when the registry is loaded on first use
+     */
+    public void setFormatOverrides(Map<String, String> formatOverrides) {
+        this.formatOverrides = formatOverrides;
+    }
+
+    // A failed load is not cached: the upload fails and the next one tries again
+    private FormatRegistry getFormatRegistry(IDfSession session) throws DfException {
+        FormatRegistry registry = formatRegistry;
+        if (registry == null) {
+            synchronized (this) {
+                registry = formatRegistry;
+                if (registry == null) {
+                    registry = FormatRegistry.load(session, formatOverrides);
+                    formatRegistry = registry;
+                }
+            }
         }
+        return registry;
+    }
+
+    /**
+     * Get content type from file extension using the dm_format registry.
+     * Falls back to the file extension itself if no format is found.
+     */
+    private String getContentType(String filename, IDfSession session) throws DfException {
+        String extension = FormatRegistry.getExtension(filename);
         if (extension.isEmpty()) {
             return "unknown";
         }
 
-        // Check cache first
-        if (formatCache.containsKey(extension)) {
-            return formatCache.get(extension);
-        }
-
-        // Query dm_format table for the format name
-        try {
-            String dql = "SELECT name FROM dm_format WHERE dos_extension = '" + extension.replace("'", "''") + "'";
-            com.documentum.fc.client.IDfQuery query = new com.documentum.fc.client.DfQuery();
-            query.setDQL(dql);
-            com.documentum.fc.client.IDfCollection result = query.execute(session, com.documentum.fc.client.IDfQuery.DF_READ_QUERY);
-            try {
-                if (result.next()) {
-                    String formatName = result.getString("name");
-                    formatCache.put(extension, formatName);
-                    logger.debug("Resolved format for extension '{}': {}", extension, formatName);
-                    return formatName;
-                }
-            } finally {
-                result.close();
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to lookup format for extension '{}': {}", extension, e.getMessage());
+        String formatName = getFormatRegistry(session).getFormat(extension);
+        if (formatName != null) {
+            return formatName;
         }
 
         // Fallback: use the extension itself as format name
         logger.warn("No format found in dm_format for extension '{}', using extension as format name", extension);
-        formatCache.put(extension, extension);
         return extension;
     }
 
@@ -384,41 +504,45 @@ public class RealDocumentRepository {
                                      java.util.List<String> values) throws Exception {
         IDfSession session = sessionManager.getSession();
         try {
-            logger.debug("Setting repeating attribute {} for document: {}", attributeName, documentId);
-
             IDfSysObject document = (IDfSysObject) session.getObject(new DfId(documentId));
             if (document == null) {
                 throw new Exception("Document not found: " + documentId);
             }
+            applyRepeatingAttribute(document, attributeName, values);
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
 
-            // Check if attribute is actually repeating
-            if (!document.isAttrRepeating(attributeName)) {
-                logger.warn("Attribute {} is not defined as repeating, setting first value only", attributeName);
-                if (!values.isEmpty()) {
-                    document.setString(attributeName, values.get(0));
-                }
-                return;
-            }
-
-            // Clear existing values first
-            int count = document.getValueCount(attributeName);
-            for (int i = count - 1; i >= 0; i--) {
-                document.remove(attributeName, i);
-            }
+    void applyRepeatingAttribute(IDfSysObject document, String attributeName,
+                                 java.util.List<String> values) throws Exception {
+        String documentId = document.getObjectId().getId();
+        logger.debug("Setting repeating attribute {} for document: {}", attributeName, documentId);
 
-            // Append new values
-            for (String value : values) {
-                if (value != null && !value.trim().isEmpty()) {
-                    document.appendString(attributeName, value.trim());
-                    logger.debug("Appended value to {}: {}", attributeName, value);
-                }
+        // Check if attribute is actually repeating
+        if (!document.isAttrRepeating(attributeName)) {
+            logger.warn("Attribute {} is not defined as repeating, setting first value only", attributeName);
+            if (!values.isEmpty()) {
+                document.setString(attributeName, values.get(0));
             }
+            return;
+        }
 
-            logger.info("Set {} value(s) for repeating attribute {} on document {}",
-                       values.size(), attributeName, documentId);
+        // Clear existing values first
+        int count = document.getValueCount(attributeName);
+        for (int i = count - 1; i >= 0; i--) {
+            document.remove(attributeName, i);
+        }
 
-        } finally {
-            sessionManager.releaseSession(session);
+        // Append new values
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                document.appendString(attributeName, value.trim());
+                logger.debug("Appended value to {}: {}", attributeName, value);
+            }
         }
+
+        logger.info("Set {} value(s) for repeating attribute {} on document {}",
+                   values.size(), attributeName, documentId);
     }
 }
@@ -1,12 +1,21 @@
 package com.digidak.migration.repository;
 
 import com.digidak.migration.model.FolderInfo;
+import com.documentum.fc.client.DfQuery;
+import com.documentum.fc.client.IDfCollection;
 import com.documentum.fc.client.IDfFolder;
+import com.documentum.fc.client.IDfQuery;
 import com.documentum.fc.client.IDfSession;
 import com.documentum.fc.common.IDfId;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -17,6 +26,11 @@ import java.util.concurrent.ConcurrentHashMap;
 public class RealFolderRepository {
     private static final Logger logger = LogManager.getLogger(RealFolderRepository.class);
 
+    // Object type of every migrated (non-cabinet) folder
+    public static final String FOLDER_TYPE = "cms_digidak_folder";
+    // ACL names per dm_acl lookup, keeps the IN (...) list within DQL limits
+    private static final int ACL_LOOKUP_CHUNK_SIZE = 250;
+
     private RealSessionManager sessionManager;
     private Map<String, FolderInfo> folderCache;
 
@@ -101,7 +115,7 @@ public class RealFolderRepository {
             }
 
             // Create new folder using custom type
-            IDfFolder folder = (IDfFolder) session.newObject("cms_digidak_folder");
+            IDfFolder folder = (IDfFolder) session.newObject(FOLDER_TYPE);
             folder.setObjectName(folderName);
             folder.link(parentFolder.getObjectId().getId());
             folder.save();
@@ -153,6 +167,126 @@ public class RealFolderRepository {
         }
     }
 
+    /**
+     * Fetch a folder and every folder below it with one streaming DQL query
+     * Returns path -> FolderInfo (including the root itself), or an empty map if the root does
+     * not exist. Folders linked in several places appear once per path. Results are also cached
+     * for getFolderByPath.
+     */
+    public Map<String, FolderInfo> prefetchSubtree(String rootPath) throws Exception {
+        long startTime = System.currentTimeMillis();
+        Map<String, FolderInfo> folders = new LinkedHashMap<>();
+
+        IDfSession session = sessionManager.getSession();
+        try {
+            IDfFolder root = session.getFolderByPath(rootPath);
+            if (root == null) {
+                logger.info("Prefetch root not found: {}", rootPath);
+                return folders;
+            }
+            FolderInfo rootInfo = new FolderInfo();
+            rootInfo.setFolderName(root.getObjectName());
+            rootInfo.setFolderPath(rootPath);
+            rootInfo.setFolderId(root.getObjectId().getId());
+            rootInfo.setAclId(root.getACL().getObjectId().getId());
+            folders.put(rootPath, rootInfo);
+
+            // acl_domain/acl_name per folder, resolved to ACL object IDs afterwards
+            Map<String, String> aclKeysByPath = new HashMap<>();
+            String dql = "SELECT r_object_id, object_name, r_folder_path, acl_domain, acl_name FROM dm_folder " +
+                         "WHERE FOLDER('" + rootPath.replace("'", "''") + "', DESCEND)";
+            IDfQuery query = new DfQuery();
+            query.setDQL(dql);
+            IDfCollection result = query.execute(session, IDfQuery.DF_READ_QUERY);
+            try {
+                String prefix = rootPath + "/";
+                while (result.next()) {
+                    String folderId = result.getString("r_object_id");
+                    String folderName = result.getString("object_name");
+                    String aclKey = result.getString("acl_domain") + "/" + result.getString("acl_name");
+                    int pathCount = result.getValueCount("r_folder_path");
+                    for (int i = 0; i < pathCount; i++) {
+                        String folderPath = result.getRepeatingString("r_folder_path", i);
+                        if (folderPath == null || !folderPath.startsWith(prefix)) {
+                            continue;
+                        }
+                        FolderInfo folderInfo = new FolderInfo();
+                        folderInfo.setFolderName(folderName);
+                        folderInfo.setFolderPath(folderPath);
+                        folderInfo.setFolderId(folderId);
+                        folders.put(folderPath, folderInfo);
+                        aclKeysByPath.put(folderPath, aclKey);
+                    }
+                }
+            } finally {
+                result.close();
+            }
+
+            Map<String, String> aclIds = resolveAclIds(session, new java.util.HashSet<>(aclKeysByPath.values()));
+            for (FolderInfo folderInfo : folders.values()) {
+                String path = folderInfo.getFolderPath();
+                int slash = path.lastIndexOf('/');
+                if (slash > 0) {
+                    FolderInfo parent = folders.get(path.substring(0, slash));
+                    if (parent != null) {
+                        folderInfo.setParentFolderId(parent.getFolderId());
+                    }
+                }
+                if (folderInfo.getAclId() == null) {
+                    folderInfo.setAclId(aclIds.get(aclKeysByPath.get(path)));
+                }
+                folderCache.put(path, folderInfo);
+            }
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+
+        logger.info("Prefetched {} folders under {} in {} ms", folders.size(), rootPath,
+                   System.currentTimeMillis() - startTime);
+        return folders;
+    }
+
+    /**
+     * Resolve "domain/name" ACL keys to ACL object IDs, one dm_acl query per chunk of names
+     */
+    private Map<String, String> resolveAclIds(IDfSession session, java.util.Set<String> aclKeys) throws Exception {
+        Map<String, String> aclIds = new HashMap<>();
+        if (aclKeys.isEmpty()) {
+            return aclIds;
+        }
+
+        java.util.Set<String> uniqueNames = new LinkedHashSet<>();
+        for (String key : aclKeys) {
+            uniqueNames.add(key.substring(key.indexOf('/') + 1));
+        }
+        List<String> names = new ArrayList<>(uniqueNames);
+        for (int start = 0; start < names.size(); start += ACL_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = names.subList(start, Math.min(start + ACL_LOOKUP_CHUNK_SIZE, names.size()));
+            StringBuilder inList = new StringBuilder();
+            for (String name : chunk) {
+                if (inList.length() > 0) {
+                    inList.append(",");
+                }
+                inList.append("'").append(name.replace("'", "''")).append("'");
+            }
+
+            IDfQuery query = new DfQuery();
+            query.setDQL("SELECT r_object_id, owner_name, object_name FROM dm_acl WHERE object_name IN (" + inList + ")");
+            IDfCollection result = query.execute(session, IDfQuery.DF_READ_QUERY);
+            try {
+                while (result.next()) {
+                    String key = result.getString("owner_name") + "/" + result.getString("object_name");
+                    if (aclKeys.contains(key)) {
+                        aclIds.put(key, result.getString("r_object_id"));
+                    }
+                }
+            } finally {
+                result.close();
+            }
+        }
+        return aclIds;
+    }
+
     /**
      * Check if folder exists
      */
@@ -186,15 +320,36 @@ public class RealFolderRepository {
      * Set folder metadata attributes
      */
     public void setFolderMetadata(String folderId, Map<String, Object> attributes) throws Exception {
+        applyUpdate(new FolderUpdate(folderId).setAll(attributes));
+    }
+
+    /**
+     * Set repeating attribute for a folder
+     */
+    public void setRepeatingAttribute(String folderId, String attributeName,
+                                     java.util.List<String> values) throws Exception {
+        applyUpdate(new FolderUpdate(folderId).setRepeating(attributeName, values));
+    }
+
+    /**
+     * Apply all pending changes of a folder update with one fetch and one save
+     * Uses DFC's appendString() method for multi-value attributes
+     */
+    public void applyUpdate(FolderUpdate update) throws Exception {
+        if (update.isEmpty()) {
+            return;
+        }
+
         IDfSession session = sessionManager.getSession();
         try {
+            String folderId = update.getFolderId();
             IDfFolder folder = (IDfFolder) session.getObject(new com.documentum.fc.common.DfId(folderId));
             if (folder == null) {
                 throw new Exception("Folder not found: " + folderId);
             }
 
-            // Set each attribute
-            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            // Scalar attributes
+            for (Map.Entry<String, Object> entry : update.getAttributes().entrySet()) {
                 String attrName = entry.getKey();
                 Object attrValue = entry.getValue();
 
@@ -209,58 +364,68 @@ public class RealFolderRepository {
                 }
             }
 
-            folder.save();
-            logger.debug("Folder metadata set for: {}", folderId);
-        } finally {
-            sessionManager.releaseSession(session);
-        }
-    }
-
-    /**
-     * Set repeating attribute for a folder
-     * Uses DFC's appendString() method for multi-value attributes
-     */
-    public void setRepeatingAttribute(String folderId, String attributeName,
-                                     java.util.List<String> values) throws Exception {
-        IDfSession session = sessionManager.getSession();
-        try {
-            IDfFolder folder = (IDfFolder) session.getObject(new com.documentum.fc.common.DfId(folderId));
-            if (folder == null) {
-                throw new Exception("Folder not found: " + folderId);
-            }
+            // Repeating attributes
+            for (Map.Entry<String, java.util.List<String>> entry : update.getRepeatingAttributes().entrySet()) {
+                String attributeName = entry.getKey();
+                java.util.List<String> values = entry.getValue();
+
+                // Check if attribute is actually repeating
+                if (!folder.isAttrRepeating(attributeName)) {
+                    logger.warn("Attribute {} is not defined as repeating on folder, setting first value only",
+                               attributeName);
+                    if (!values.isEmpty()) {
+                        folder.setString(attributeName, values.get(0));
+                    }
+                    continue;
+                }
 
-            // Check if attribute is actually repeating
-            if (!folder.isAttrRepeating(attributeName)) {
-                logger.warn("Attribute {} is not defined as repeating on folder, setting first value only",
-                           attributeName);
-                if (!values.isEmpty()) {
-                    folder.setString(attributeName, values.get(0));
+                // Clear existing values first
+                int count = folder.getValueCount(attributeName);
+                for (int i = count - 1; i >= 0; i--) {
+                    folder.remove(attributeName, i);
                 }
-                folder.save();
-                return;
-            }
 
-            // Clear existing values first
-            int count = folder.getValueCount(attributeName);
-            for (int i = count - 1; i >= 0; i--) {
-                folder.remove(attributeName, i);
+                for (String value : values) {
+                    if (value != null && !value.trim().isEmpty()) {
+                        folder.appendString(attributeName, value.trim());
+                    }
+                }
             }
 
-            // Append new values using DFC's appendString()
-            for (String value : values) {
-                if (value != null && !value.trim().isEmpty()) {
-                    folder.appendString(attributeName, value.trim());
+            // ACL assignment
+            if (update.hasAcl()) {
+                if (update.getAclDomain() != null) {
+                    folder.setACLDomain(update.getAclDomain());
                 }
+                folder.setACLName(update.getAclName());
             }
 
             folder.save();
-            logger.debug("Set {} repeating values for attribute {} on folder: {}",
-                        values.size(), attributeName, folderId);
+            logger.debug("Folder updated with one save: {} ({} attributes, {} repeating attributes{})",
+                        folderId, update.getAttributes().size(), update.getRepeatingAttributes().size(),
+                        update.hasAcl() ? ", acl " + update.getAclName() : "");
         } finally {
             sessionManager.releaseSession(session);
         }
     }
 
+    /**
+     * Set the same attribute values on many folders with chunked set-based DQL updates
+     *
+     * @return IDs of the folders the update failed for
+     */
+    public List<String> stampConstants(Collection<String> folderIds, Map<String, Object> constants) {
+        ConstantAttributeStamper stamper = new ConstantAttributeStamper(sessionManager);
+        try {
+            for (String folderId : folderIds) {
+                stamper.stamp(FOLDER_TYPE, folderId, constants);
+            }
+        } finally {
+            stamper.close();
+        }
+        return stamper.getFailedObjectIds();
+    }
+
     /**
      * Clear cache (for testing)
      */
@@ -9,34 +9,103 @@ import com.documentum.fc.common.IDfLoginInfo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Real Documentum DFC Session Manager with connection pooling
  * Connects to actual Documentum repository
+ *
+ * The pool validates idle sessions and replaces dead ones in the background, reports
+ * sessions held longer than the leak threshold, and keeps wait and hold time histograms
+ * (logged on shutdown or on demand). With dfc.session.pool.trace.callers the histograms are
+ * kept per calling method and leak reports include the stack that acquired the session;
+ * otherwise a checkout records only its thread and time.
+ * Pool size is the configured dfc.session.pool.size, raised to cover the worker threads.
  */
 public class RealSessionManager {
     private static final Logger logger = LogManager.getLogger(RealSessionManager.class);
 
+    // Sessions beyond the worker count for background users (owner_name flush, prefetch, lookups)
+    private static final int SESSION_HEADROOM = 2;
+    // Upper bound on sessions opened at the same time while warming up the pool
+    private static final int MAX_CONCURRENT_CONNECTS = 8;
+    // Caller recorded for every checkout when caller tracing is off
+    private static final String UNTRACED_CALLER = "all callers";
+
     private DfcConfig dfcConfig;
     private IDfSessionManager dfcSessionManager;
-    private BlockingQueue<IDfSession> sessionPool;
-    private int poolSize;
+    private final BlockingQueue<IDfSession> idleSessions = new LinkedBlockingQueue<>();
+    private final Map<IDfSession, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicInteger openSessions = new AtomicInteger(0); // idle + leased + being created
+    private final Map<String, CallerStats> callerStats = new ConcurrentHashMap<>();
+    private final AtomicLong timeouts = new AtomicLong(0);
+    private final AtomicLong sessionsReplaced = new AtomicLong(0);
+    private final AtomicLong leaksReported = new AtomicLong(0);
+    private final ScheduledExecutorService maintenance;
+    private final long timeoutMs;
+    private final long waitWarnMs;
+    private final long leakThresholdMs;
+    private final boolean traceCallers;
+    private volatile int poolSize;
+    private volatile boolean shuttingDown = false;
     private static RealSessionManager instance;
 
-    private RealSessionManager(DfcConfig dfcConfig) throws DfException {
+    private RealSessionManager(DfcConfig dfcConfig, int poolSize) throws DfException {
         this.dfcConfig = dfcConfig;
-        this.poolSize = dfcConfig.getSessionPoolSize();
-        this.sessionPool = new LinkedBlockingQueue<>(poolSize);
+        this.poolSize = poolSize;
+        this.timeoutMs = dfcConfig.getSessionPoolTimeoutMs();
+        this.waitWarnMs = dfcConfig.getSessionPoolWaitWarnMs();
+        this.leakThresholdMs = dfcConfig.getSessionPoolLeakThresholdMs();
+        this.traceCallers = dfcConfig.isSessionPoolTraceCallers();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
         initializeDfc();
         initializePool();
+
+        long validationIntervalMs = dfcConfig.getSessionPoolValidationIntervalMs();
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, validationIntervalMs, validationIntervalMs,
+                TimeUnit.MILLISECONDS);
     }
 
     public static synchronized RealSessionManager getInstance(DfcConfig dfcConfig) throws DfException {
+        return getInstance(dfcConfig, 0);
+    }
+
+    /**
+     * Get the pool, sized for at least workerThreads concurrent users plus headroom
+     * An existing pool is grown (asynchronously) if it is smaller than that
+     */
+    public static synchronized RealSessionManager getInstance(DfcConfig dfcConfig, int workerThreads) throws DfException {
+        int required = workerThreads > 0 ? workerThreads + SESSION_HEADROOM : 0;
         if (instance == null) {
-            instance = new RealSessionManager(dfcConfig);
+            int configured = dfcConfig.getSessionPoolSize();
+            int size = Math.max(configured, required);
+            if (size > configured) {
+                logger.info("Session pool size raised from {} to {} for {} worker threads",
+                           configured, size, workerThreads);
+            }
+            instance = new RealSessionManager(dfcConfig, size);
+        } else if (required > instance.poolSize) {
+            logger.info("Growing session pool from {} to {} for {} worker threads",
+                       instance.poolSize, required, workerThreads);
+            instance.poolSize = required;
+            instance.replenishAsync();
         }
         return instance;
     }
@@ -128,75 +197,147 @@ public class RealSessionManager {
      */
     private void initializePool() throws DfException {
         logger.info("Initializing DFC session pool with size: {}", poolSize);
+        long startTime = System.currentTimeMillis();
+
+        // Sessions are opened concurrently; each connect is a docbroker + repository round trip
+        int openers = Math.min(poolSize, MAX_CONCURRENT_CONNECTS);
+        AtomicInteger openerCount = new AtomicInteger(0);
+        ExecutorService opener = Executors.newFixedThreadPool(Math.max(1, openers), r -> {
+            Thread t = new Thread(r, "session-pool-init-" + openerCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
 
         try {
+            List<Future<IDfSession>> pending = new ArrayList<>();
             for (int i = 0; i < poolSize; i++) {
-                IDfSession session = dfcSessionManager.getSession(dfcConfig.getRepositoryName());
-                if (session != null && session.isConnected()) {
-                    sessionPool.offer(session);
-                    logger.debug("Session {} created and added to pool", i + 1);
-                } else {
-                    throw new DfException("Failed to create session " + (i + 1));
+                final int sessionNumber = i + 1;
+                pending.add(opener.submit(() -> openSession(sessionNumber)));
+            }
+
+            DfException failure = null;
+            for (Future<IDfSession> future : pending) {
+                try {
+                    IDfSession session = future.get();
+                    idleSessions.offer(session);
+                    openSessions.incrementAndGet();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        Throwable cause = e.getCause();
+                        failure = cause instanceof DfException ? (DfException) cause
+                                : new DfException("Failed to create session: " + cause.getMessage());
+                    }
                 }
             }
+            if (failure != null) {
+                throw failure;
+            }
 
-            logger.info("DFC session pool initialized successfully with {} sessions", sessionPool.size());
+            logger.info("DFC session pool initialized successfully with {} sessions in {} ms",
+                       idleSessions.size(), System.currentTimeMillis() - startTime);
 
-        } catch (DfException e) {
+        } catch (DfException | InterruptedException e) {
             logger.error("Failed to initialize session pool: {}", e.getMessage(), e);
             // Cleanup any created sessions
-            sessionPool.forEach(session -> {
+            idleSessions.forEach(session -> {
                 try {
                     dfcSessionManager.release(session);
                 } catch (Exception ex) {
                     logger.warn("Error releasing session during cleanup", ex);
                 }
             });
-            throw e;
+            idleSessions.clear();
+            openSessions.set(0);
+            maintenance.shutdownNow();
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new DfException("Interrupted while initializing session pool");
+            }
+            throw (DfException) e;
+        } finally {
+            opener.shutdown();
         }
     }
 
+    private IDfSession openSession(int sessionNumber) throws DfException {
+        IDfSession session = dfcSessionManager.getSession(dfcConfig.getRepositoryName());
+        if (session == null || !session.isConnected()) {
+            throw new DfException("Failed to create session " + sessionNumber);
+        }
+        logger.debug("Session {} created and added to pool", sessionNumber);
+        return session;
+    }
+
     /**
      * Get session from pool
+     * Waits up to dfc.session.pool.timeout.ms; dead sessions are discarded and replaced in the background
      */
     public IDfSession getSession() throws InterruptedException {
-        IDfSession session = sessionPool.poll(30, TimeUnit.SECONDS);
-        if (session == null) {
-            throw new RuntimeException("Timeout waiting for available session");
-        }
+        String caller = traceCallers ? callerName() : UNTRACED_CALLER;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            IDfSession session = remaining > 0 ? idleSessions.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (session == null) {
+                timeouts.incrementAndGet();
+                logger.error("Session pool exhausted: {} waited {} ms ({} of {} sessions leased). Current holders: {}",
+                            caller, timeoutMs, leases.size(), poolSize, describeLeases());
+                throw new RuntimeException("Timeout waiting for available session");
+            }
 
-        try {
             // Verify session is still valid
-            if (!session.isConnected()) {
-                logger.warn("Session disconnected, creating new session");
-                session = dfcSessionManager.getSession(dfcConfig.getRepositoryName());
+            if (!isUsable(session)) {
+                logger.warn("Session disconnected, discarding and replacing in background");
+                discard(session);
+                replenishAsync();
+                continue;
             }
-        } catch (DfException e) {
-            logger.error("Error checking session status", e);
-            throw new RuntimeException("Session validation failed", e);
-        }
 
-        logger.debug("Session acquired from pool. Available: {}", sessionPool.size());
-        return session;
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            statsFor(caller).waitTime.record(waitMs);
+            if (waitMs >= waitWarnMs) {
+                logger.warn("{} waited {} ms for a session ({} of {} sessions leased)",
+                           caller, waitMs, leases.size(), poolSize);
+            }
+
+            leases.put(session, new Lease(caller, traceCallers));
+            logger.debug("Session acquired from pool. Available: {}", idleSessions.size());
+            return session;
+        }
     }
 
     /**
      * Return session to pool
      */
     public void releaseSession(IDfSession session) {
-        if (session != null) {
-            try {
-                if (session.isConnected()) {
-                    sessionPool.offer(session);
-                    logger.debug("Session returned to pool. Available: {}", sessionPool.size());
-                } else {
-                    logger.warn("Attempting to return disconnected session, creating new session");
-                    IDfSession newSession = dfcSessionManager.getSession(dfcConfig.getRepositoryName());
-                    sessionPool.offer(newSession);
-                }
-            } catch (DfException e) {
-                logger.error("Error returning session to pool", e);
-            }
+        if (session == null) {
+            return;
+        }
+
+        Lease lease = leases.remove(session);
+        if (lease == null) {
+            logger.warn("Ignoring release of a session that is not leased from the pool (released twice?)");
+            return;
+        }
+        long holdMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lease.acquiredNanos);
+        statsFor(lease.caller).holdTime.record(holdMs);
+        if (lease.leakReported) {
+            logger.info("Session reported as leaked was returned by {} after {} ms", lease.caller, holdMs);
+        }
+
+        if (shuttingDown) {
+            discard(session);
+            return;
+        }
+        if (isUsable(session)) {
+            idleSessions.offer(session);
+            logger.debug("Session returned to pool. Available: {}", idleSessions.size());
+        } else {
+            logger.warn("Returned session is disconnected, replacing in background");
+            discard(session);
+            replenishAsync();
         }
     }
 
@@ -205,20 +346,172 @@ public class RealSessionManager {
      */
     public void shutdown() {
         logger.info("Shutting down DFC session manager");
+        shuttingDown = true;
+        maintenance.shutdownNow();
 
-        sessionPool.forEach(session -> {
-            try {
-                if (session != null && session.isConnected()) {
-                    dfcSessionManager.release(session);
+        logPoolStatistics();
+        if (!leases.isEmpty()) {
+            logger.warn("{} sessions still leased at shutdown: {}", leases.size(), describeLeases());
+        }
+
+        IDfSession session;
+        while ((session = idleSessions.poll()) != null) {
+            discard(session);
+        }
+
+        logger.info("DFC session manager shutdown complete");
+    }
+
+    /**
+     * Log pool counters and per-caller wait/hold histograms
+     */
+    public void logPoolStatistics() {
+        logger.info("Session pool: size={} open={} idle={} leased={} timeouts={} replaced={} leaks={}",
+                   poolSize, openSessions.get(), idleSessions.size(), leases.size(),
+                   timeouts.get(), sessionsReplaced.get(), leaksReported.get());
+        List<Map.Entry<String, CallerStats>> entries = new ArrayList<>(callerStats.entrySet());
+        entries.sort((a, b) -> Double.compare(
+                b.getValue().waitTime.getMeanMs() * b.getValue().waitTime.getCount(),
+                a.getValue().waitTime.getMeanMs() * a.getValue().waitTime.getCount()));
+        for (Map.Entry<String, CallerStats> entry : entries) {
+            logger.info("  {} wait[{}] hold[{}]", entry.getKey(),
+                       entry.getValue().waitTime, entry.getValue().holdTime);
+        }
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getIdleCount() {
+        return idleSessions.size();
+    }
+
+    public int getLeasedCount() {
+        return leases.size();
+    }
+
+    /**
+     * Background pass: validate idle sessions, top the pool up, and report leaks
+     */
+    private void runMaintenance() {
+        try {
+            int idleCount = idleSessions.size();
+            for (int i = 0; i < idleCount; i++) {
+                IDfSession session = idleSessions.poll();
+                if (session == null) {
+                    break;
+                }
+                if (isUsable(session)) {
+                    idleSessions.offer(session);
+                } else {
+                    logger.warn("Idle session found disconnected during validation, replacing");
+                    discard(session);
                 }
+            }
+
+            replenish();
+            reportLeaks();
+        } catch (Exception e) {
+            logger.warn("Session pool maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void reportLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : leases.values()) {
+            long heldMs = TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredNanos);
+            if (heldMs >= leakThresholdMs && !lease.leakReported) {
+                lease.leakReported = true;
+                leaksReported.incrementAndGet();
+                if (lease.acquiredAt != null) {
+                    logger.warn("Possible session leak: held {} ms by {} on thread {}; acquired at:",
+                               heldMs, lease.caller, lease.threadName, lease.acquiredAt);
+                } else {
+                    logger.warn("Possible session leak: held {} ms on thread {} "
+                               + "(set dfc.session.pool.trace.callers=true for the acquiring stack)",
+                               heldMs, lease.threadName);
+                }
+            }
+        }
+    }
+
+    private void replenishAsync() {
+        if (!shuttingDown) {
+            try {
+                maintenance.execute(this::replenish);
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                logger.debug("Session pool maintenance stopped, not replenishing");
+            }
+        }
+    }
+
+    /**
+     * Open sessions until the pool is back at its size (stops at the first failure; retried next pass)
+     */
+    private void replenish() {
+        while (!shuttingDown && openSessions.get() < poolSize) {
+            openSessions.incrementAndGet();
+            try {
+                IDfSession session = dfcSessionManager.getSession(dfcConfig.getRepositoryName());
+                idleSessions.offer(session);
+                sessionsReplaced.incrementAndGet();
+                logger.debug("Replacement session added to pool. Available: {}", idleSessions.size());
             } catch (Exception e) {
-                logger.warn("Error releasing session during shutdown", e);
+                openSessions.decrementAndGet();
+                logger.warn("Failed to open replacement session ({} of {} open): {}",
+                           openSessions.get(), poolSize, e.getMessage());
+                return;
             }
-        });
+        }
+    }
+
+    private void discard(IDfSession session) {
+        openSessions.decrementAndGet();
+        try {
+            dfcSessionManager.release(session);
+        } catch (Exception e) {
+            logger.debug("Error releasing discarded session: {}", e.getMessage());
+        }
+    }
 
-        sessionPool.clear();
+    private boolean isUsable(IDfSession session) {
+        try {
+            return session.isConnected();
+        } catch (Exception e) {
+            return false;
+        }
+    }
 
-        logger.info("DFC session manager shutdown complete");
+    private CallerStats statsFor(String caller) {
+        return callerStats.computeIfAbsent(caller, k -> new CallerStats());
+    }
+
+    private String describeLeases() {
+        long now = System.nanoTime();
+        StringBuilder sb = new StringBuilder();
+        for (Lease lease : leases.values()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(lease.caller).append(" [").append(lease.threadName).append(", ")
+              .append(TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredNanos)).append(" ms]");
+        }
+        return sb.length() > 0 ? sb.toString() : "none";
+    }
+
+    /**
+     * First caller outside this class, as SimpleClassName.method
+     */
+    private static String callerName() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> !f.getClassName().equals(RealSessionManager.class.getName()))
+                .findFirst()
+                .map(f -> {
+                    String className = f.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1) + "." + f.getMethodName();
+                })
+                .orElse("unknown"));
     }
 
     /**
@@ -234,4 +527,27 @@ public class RealSessionManager {
     public String getRepositoryName() {
         return dfcConfig.getRepositoryName();
     }
+
+    /**
+     * A checked-out session: who took it, when, and from where (the stack only when tracing callers)
+     */
+    private static final class Lease {
+        private final String caller;
+        private final String threadName;
+        private final long acquiredNanos;
+        private final Throwable acquiredAt;
+        private volatile boolean leakReported = false;
+
+        Lease(String caller, boolean captureStack) {
+            this.caller = caller;
+            this.threadName = Thread.currentThread().getName();
+            this.acquiredNanos = System.nanoTime();
+            this.acquiredAt = captureStack ? new Throwable("Session acquired by " + caller) : null;
+        }
+    }
+
+    private static final class CallerStats {
+        private final LatencyHistogram waitTime = new LatencyHistogram();
+        private final LatencyHistogram holdTime = new LatencyHistogram();
+    }
 }
@@ -1,5 +1,6 @@
 package com.digidak.migration.service;
 
+import com.digidak.migration.repository.FolderUpdate;
 import com.digidak.migration.repository.RealDocumentRepository;
 import com.digidak.migration.repository.RealFolderRepository;
 import com.digidak.migration.repository.RealSessionManager;
@@ -13,9 +14,23 @@ import com.documentum.fc.common.DfId;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Service for managing ACLs (Access Control Lists)
@@ -24,15 +39,23 @@ import java.util.concurrent.ConcurrentHashMap;
 public class AclService {
     private static final Logger logger = LogManager.getLogger(AclService.class);
 
+    // Pre-existing ACL applied to every migrated folder
+    public static final String LEGACY_ACL_NAME = "ecm_legacy_digidak";
+    // Object IDs per UPDATE ... WHERE r_object_id IN (...) statement
+    private static final int ACL_UPDATE_CHUNK_SIZE = 250;
+
     // DFC Permission constants
     private static final int DF_PERMIT_READ = 3;
-    private static final String ACL_NAME_PREFIX = "acl_digidak_";
-    private static final String ACL_NAME_PREFIX_GROUP = "acl_digidakG_";
+    // Shared workflow-user ACLs: prefix + first bytes of the accessor set hash (hex)
+    private static final String SHARED_ACL_PREFIX = "acl_digidak_set_";
+    private static final int SHARED_ACL_HASH_BYTES = 8;
 
     private RealFolderRepository folderRepository;
     private RealDocumentRepository documentRepository;
     private RealSessionManager sessionManager;
     private Map<String, String> aclCache; // FolderId -> AclId
+    private final Map<String, String> aclDomainCache = new ConcurrentHashMap<>(); // ACL name -> domain
+    private final Map<String, String> sharedAclIds = new ConcurrentHashMap<>(); // shared ACL name -> ACL ID
 
     public AclService(RealFolderRepository folderRepository, RealDocumentRepository documentRepository,
                      RealSessionManager sessionManager) {
@@ -43,213 +66,275 @@ public class AclService {
     }
 
     /**
-     * Create custom ACL for folder with workflow users AND apply it to the folder
-     * in a SINGLE session to avoid stale object / version conflict issues.
+     * Apply the shared workflow-user ACL for a folder's user set, creating it if needed.
+     * Folders with the same workflow users share one ACL (see {@link #sharedAclName}).
      *
      * @param folderId Documentum folder ID
-     * @param migratedId Original r_object_id (for ACL naming)
-     * @param userLogins List of user login names to grant READ permission
-     * @param isGroupFolder If true, uses acl_digidakG_ prefix instead of acl_digidak_
+     * @param migratedId Original r_object_id (for logging)
+     * @param userLogins dm_user.user_name of the workflow users to grant READ permission
+     * @param isGroupFolder Group folders carry the workflow users of all their subletters
      * @return ACL object ID
      */
     public String createWorkflowUserAcl(String folderId, String migratedId,
                                        List<String> userLogins, boolean isGroupFolder) throws Exception {
-        System.out.println("=== ACL SERVICE === createWorkflowUserAcl called with folderId: " + folderId + ", migratedId: " + migratedId + ", isGroupFolder: " + isGroupFolder + ", users: " + userLogins);
-        logger.info("=== ACL SERVICE === createWorkflowUserAcl called with folderId: {}, migratedId: {}, isGroupFolder: {}, users: {}",
-                   folderId, migratedId, isGroupFolder, userLogins);
-
         if (userLogins == null) {
-            userLogins = new java.util.ArrayList<>();
+            userLogins = new ArrayList<>();
+        }
+        String aclName = sharedAclName(userLogins);
+        logger.info("=== ACL SERVICE === Workflow ACL '{}' for {} folder {} (migrated_id: {}, {} users)",
+                   aclName, isGroupFolder ? "group" : "letter", folderId, migratedId, userLogins.size());
+
+        if (!ensureSharedAcls(Collections.singletonList(userLogins), folderId, 1).contains(aclName)) {
+            throw new Exception("Could not create ACL " + aclName + " for folder " + folderId);
+        }
+        folderRepository.applyUpdate(new FolderUpdate(folderId).setAcl(aclDomainCache.get(aclName), aclName));
+
+        String aclId = sharedAclIds.get(aclName);
+        aclCache.put(folderId, aclId);
+        return aclId;
+    }
+
+    /**
+     * Name of the shared ACL for a set of accessors: prefix + hash of the sorted,
+     * de-duplicated accessor names, so equal user sets map to the same ACL
+     */
+    public static String sharedAclName(Collection<String> accessors) {
+        TreeSet<String> sorted = normalizeAccessors(accessors);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String accessor : sorted) {
+                digest.update(accessor.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            byte[] hash = digest.digest();
+            StringBuilder hex = new StringBuilder(SHARED_ACL_PREFIX);
+            for (int i = 0; i < SHARED_ACL_HASH_BYTES; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Accessor names as they are hashed and granted: trimmed, without blanks, sorted and de-duplicated
+     */
+    static TreeSet<String> normalizeAccessors(Collection<String> accessors) {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String accessor : accessors) {
+            if (accessor != null && !accessor.trim().isEmpty()) {
+                sorted.add(accessor.trim());
+            }
         }
-        logger.info("=== ACL SERVICE === Creating custom ACL for folder: {} with {} workflow users", folderId, userLogins.size());
+        return sorted;
+    }
 
+    /**
+     * Make sure a shared ACL exists for every accessor set.
+     * Base permissions (dm_*, docu, admin entries) and the ACL domain are copied from the ACL of
+     * templateFolderId. ACLs already in the repository are reused (their name encodes their
+     * accessors); the missing ones are created once each, on up to maxThreads sessions.
+     * Accessors are checked against dm_user first and only existing ones are granted; a reused
+     * ACL is granted the accessors that were not in dm_user when it was created but are now.
+     *
+     * @return names of the shared ACLs that are available (failed creations are logged and left out)
+     */
+    public Set<String> ensureSharedAcls(Collection<? extends Collection<String>> accessorSets,
+                                        String templateFolderId, int maxThreads) throws Exception {
+        Map<String, Collection<String>> required = new LinkedHashMap<>();
+        for (Collection<String> accessors : accessorSets) {
+            required.putIfAbsent(sharedAclName(accessors), accessors);
+        }
+        Set<String> available = new HashSet<>();
+        Map<String, Collection<String>> missing = new LinkedHashMap<>();
+        for (Map.Entry<String, Collection<String>> entry : required.entrySet()) {
+            if (sharedAclIds.containsKey(entry.getKey())) {
+                available.add(entry.getKey());
+            } else {
+                missing.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (missing.isEmpty()) {
+            return available;
+        }
+
+        long startTime = System.currentTimeMillis();
+        String aclDomain;
+        List<String[]> basePermissions = new ArrayList<>();
+        Set<String> existingUsers;
+        Map<String, Collection<String>> reusedAccessors = new LinkedHashMap<>();
         IDfSession session = sessionManager.getSession();
         try {
-            // Step 1: Get folder and refresh it to get latest state after repeating attribute saves
-            IDfFolder folder = (IDfFolder) session.getObject(new DfId(folderId));
-            if (folder == null) {
-                throw new Exception("Folder not found: " + folderId);
+            IDfFolder template = (IDfFolder) session.getObject(new DfId(templateFolderId));
+            if (template == null) {
+                throw new Exception("Template folder not found: " + templateFolderId);
             }
-            folder.fetch(null); // CRITICAL: refresh folder to get latest state after setRepeatingAttribute saves
-            System.out.println("=== ACL SERVICE === Retrieved and refreshed folder object: " + folder.getObjectName());
-            logger.info("=== ACL SERVICE === Retrieved and refreshed folder object: {}", folder.getObjectName());
-
-            // Step 2: Capture base permissions from folder's current ACL BEFORE any modifications
-            IDfACL folderAcl = folder.getACL();
-            String aclDomain = folderAcl.getDomain();
-            String folderAclName = folderAcl.getObjectName();
-            System.out.println("=== ACL SERVICE === Existing ACL: " + folderAclName + ", domain: " + aclDomain);
-            logger.info("=== ACL SERVICE === Existing ACL: {}, domain: {}", folderAclName, aclDomain);
-
-            java.util.List<String[]> basePermissions = new java.util.ArrayList<>();
-            int baseCount = folderAcl.getAccessorCount();
-            for (int i = 0; i < baseCount; i++) {
-                String accessorName = folderAcl.getAccessorName(i);
-                int permitLevel = folderAcl.getAccessorPermit(i);
-                // Only copy system/admin base permissions, skip regular users like "Shaji K V"
+            IDfACL templateAcl = template.getACL();
+            aclDomain = templateAcl.getDomain();
+            for (int i = 0; i < templateAcl.getAccessorCount(); i++) {
+                String accessorName = templateAcl.getAccessorName(i);
+                // Only copy system/admin base permissions, skip regular users
                 if (accessorName.startsWith("dm_") ||
                     accessorName.equals("docu") ||
                     accessorName.contains("admin")) {
-                    basePermissions.add(new String[]{accessorName, String.valueOf(permitLevel)});
+                    basePermissions.add(new String[]{accessorName, String.valueOf(templateAcl.getAccessorPermit(i))});
                 }
             }
-            logger.info("=== ACL SERVICE === Captured {} base permissions from folder ACL", basePermissions.size());
 
-            // Step 3: Create or find existing ACL
-            String aclName = (isGroupFolder ? ACL_NAME_PREFIX_GROUP : ACL_NAME_PREFIX) + migratedId;
-            IDfACL newAcl = findExistingAcl(session, aclName, aclDomain);
+            // Shared ACLs created by earlier runs
+            String dql = "SELECT r_object_id, object_name FROM dm_acl WHERE domain = '"
+                         + aclDomain.replace("'", "''") + "' AND object_name LIKE '" + SHARED_ACL_PREFIX + "%'";
+            IDfQuery query = new DfQuery();
+            query.setDQL(dql);
+            IDfCollection collection = query.execute(session, IDfQuery.DF_READ_QUERY);
+            try {
+                while (collection.next()) {
+                    String name = collection.getString("object_name");
+                    Collection<String> accessors = missing.remove(name);
+                    if (accessors != null) {
+                        registerSharedAcl(name, collection.getString("r_object_id"), aclDomain);
+                        available.add(name);
+                        reusedAccessors.put(name, accessors);
+                    }
+                }
+            } finally {
+                collection.close();
+            }
+
+            Set<String> accessorsToCheck = new HashSet<>();
+            for (Collection<String> accessors : missing.values()) {
+                accessorsToCheck.addAll(normalizeAccessors(accessors));
+            }
+            for (Collection<String> accessors : reusedAccessors.values()) {
+                accessorsToCheck.addAll(normalizeAccessors(accessors));
+            }
+            existingUsers = findExistingUsers(session, accessorsToCheck);
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+        int reused = available.size();
+        int repaired = 0;
 
-            if (newAcl != null) {
-                // Reuse existing ACL - clear old accessors and rebuild
-                logger.info("=== ACL SERVICE === Found existing ACL '{}', will update it", aclName);
-                int existingCount = newAcl.getAccessorCount();
-                for (int i = existingCount - 1; i >= 0; i--) {
+        if (!missing.isEmpty() || !reusedAccessors.isEmpty()) {
+            int threads = Math.max(1, Math.min(maxThreads, missing.size() + reusedAccessors.size()));
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                Map<String, Future<Integer>> repairs = new LinkedHashMap<>();
+                for (Map.Entry<String, Collection<String>> entry : reusedAccessors.entrySet()) {
+                    repairs.put(entry.getKey(), executor.submit(() ->
+                            grantMissingAccessors(entry.getKey(), sharedAclIds.get(entry.getKey()), entry.getValue(),
+                                                  existingUsers)));
+                }
+                Map<String, Future<String>> creations = new LinkedHashMap<>();
+                for (Map.Entry<String, Collection<String>> entry : missing.entrySet()) {
+                    creations.put(entry.getKey(), executor.submit(() ->
+                            createSharedAcl(entry.getKey(), aclDomain, basePermissions, entry.getValue(),
+                                            existingUsers)));
+                }
+                for (Map.Entry<String, Future<String>> creation : creations.entrySet()) {
                     try {
-                        newAcl.revoke(newAcl.getAccessorName(i), "");
-                    } catch (Exception e) {
-                        logger.warn("=== ACL SERVICE === Failed to revoke accessor at index {}: {}", i, e.getMessage());
+                        registerSharedAcl(creation.getKey(), creation.getValue().get(), aclDomain);
+                        available.add(creation.getKey());
+                    } catch (ExecutionException e) {
+                        logger.error("=== ACL SERVICE === Failed to create ACL '{}': {}",
+                                    creation.getKey(), e.getCause().getMessage(), e.getCause());
                     }
                 }
-            } else {
-                // Create new ACL
-                logger.info("=== ACL SERVICE === Creating new ACL with name: {}", aclName);
-                newAcl = (IDfACL) session.newObject("dm_acl");
-                newAcl.setObjectName(aclName);
-                newAcl.setDomain(aclDomain);
-                newAcl.setDescription("Workflow users ACL for migrated folder " + migratedId);
+                for (Map.Entry<String, Future<Integer>> repair : repairs.entrySet()) {
+                    try {
+                        if (repair.getValue().get() > 0) {
+                            repaired++;
+                        }
+                    } catch (ExecutionException e) {
+                        logger.error("=== ACL SERVICE === Failed to update accessors of ACL '{}': {}",
+                                    repair.getKey(), e.getCause().getMessage(), e.getCause());
+                    }
+                }
+            } finally {
+                executor.shutdown();
             }
+        }
 
-            // Step 4: Apply base permissions
-            logger.info("=== ACL SERVICE === Applying {} base permissions to new ACL", basePermissions.size());
+        logger.info("=== ACL SERVICE === {} of {} shared workflow ACLs ready ({} reused, {} of them given new "
+                   + "accessors, {} created) in {} ms", available.size(), required.size(), reused, repaired,
+                   available.size() - reused, System.currentTimeMillis() - startTime);
+        return available;
+    }
+
+    private String createSharedAcl(String aclName, String aclDomain, List<String[]> basePermissions,
+                                   Collection<String> accessors, Set<String> existingUsers) throws Exception {
+        TreeSet<String> users = normalizeAccessors(accessors);
+        IDfSession session = sessionManager.getSession();
+        try {
+            IDfACL acl = (IDfACL) session.newObject("dm_acl");
+            acl.setObjectName(aclName);
+            acl.setDomain(aclDomain);
+            acl.setDescription("Digidak workflow users ACL (" + users.size() + " users)");
             for (String[] perm : basePermissions) {
                 try {
-                    newAcl.grant(perm[0], Integer.parseInt(perm[1]), "");
-                    logger.debug("=== ACL SERVICE === Granted base permission: {} (level: {})", perm[0], perm[1]);
+                    acl.grant(perm[0], Integer.parseInt(perm[1]), "");
                 } catch (Exception e) {
                     logger.warn("=== ACL SERVICE === Failed to grant base permission for {}: {}", perm[0], e.getMessage());
                 }
             }
-
-            // Step 5: Validate workflow users exist BEFORE granting to prevent ACL corruption
-            java.util.List<String> validUsers = new java.util.ArrayList<>();
-            for (String userLogin : userLogins) {
-                try {
-                    if (userExists(session, userLogin)) {
-                        validUsers.add(userLogin);
-                        logger.info("=== ACL SERVICE === User '{}' exists in Documentum", userLogin);
-                    } else {
-                        System.out.println("=== ACL SERVICE === WARNING: User '" + userLogin + "' NOT FOUND in Documentum, skipping");
-                        logger.warn("=== ACL SERVICE === User '{}' NOT FOUND in Documentum, skipping", userLogin);
-                    }
-                } catch (Exception e) {
-                    logger.warn("=== ACL SERVICE === Error checking user '{}': {}, will try granting anyway", userLogin, e.getMessage());
-                    validUsers.add(userLogin); // Include if check fails - let grant() decide
+            for (String accessor : users) {
+                if (!existingUsers.contains(accessor)) {
+                    logger.warn("=== ACL SERVICE === User '{}' not found in dm_user, not granted on '{}'",
+                               accessor, aclName);
+                    continue;
                 }
-            }
-
-            // Step 6: Add validated workflow users with READ permission
-            int addedUsers = 0;
-            for (String userLogin : validUsers) {
                 try {
-                    newAcl.grant(userLogin, DF_PERMIT_READ, "");
-                    addedUsers++;
-                    logger.info("=== ACL SERVICE === Granted READ permission to user: {}", userLogin);
+                    acl.grant(accessor, DF_PERMIT_READ, "");
                 } catch (Exception e) {
-                    System.out.println("=== ACL SERVICE === FAILED to grant user '" + userLogin + "': " + e.getMessage());
-                    logger.error("=== ACL SERVICE === Failed to grant user '{}': {}", userLogin, e.getMessage());
+                    logger.error("=== ACL SERVICE === Failed to grant user '{}' on '{}': {}", accessor, aclName, e.getMessage());
                 }
             }
+            acl.save();
+            logger.debug("=== ACL SERVICE === Created ACL '{}' with {} users", aclName, users.size());
+            return acl.getObjectId().getId();
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
 
-            logger.info("=== ACL SERVICE === Added {} out of {} users to ACL", addedUsers, validUsers.size());
-
-            // Step 7: Save ACL
-            logger.info("=== ACL SERVICE === Saving ACL object...");
-            newAcl.save();
-            String aclId = newAcl.getObjectId().getId();
-            logger.info("=== ACL SERVICE === ACL saved with id: {}, name: {}", aclId, aclName);
-
-            // Step 8: Apply ACL to folder - try setACLDomain/setACLName first (more reliable),
-            // fall back to setACL(object) if that fails
-            logger.info("=== ACL SERVICE === Applying ACL '{}' to folder...", aclName);
-            boolean applied = false;
-
-            // Approach 1: setACLDomain + setACLName (bypasses DFC object cache issues)
-            try {
-                folder.fetch(null);
-                folder.setACLDomain(aclDomain);
-                folder.setACLName(aclName);
-                folder.save();
-                applied = true;
-                logger.info("=== ACL SERVICE === Applied ACL via setACLDomain/setACLName");
-            } catch (Exception e1) {
-                System.out.println("=== ACL SERVICE === setACLDomain/setACLName failed: " + e1.getMessage() + ", trying setACL(object)...");
-                logger.warn("=== ACL SERVICE === setACLDomain/setACLName failed: {}, trying setACL(object)...", e1.getMessage());
-
-                // Approach 2: setACL(IDfACL) with fresh folder fetch
-                try {
-                    folder.fetch(null);
-                    folder.setACL(newAcl);
-                    folder.save();
-                    applied = true;
-                    logger.info("=== ACL SERVICE === Applied ACL via setACL(object)");
-                } catch (Exception e2) {
-                    System.out.println("=== ACL SERVICE === setACL(object) also failed: " + e2.getMessage() + ", trying DQL update...");
-                    logger.warn("=== ACL SERVICE === setACL(object) also failed: {}, trying DQL update...", e2.getMessage());
-
-                    // Approach 3: Direct DQL update as last resort
-                    try {
-                        String updateDql = "UPDATE dm_folder OBJECT "
-                                + "SET acl_domain = '" + aclDomain.replace("'", "''") + "', "
-                                + "acl_name = '" + aclName.replace("'", "''") + "' "
-                                + "WHERE r_object_id = '" + folderId + "'";
-                        IDfQuery updateQuery = new DfQuery();
-                        updateQuery.setDQL(updateDql);
-                        IDfCollection updateResult = updateQuery.execute(session, IDfQuery.DF_QUERY);
-                        if (updateResult != null) {
-                            updateResult.close();
-                        }
-                        applied = true;
-                        logger.info("=== ACL SERVICE === Applied ACL via DQL update");
-                    } catch (Exception e3) {
-                        System.out.println("=== ACL SERVICE === ALL 3 APPROACHES FAILED for folder " + folderId + ": " + e3.getMessage());
-                        logger.error("=== ACL SERVICE === ALL 3 APPROACHES FAILED for folder {}: approach1={}, approach2={}, approach3={}",
-                                   folderId, e1.getMessage(), e2.getMessage(), e3.getMessage());
-                    }
-                }
+    /**
+     * Grant READ on an existing shared ACL to the accessors of its set that are in dm_user
+     * but not on the ACL yet (users created after the ACL was)
+     *
+     * @return number of accessors granted
+     */
+    private int grantMissingAccessors(String aclName, String aclId, Collection<String> accessors,
+                                      Set<String> existingUsers) throws Exception {
+        IDfSession session = sessionManager.getSession();
+        try {
+            IDfACL acl = (IDfACL) session.getObject(new DfId(aclId));
+            Set<String> granted = new HashSet<>();
+            for (int i = 0; i < acl.getAccessorCount(); i++) {
+                granted.add(acl.getAccessorName(i));
             }
-
-            // Verify ACL was applied
-            if (applied) {
-                folder.fetch(null);
-                String appliedAclName = folder.getACLName();
-                if (aclName.equals(appliedAclName)) {
-                    System.out.println("=== ACL SERVICE === SUCCESS: Folder " + folder.getObjectName() + " acl_name is now: " + appliedAclName);
-                    logger.info("=== ACL SERVICE === VERIFICATION SUCCESS: Folder acl_name is now: {}", appliedAclName);
-                } else {
-                    System.out.println("=== ACL SERVICE === WARNING: Expected acl_name='" + aclName + "', but got '" + appliedAclName + "'");
-                    logger.error("=== ACL SERVICE === VERIFICATION FAILED: Expected acl_name='{}', but got '{}'",
-                                aclName, appliedAclName);
+            int added = 0;
+            for (String accessor : normalizeAccessors(accessors)) {
+                if (existingUsers.contains(accessor) && !granted.contains(accessor)) {
+                    acl.grant(accessor, DF_PERMIT_READ, "");
+                    added++;
                 }
             }
-
-            // Cache the ACL
-            aclCache.put(folderId, aclId);
-
-            logger.info("=== ACL SERVICE === Done: ACL {} (name='{}') with {} users for folder {}",
-                       aclId, aclName, addedUsers, folderId);
-
-            return aclId;
-
-        } catch (Exception e) {
-            System.out.println("=== ACL SERVICE === EXCEPTION in createWorkflowUserAcl for folder " + folderId + ": " + e.getMessage());
-            e.printStackTrace();
-            logger.error("=== ACL SERVICE === EXCEPTION in createWorkflowUserAcl: {}", e.getMessage(), e);
-            throw e;
+            if (added > 0) {
+                acl.save();
+                logger.info("=== ACL SERVICE === Granted {} new users on existing ACL '{}'", added, aclName);
+            }
+            return added;
         } finally {
             sessionManager.releaseSession(session);
         }
     }
 
+    private void registerSharedAcl(String aclName, String aclId, String aclDomain) {
+        sharedAclIds.put(aclName, aclId);
+        aclDomainCache.put(aclName, aclDomain);
+    }
+
     /**
      * Apply ACL to folder (standalone - used for other purposes)
      */
@@ -290,32 +375,32 @@ public class AclService {
     }
 
     /**
-     * Find existing ACL by name and domain
+     * Names among userNames that exist as dm_user.user_name, one query per chunk of names
      */
-    private IDfACL findExistingAcl(IDfSession session, String aclName, String aclDomain) {
-        try {
-            String dql = "SELECT r_object_id FROM dm_acl WHERE object_name = '"
-                         + aclName.replace("'", "''") + "' AND domain = '"
-                         + aclDomain.replace("'", "''") + "'";
-
+    private Set<String> findExistingUsers(IDfSession session, Collection<String> userNames) throws Exception {
+        Set<String> existing = new HashSet<>();
+        List<String> names = new ArrayList<>(userNames);
+        for (int i = 0; i < names.size(); i += ACL_UPDATE_CHUNK_SIZE) {
+            List<String> chunk = names.subList(i, Math.min(i + ACL_UPDATE_CHUNK_SIZE, names.size()));
+            StringBuilder inList = new StringBuilder();
+            for (String name : chunk) {
+                if (inList.length() > 0) {
+                    inList.append(",");
+                }
+                inList.append("'").append(name.replace("'", "''")).append("'");
+            }
             IDfQuery query = new DfQuery();
-            query.setDQL(dql);
-
+            query.setDQL("SELECT user_name FROM dm_user WHERE user_name IN (" + inList + ")");
             IDfCollection collection = query.execute(session, IDfQuery.DF_READ_QUERY);
             try {
-                if (collection.next()) {
-                    String aclId = collection.getString("r_object_id");
-                    IDfACL acl = (IDfACL) session.getObject(new DfId(aclId));
-                    logger.info("=== ACL SERVICE === Found existing ACL: {} (id: {})", aclName, aclId);
-                    return acl;
+                while (collection.next()) {
+                    existing.add(collection.getString("user_name"));
                 }
             } finally {
                 collection.close();
             }
-        } catch (Exception e) {
-            logger.warn("=== ACL SERVICE === Error looking up existing ACL '{}': {}", aclName, e.getMessage());
         }
-        return null;
+        return existing;
     }
 
     /**
@@ -395,6 +480,116 @@ public class AclService {
         return applyExistingAcl(folderId, aclName, new java.util.ArrayList<>());
     }
 
+    /**
+     * Find the domain of a pre-existing ACL by name (cached), or null if no such ACL exists.
+     * Lets callers assign the ACL as part of their own folder save.
+     */
+    public String findAclDomain(String aclName) throws Exception {
+        String cached = aclDomainCache.get(aclName);
+        if (cached != null) {
+            return cached;
+        }
+
+        IDfSession session = sessionManager.getSession();
+        try {
+            String findDql = "SELECT r_object_id FROM dm_acl WHERE object_name = '"
+                            + aclName.replace("'", "''") + "'";
+            IDfQuery findQuery = new DfQuery();
+            findQuery.setDQL(findDql);
+            IDfCollection findResult = findQuery.execute(session, IDfQuery.DF_READ_QUERY);
+            try {
+                if (!findResult.next()) {
+                    logger.error("ACL '{}' not found in repository", aclName);
+                    return null;
+                }
+                IDfACL acl = (IDfACL) session.getObject(new DfId(findResult.getString("r_object_id")));
+                String domain = acl.getDomain();
+                aclDomainCache.put(aclName, domain);
+                return domain;
+            } finally {
+                findResult.close();
+            }
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+    }
+
+    /**
+     * Set a pre-existing ACL on many objects of one type with chunked
+     * UPDATE ... OBJECTS ... WHERE r_object_id IN (...) statements; the ACL domain is resolved once.
+     *
+     * @return IDs that were not updated (their chunk failed, or the ACL does not exist)
+     */
+    public List<String> assignAclInBulk(String objectType, Collection<String> objectIds, String aclName) throws Exception {
+        List<String> ids = new ArrayList<>(objectIds);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String aclDomain = findAclDomain(aclName);
+        if (aclDomain == null) {
+            return ids;
+        }
+
+        long startTime = System.currentTimeMillis();
+        List<String> failed = new ArrayList<>();
+        int statements = 0;
+        IDfSession session = sessionManager.getSession();
+        try {
+            for (int i = 0; i < ids.size(); i += ACL_UPDATE_CHUNK_SIZE) {
+                List<String> chunk = ids.subList(i, Math.min(i + ACL_UPDATE_CHUNK_SIZE, ids.size()));
+                StringBuilder inList = new StringBuilder();
+                for (String id : chunk) {
+                    if (inList.length() > 0) {
+                        inList.append(",");
+                    }
+                    inList.append("'").append(id).append("'");
+                }
+                String dql = "UPDATE " + objectType + " OBJECTS SET acl_domain = '" + aclDomain.replace("'", "''")
+                            + "', SET acl_name = '" + aclName.replace("'", "''")
+                            + "' WHERE r_object_id IN (" + inList + ")";
+
+                IDfQuery query = new DfQuery();
+                query.setDQL(dql);
+                IDfCollection result = null;
+                try {
+                    result = query.execute(session, IDfQuery.DF_EXEC_QUERY);
+                    statements++;
+                } catch (Exception e) {
+                    logger.error("=== ACL SERVICE === Bulk ACL update of {} {} objects failed: {}",
+                                chunk.size(), objectType, e.getMessage());
+                    failed.addAll(chunk);
+                } finally {
+                    if (result != null) {
+                        result.close();
+                    }
+                }
+            }
+        } finally {
+            sessionManager.releaseSession(session);
+        }
+
+        logger.info("=== ACL SERVICE === ACL '{}' set on {} {} objects in {} statements ({} failed) in {} ms",
+                   aclName, ids.size() - failed.size(), objectType, statements, failed.size(),
+                   System.currentTimeMillis() - startTime);
+        return failed;
+    }
+
+    /**
+     * Make documents and movement registers created from now on carry a pre-existing ACL
+     * from their first save, instead of a separate ACL update per object
+     *
+     * @return false if the ACL does not exist
+     */
+    public boolean useAclForNewDocuments(String aclName) throws Exception {
+        String aclDomain = findAclDomain(aclName);
+        if (aclDomain == null) {
+            return false;
+        }
+        documentRepository.setNewDocumentAcl(aclDomain, aclName);
+        logger.info("=== ACL SERVICE === New documents will be created with ACL '{}' (domain {})", aclName, aclDomain);
+        return true;
+    }
+
     /**
      * Apply a pre-existing ACL to a folder and grant READ permission to a workflow group.
      *
@@ -548,5 +743,7 @@ public class AclService {
      */
     public void clearCache() {
         aclCache.clear();
+        aclDomainCache.clear();
+        sharedAclIds.clear();
     }
 }
@@ -0,0 +1,282 @@
+package com.digidak.migration.service;
+
+import com.digidak.migration.repository.LatencyHistogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upload stage for documents that carry content
+ * The import worker creates the object and sets its metadata once an upload is admitted;
+ * attaching the content and saving run on the stage's own threads. Admission is capped on
+ * queued and running uploads and an in-flight byte budget, so slow transfers only ever hold
+ * that many pooled sessions (see sessionsNeeded) and metadata-only documents keep flowing
+ * on the import workers. trySubmit lets a worker move on instead of waiting for room.
+ * A file larger than the whole budget is admitted once nothing else is in flight.
+ * Per-file timings (budget wait, setFile, save) and throughput are recorded to tell a
+ * saturated stage, local disk and network/content server apart.
+ */
+public class ContentUploadPipeline implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ContentUploadPipeline.class);
+
+    // Queued + running uploads per upload thread
+    private static final int QUEUE_DEPTH_PER_THREAD = 2;
+    // Saves below this size are dominated by per-object server cost, above it by transfer
+    static final long LARGE_FILE_BYTES = 1024 * 1024;
+
+    /**
+     * Content transfer and save of an already created object; closed once it has run
+     * (or if it never runs)
+     */
+    @FunctionalInterface
+    public interface UploadTask extends AutoCloseable {
+        void run(UploadTimer timer) throws Exception;
+
+        @Override
+        default void close() {
+        }
+    }
+
+    /**
+     * Runs on the submitting thread once the upload is admitted, e.g. creates the object
+     * and sets its metadata, and returns the part left for the upload thread
+     */
+    @FunctionalInterface
+    public interface UploadPreparation {
+        UploadTask prepare() throws Exception;
+    }
+
+    /**
+     * Called when an upload task throws
+     */
+    @FunctionalInterface
+    public interface FailureHandler {
+        void failed(Exception e);
+    }
+
+    /**
+     * Lets a task report the content transfer steps it ran
+     */
+    public static final class UploadTimer {
+        private long setFileMs;
+        private long saveMs;
+
+        public void setFileTook(long millis) {
+            this.setFileMs = millis;
+        }
+
+        public void saveTook(long millis) {
+            this.saveMs = millis;
+        }
+    }
+
+    private final int threads;
+    private final int maxInFlight;
+    private final long maxInFlightBytes;
+    private final ExecutorService executor;
+
+    private final Object budgetLock = new Object();
+    private int inFlight = 0;
+    private long inFlightBytes = 0;
+
+    private final LatencyHistogram budgetWait = new LatencyHistogram();
+    private final LatencyHistogram setFileTime = new LatencyHistogram();
+    private final LatencyHistogram smallFileSave = new LatencyHistogram();
+    private final LatencyHistogram largeFileSave = new LatencyHistogram();
+    private final AtomicLong filesUploaded = new AtomicLong(0);
+    private final AtomicLong filesFailed = new AtomicLong(0);
+    private final AtomicLong bytesUploaded = new AtomicLong(0);
+    private final AtomicLong largeFileBytes = new AtomicLong(0);
+    private final AtomicLong largeFileSaveMs = new AtomicLong(0);
+
+    public ContentUploadPipeline(int threads, long maxInFlightBytes) {
+        this.threads = Math.max(1, threads);
+        this.maxInFlight = this.threads * QUEUE_DEPTH_PER_THREAD;
+        this.maxInFlightBytes = Math.max(1, maxInFlightBytes);
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "content-upload-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Content upload stage: {} threads, {} MB in flight",
+                   this.threads, this.maxInFlightBytes / (1024 * 1024));
+    }
+
+    /**
+     * Admit an upload, blocking while the stage is at its upload or byte limit, then prepare
+     * it on the calling thread and queue the returned task.
+     * A preparation failure is thrown here; a task failure is passed to onFailure on the upload thread.
+     */
+    public void submit(String fileName, long bytes, UploadPreparation preparation, FailureHandler onFailure)
+            throws Exception {
+        long waitStart = System.currentTimeMillis();
+        reserve(bytes);
+        budgetWait.record(System.currentTimeMillis() - waitStart);
+        start(fileName, bytes, preparation, onFailure);
+    }
+
+    /**
+     * Like submit, but returns false without preparing anything when the stage has no room
+     */
+    public boolean trySubmit(String fileName, long bytes, UploadPreparation preparation, FailureHandler onFailure)
+            throws Exception {
+        if (!tryReserve(bytes)) {
+            return false;
+        }
+        budgetWait.record(0);
+        start(fileName, bytes, preparation, onFailure);
+        return true;
+    }
+
+    private void start(String fileName, long bytes, UploadPreparation preparation, FailureHandler onFailure)
+            throws Exception {
+        UploadTask task;
+        try {
+            task = preparation.prepare();
+        } catch (Exception e) {
+            release(bytes);
+            throw e;
+        }
+
+        try {
+            executor.execute(() -> {
+                UploadTimer timer = new UploadTimer();
+                try {
+                    task.run(timer);
+                    recordUpload(fileName, bytes, timer);
+                } catch (Exception e) {
+                    filesFailed.incrementAndGet();
+                    onFailure.failed(e);
+                } finally {
+                    task.close();
+                    release(bytes);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            task.close();
+            release(bytes);
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until every submitted upload has finished
+     */
+    public void awaitIdle() throws InterruptedException {
+        synchronized (budgetLock) {
+            while (inFlight > 0) {
+                budgetLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Stop the upload threads (call after awaitIdle)
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Content upload threads still running after 30 s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getFilesUploaded() {
+        return filesUploaded.get();
+    }
+
+    public long getBytesUploaded() {
+        return bytesUploaded.get();
+    }
+
+    /**
+     * Log upload timings and throughput
+     */
+    public void logSummary() {
+        if (filesUploaded.get() == 0 && filesFailed.get() == 0) {
+            return;
+        }
+        logger.info("Content uploads: {} files, {} MB ({} failed)",
+                   filesUploaded.get(), bytesUploaded.get() / (1024 * 1024), filesFailed.get());
+        logger.info("  Waiting for upload slot: {}", budgetWait);
+        logger.info("  setFile (local file): {}", setFileTime);
+        logger.info("  Save < 1 MB (per-object server cost): {}", smallFileSave);
+        logger.info("  Save >= 1 MB (transfer): {}, {} MB/s per upload", largeFileSave,
+                   String.format("%.2f", throughputMbPerSec(largeFileBytes.get(), largeFileSaveMs.get())));
+    }
+
+    /**
+     * Pooled sessions the stage can hold for a thread count: every admitted upload keeps
+     * the session of its created object until it is saved
+     */
+    public static int sessionsNeeded(int threads) {
+        return threads > 0 ? threads * QUEUE_DEPTH_PER_THREAD : 0;
+    }
+
+    void reserve(long bytes) throws InterruptedException {
+        synchronized (budgetLock) {
+            while (!hasRoom(bytes)) {
+                budgetLock.wait();
+            }
+            inFlight++;
+            inFlightBytes += bytes;
+        }
+    }
+
+    boolean tryReserve(long bytes) {
+        synchronized (budgetLock) {
+            if (!hasRoom(bytes)) {
+                return false;
+            }
+            inFlight++;
+            inFlightBytes += bytes;
+            return true;
+        }
+    }
+
+    private boolean hasRoom(long bytes) {
+        return inFlight < maxInFlight && (inFlight == 0 || inFlightBytes + bytes <= maxInFlightBytes);
+    }
+
+    void release(long bytes) {
+        synchronized (budgetLock) {
+            inFlight--;
+            inFlightBytes -= bytes;
+            budgetLock.notifyAll();
+        }
+    }
+
+    private void recordUpload(String fileName, long bytes, UploadTimer timer) {
+        filesUploaded.incrementAndGet();
+        bytesUploaded.addAndGet(bytes);
+        setFileTime.record(timer.setFileMs);
+        if (bytes >= LARGE_FILE_BYTES) {
+            largeFileSave.record(timer.saveMs);
+            largeFileBytes.addAndGet(bytes);
+            largeFileSaveMs.addAndGet(timer.saveMs);
+        } else {
+            smallFileSave.record(timer.saveMs);
+        }
+        logger.debug("Uploaded {} ({} KB): setFile {} ms, save {} ms, {} MB/s", fileName, bytes / 1024,
+                    timer.setFileMs, timer.saveMs, String.format("%.2f", throughputMbPerSec(bytes, timer.saveMs)));
+    }
+
+    static double throughputMbPerSec(long bytes, long millis) {
+        return millis <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (millis / 1000.0);
+    }
+}
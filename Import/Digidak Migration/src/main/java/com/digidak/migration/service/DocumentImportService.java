@@ -3,7 +3,9 @@ package com.digidak.migration.service;
 import com.digidak.migration.config.MigrationConfig;
 import com.digidak.migration.model.DocumentMetadata;
 import com.digidak.migration.model.ImportResult;
+import com.digidak.migration.parser.ContentFileIndex;
 import com.digidak.migration.parser.MetadataCsvParser;
+import com.digidak.migration.repository.DocumentUnitOfWork;
 import com.digidak.migration.repository.RealDocumentRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,6 +14,8 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 
 /**
@@ -25,6 +29,8 @@ public class DocumentImportService {
     private AclService aclService;
     private MigrationConfig config;
     private MetadataCsvParser metadataParser;
+    // Created on first use and closed by flushDeferredUpdates; stays null when content is uploaded inline
+    private volatile ContentUploadPipeline uploadPipeline;
 
     public DocumentImportService(RealDocumentRepository documentRepository,
                                   FolderService folderService,
@@ -54,17 +60,81 @@ public class DocumentImportService {
             // Import subletter records (metadata only, no documents)
             importFromDirectory("digidak_subletter_records", result, false);
 
+            // Documents still uploading count towards the result
+            awaitUploads();
             result.markComplete();
             logger.info("Document import completed: {}", result);
 
         } catch (Exception e) {
             logger.error("Error during document import", e);
             result.addError("Import failed: " + e.getMessage());
+        } finally {
+            flushDeferredUpdates(result);
         }
 
         return result;
     }
 
+    /**
+     * Wait for queued content uploads, then apply batched owner_name and is_migrated updates
+     * still pending (call when a run of imports ends); objects those updates failed for are
+     * recorded as errors in the result
+     */
+    public void flushDeferredUpdates(ImportResult result) {
+        ContentUploadPipeline pipeline;
+        synchronized (this) {
+            pipeline = uploadPipeline;
+            uploadPipeline = null;
+        }
+        if (pipeline != null) {
+            try {
+                pipeline.awaitIdle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for content uploads");
+            }
+            pipeline.logSummary();
+            pipeline.close();
+        }
+        try {
+            for (String objectId : documentRepository.flushDeferredUpdates()) {
+                result.addError("Deferred owner_name/is_migrated update failed: " + objectId);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to apply deferred document updates: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Wait for queued content uploads without closing the upload stage
+     */
+    private void awaitUploads() throws InterruptedException {
+        ContentUploadPipeline pipeline = uploadPipeline;
+        if (pipeline != null) {
+            pipeline.awaitIdle();
+        }
+    }
+
+    /**
+     * Upload stage, created on first use (null = upload inline)
+     */
+    private ContentUploadPipeline getUploadPipeline() {
+        if (config.getUploadThreads() <= 0) {
+            return null;
+        }
+        ContentUploadPipeline pipeline = uploadPipeline;
+        if (pipeline == null) {
+            synchronized (this) {
+                pipeline = uploadPipeline;
+                if (pipeline == null) {
+                    pipeline = new ContentUploadPipeline(config.getUploadThreads(), config.getUploadMaxInFlightBytes());
+                    uploadPipeline = pipeline;
+                }
+            }
+        }
+        return pipeline;
+    }
+
     /**
      * Import documents from a specific directory
      */
@@ -98,8 +168,9 @@ public class DocumentImportService {
 
     /**
      * Import documents from a single folder
+     * Safe to call from several threads at once with a shared result
      */
-    private void importFolder(File folder, ImportResult result, boolean importDocuments) throws Exception {
+    public void importFolder(File folder, ImportResult result, boolean importDocuments) throws Exception {
         String folderName = folder.getName();
         logger.info("Importing folder: {}", folderName);
 
@@ -119,86 +190,173 @@ public class DocumentImportService {
             return;
         }
 
-        // Import each document
+        // List the folder's content files once for all of its documents
+        ContentFileIndex contentFiles = importDocuments ? ContentFileIndex.of(folder) : null;
+        ContentUploadPipeline pipeline = importDocuments ? getUploadPipeline() : null;
+
+        // Import each document; documents with content go to the upload stage when enabled.
+        // While the stage is full they queue here, so metadata-only documents behind them keep going.
+        Deque<PendingUpload> waiting = new ArrayDeque<>();
         for (DocumentMetadata metadata : metadataList) {
             result.incrementTotal();
 
             try {
                 if (importDocuments) {
-                    importDocument(metadata, folder, folderId);
-                    result.incrementSuccess();
-                    logger.debug("Document imported: {}", metadata.getObjectName());
+                    File contentFile = findContentFile(metadata, contentFiles);
+                    if (contentFile != null && pipeline != null) {
+                        waiting.add(new PendingUpload(metadata, contentFile));
+                        submitUploads(pipeline, waiting, folderId, result, false);
+                    } else {
+                        importDocument(metadata, contentFile, folderId);
+                        result.incrementSuccess();
+                        logger.debug("Document imported: {}", metadata.getObjectName());
+                    }
                 } else {
                     logger.debug("Skipping document import for subletter: {}", metadata.getObjectName());
                 }
+            } catch (InterruptedException e) {
+                throw e;
             } catch (Exception e) {
-                logger.error("Error importing document: {}", metadata.getObjectName(), e);
-                result.addError("Document import failed: " + metadata.getObjectName() + " - " + e.getMessage());
-                result.incrementFailed();
+                recordFailure(metadata, e, result);
             }
         }
-
-        logger.info("Folder import completed: {} ({} documents)", folderName, metadataList.size());
+        if (pipeline != null) {
+            submitUploads(pipeline, waiting, folderId, result, true);
+            // Content saves may still be running; they are reported by the upload stage summary
+            logger.info("Folder documents processed: {} ({} documents, content uploads handed to the upload stage)",
+                       folderName, metadataList.size());
+        } else {
+            logger.info("Folder import completed: {} ({} documents)", folderName, metadataList.size());
+        }
     }
 
     /**
-     * Import a single document
+     * Hand waiting documents to the upload stage in order: the object is created and its
+     * metadata set here, content and save run on an upload thread.
+     * Without wait, stops at the first document the stage has no room for.
      */
-    private void importDocument(DocumentMetadata metadata, File folder, String folderId) throws Exception {
-        // Create document in repository
-        String documentId = documentRepository.createDocument(metadata, folderId);
-
-        // Set metadata
-        documentRepository.setMetadata(documentId, metadata);
+    private void submitUploads(ContentUploadPipeline pipeline, Deque<PendingUpload> waiting, String folderId,
+                               ImportResult result, boolean wait) throws InterruptedException {
+        while (!waiting.isEmpty()) {
+            PendingUpload upload = waiting.peek();
+            DocumentMetadata metadata = upload.metadata;
+            File contentFile = upload.contentFile;
+            ContentUploadPipeline.UploadPreparation preparation =
+                    () -> prepareUpload(metadata, contentFile, folderId, result);
+            ContentUploadPipeline.FailureHandler onFailure = e -> recordFailure(metadata, e, result);
+            try {
+                if (wait) {
+                    pipeline.submit(contentFile.getName(), contentFile.length(), preparation, onFailure);
+                } else if (!pipeline.trySubmit(contentFile.getName(), contentFile.length(), preparation, onFailure)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                recordFailure(metadata, e, result);
+            }
+            waiting.poll();
+        }
+    }
 
-        // Attach content file - search folder for matching content
-        File contentFile = findContentFile(folder, metadata.getObjectName());
+    private void recordFailure(DocumentMetadata metadata, Exception e, ImportResult result) {
+        logger.error("Error importing document: {}", metadata.getObjectName(), e);
+        result.addError("Document import failed: " + metadata.getObjectName() + " - " + e.getMessage());
+        result.incrementFailed();
+    }
 
-        if (contentFile != null && contentFile.exists()) {
-            documentRepository.setContent(documentId, contentFile);
-            logger.info("Content attached from file: {}", contentFile.getName());
+    /**
+     * Content file for a document from the folder listing (null if there is none)
+     */
+    private File findContentFile(DocumentMetadata metadata, ContentFileIndex contentFiles) {
+        File contentFile = contentFiles.findContentFile(metadata.getObjectName());
+        if (contentFile != null) {
+            logger.debug("Content file matched for '{}': {}", metadata.getObjectName(), contentFile.getName());
         } else {
             logger.warn("Content file not found for object_name '{}' in folder: {}",
-                    metadata.getObjectName(), folder.getAbsolutePath());
+                    metadata.getObjectName(), contentFiles.getDirectory().getAbsolutePath());
         }
+        return contentFile;
+    }
 
-        // Apply ACL from parent folder
-        // Temporarily disabled - ACLs from source system don't exist in target
-        // String aclId = aclService.getFolderAcl(folderId);
-        // if (aclId != null) {
-        //     aclService.applyAclToDocument(documentId, aclId);
-        // }
-        logger.debug("Skipping ACL application (using default folder ACL)");
-
-        // Save document
-        documentRepository.save(documentId);
+    /**
+     * Import a single document
+     * One unit of work: one session and object handle for create, metadata, content and save
+     */
+    private void importDocument(DocumentMetadata metadata, File contentFile, String folderId) throws Exception {
+        try (DocumentUnitOfWork work = createDocument(metadata, folderId)) {
+            if (contentFile != null) {
+                saveWithContent(work, contentFile, null);
+            } else {
+                work.save();
+            }
+        }
 
         logger.debug("Document imported successfully: {}", metadata.getObjectName());
     }
 
     /**
-     * Find content file in folder matching the object_name.
-     * Strips extension from object_name and scans folder for matching non-CSV files.
+     * Create a document with its metadata on this thread and leave content and save to the
+     * upload thread; the unit of work (and its session) is handed over with the task
      */
-    private File findContentFile(File folder, String objectName) {
-        if (objectName == null || objectName.trim().isEmpty()) {
-            return null;
-        }
+    private ContentUploadPipeline.UploadTask prepareUpload(DocumentMetadata metadata, File contentFile,
+                                                           String folderId, ImportResult result) throws Exception {
+        DocumentUnitOfWork work = createDocument(metadata, folderId);
+        return new ContentUploadPipeline.UploadTask() {
+            @Override
+            public void run(ContentUploadPipeline.UploadTimer timer) throws Exception {
+                saveWithContent(work, contentFile, timer);
+                result.incrementSuccess();
+                logger.debug("Document imported: {}", metadata.getObjectName());
+            }
+
+            @Override
+            public void close() {
+                work.close();
+            }
+        };
+    }
 
-        // Strip file extension from object_name to get base name
-        String baseName = objectName.contains(".")
-                ? objectName.substring(0, objectName.lastIndexOf('.'))
-                : objectName;
+    /**
+     * Begin a document's unit of work and set its metadata; the caller closes it
+     */
+    private DocumentUnitOfWork createDocument(DocumentMetadata metadata, String folderId) throws Exception {
+        DocumentUnitOfWork work = documentRepository.begin(metadata, folderId);
+        try {
+            // Set metadata
+            work.setMetadata(metadata);
+
+            // Apply ACL from parent folder
+            // Temporarily disabled - ACLs from source system don't exist in target
+            // String aclId = aclService.getFolderAcl(folderId);
+            // if (aclId != null) {
+            //     aclService.applyAclToDocument(documentId, aclId);
+            // }
+            logger.debug("Skipping ACL application (using default folder ACL)");
+            return work;
+        } catch (Exception e) {
+            work.close();
+            throw e;
+        }
+    }
 
-        // Find non-CSV files in folder that start with the base name
-        File[] candidates = folder.listFiles((dir, name) ->
-                !name.toLowerCase().endsWith(".csv") && name.startsWith(baseName));
-        if (candidates != null && candidates.length > 0) {
-            logger.debug("Content file matched for '{}': {}", baseName, candidates[0].getName());
-            return candidates[0];
+    /**
+     * Attach the content file (DFC transfers it on save) and save the document
+     */
+    private void saveWithContent(DocumentUnitOfWork work, File contentFile,
+                                 ContentUploadPipeline.UploadTimer timer) throws Exception {
+        long setFileStart = System.currentTimeMillis();
+        work.setContent(contentFile);
+        if (timer != null) {
+            timer.setFileTook(System.currentTimeMillis() - setFileStart);
         }
+        logger.info("Content attached from file: {}", contentFile.getName());
 
-        return null;
+        long saveStart = System.currentTimeMillis();
+        work.save();
+        if (timer != null) {
+            timer.saveTook(System.currentTimeMillis() - saveStart);
+        }
     }
 
     /**
@@ -212,4 +370,17 @@ public class DocumentImportService {
             throw new IllegalArgumentException("Invalid folder path: " + folderPath);
         }
     }
+
+    /**
+     * Document with content waiting for room on the upload stage
+     */
+    private static final class PendingUpload {
+        private final DocumentMetadata metadata;
+        private final File contentFile;
+
+        PendingUpload(DocumentMetadata metadata, File contentFile) {
+            this.metadata = metadata;
+            this.contentFile = contentFile;
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.digidak.migration.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs folder creation tasks on a thread pool, honouring parent -> child dependencies
+ * Independent folders (single and group records) start right away; a dependent folder
+ * (subletter) is released as soon as the task registered under its parent key completes,
+ * and skipped if that task failed.
+ */
+public class FolderCreationScheduler implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(FolderCreationScheduler.class);
+
+    /**
+     * Folder creation step that may fail with any exception
+     */
+    public interface FolderTask {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<Void>> tasksByKey = new ConcurrentHashMap<>();
+    private final List<CompletableFuture<Void>> allTasks = new ArrayList<>();
+    private final AtomicInteger completed = new AtomicInteger(0);
+    private final AtomicInteger skipped = new AtomicInteger(0);
+
+    public FolderCreationScheduler(int threads) {
+        AtomicInteger threadCount = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "folder-create-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedule a task with no dependency; dependents can wait on it through its key
+     */
+    public void submit(String key, FolderTask task) {
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> runTask(key, task), executor);
+        if (key != null) {
+            tasksByKey.put(key, future);
+        }
+        allTasks.add(future);
+    }
+
+    /**
+     * Schedule a task once the task registered under parentKey has succeeded.
+     * Runs immediately if no task was registered under parentKey.
+     */
+    public void submitAfter(String parentKey, String key, FolderTask task) {
+        CompletableFuture<Void> parent = tasksByKey.get(parentKey);
+        if (parent == null) {
+            submit(key, task);
+            return;
+        }
+        CompletableFuture<Void> future = parent.handleAsync((ignored, parentError) -> {
+            if (parentError != null) {
+                skipped.incrementAndGet();
+                logger.warn("Skipping folder {}: parent {} was not created", key, parentKey);
+                throw new CompletionException(new Exception("Parent folder not created: " + parentKey));
+            }
+            runTask(key, task);
+            return null;
+        }, executor);
+        if (key != null) {
+            tasksByKey.put(key, future);
+        }
+        allTasks.add(future);
+    }
+
+    /**
+     * Wait for every scheduled task; rethrows the first failure (other failures are logged)
+     */
+    public void awaitAll() throws Exception {
+        Exception firstFailure = null;
+        int failed = 0;
+        for (CompletableFuture<Void> future : allTasks) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                failed++;
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (firstFailure == null) {
+                    firstFailure = cause instanceof Exception ? (Exception) cause : new Exception(cause);
+                }
+            }
+        }
+        logger.info("Folder creation finished: {} completed, {} failed ({} skipped because their parent failed)",
+                   completed.get(), failed, skipped.get());
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    private void runTask(String key, FolderTask task) {
+        try {
+            task.run();
+            completed.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("Folder creation failed for {}: {}", key, e.getMessage(), e);
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
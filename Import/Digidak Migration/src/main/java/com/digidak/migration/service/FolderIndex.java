@@ -0,0 +1,72 @@
+package com.digidak.migration.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe index of created/loaded folders
+ * Keeps path -> ID, leaf name -> ID and parent path -> child paths, so lookups by path or
+ * by folder name are O(1) and can be read from worker threads while setup is still writing
+ */
+public class FolderIndex {
+    private final Map<String, String> idsByPath = new ConcurrentHashMap<>();
+    private final Map<String, String> idsByName = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> childrenByParent = new ConcurrentHashMap<>();
+
+    /**
+     * Register a folder by its full path
+     */
+    public void put(String folderPath, String folderId) {
+        if (folderPath == null || folderId == null) {
+            return;
+        }
+        idsByPath.put(folderPath, folderId);
+
+        int slash = folderPath.lastIndexOf('/');
+        // First folder registered under a name keeps it
+        idsByName.putIfAbsent(folderPath.substring(slash + 1), folderId);
+        if (slash > 0) {
+            childrenByParent.computeIfAbsent(folderPath.substring(0, slash), k -> ConcurrentHashMap.newKeySet())
+                    .add(folderPath);
+        }
+    }
+
+    /**
+     * Folder ID by full path, or null
+     */
+    public String getIdByPath(String folderPath) {
+        return folderPath != null ? idsByPath.get(folderPath) : null;
+    }
+
+    /**
+     * Folder ID by leaf folder name at any depth, or null
+     */
+    public String getIdByName(String folderName) {
+        return folderName != null ? idsByName.get(folderName) : null;
+    }
+
+    /**
+     * Paths of the direct children of a folder
+     */
+    public Set<String> getChildPaths(String parentPath) {
+        Set<String> children = childrenByParent.get(parentPath);
+        return children != null ? Collections.unmodifiableSet(children) : Collections.emptySet();
+    }
+
+    public boolean containsPath(String folderPath) {
+        return idsByPath.containsKey(folderPath);
+    }
+
+    /**
+     * Live read-only view of path -> ID
+     */
+    public Map<String, String> asMap() {
+        return Collections.unmodifiableMap(idsByPath);
+    }
+
+    public int size() {
+        return idsByPath.size();
+    }
+}
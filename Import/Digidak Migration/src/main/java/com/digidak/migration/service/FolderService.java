@@ -2,25 +2,20 @@ package com.digidak.migration.service;
 
 import com.digidak.migration.config.MigrationConfig;
 import com.digidak.migration.model.FolderInfo;
+import com.digidak.migration.parser.ExportCatalog;
+import com.digidak.migration.repository.ConstantAttributeStamper;
+import com.digidak.migration.repository.FolderUpdate;
 import com.digidak.migration.repository.RealFolderRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.digidak.migration.repository.RealSessionManager;
-import com.documentum.fc.client.IDfSession;
-import com.documentum.fc.client.IDfQuery;
-import com.documentum.fc.client.IDfCollection;
-import com.documentum.fc.client.DfQuery;
 
 import java.io.File;
 import java.io.FileWriter;
-import java.io.PrintWriter;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for managing folder operations
@@ -68,18 +63,28 @@ public class FolderService {
         REGION_SHORT_CODE_MAP.put("west bengal", "wb");
     }
 
+    private static final String LEGACY_ACL_NAME = AclService.LEGACY_ACL_NAME;
+
     private RealFolderRepository folderRepository;
     private MigrationConfig config;
-    private Map<String, String> folderIdMap; // Path -> ID mapping
+    private final FolderIndex folderIndex = new FolderIndex(); // Path / name -> ID
     private UserLookupService userLookupService;
     private AclService aclService;
     private RealSessionManager sessionManager;
+    private volatile ExportCatalog exportCatalog;
+    // Folders already in the repository under the cabinet (path -> info), null if not prefetched
+    private volatile Map<String, FolderInfo> existingFolders;
+    // migrated_id -> shared workflow-user ACL name (only with migration.acl.workflow.users=true)
+    private final Map<String, String> workflowAclByMigratedId = new ConcurrentHashMap<>();
+    // Folders that get the legacy ACL in one set-based step after their metadata is saved
+    private final Set<String> legacyAclFolderIds = ConcurrentHashMap.newKeySet();
+    // Folders that get status=Closed, is_migrated=true in one set-based step
+    private final Set<String> migratedFolderIds = ConcurrentHashMap.newKeySet();
 
     public FolderService(RealFolderRepository folderRepository, MigrationConfig config,
                         UserLookupService userLookupService, AclService aclService) {
         this.folderRepository = folderRepository;
         this.config = config;
-        this.folderIdMap = new HashMap<>();
         this.userLookupService = userLookupService;
         this.aclService = aclService;
     }
@@ -89,40 +94,101 @@ public class FolderService {
                         RealSessionManager sessionManager) {
         this.folderRepository = folderRepository;
         this.config = config;
-        this.folderIdMap = new HashMap<>();
         this.userLookupService = userLookupService;
         this.aclService = aclService;
         this.sessionManager = sessionManager;
     }
 
+    /**
+     * Use an already loaded export catalog instead of loading one on first use
+     */
+    public void setExportCatalog(ExportCatalog exportCatalog) {
+        this.exportCatalog = exportCatalog;
+    }
+
+    /**
+     * Get the export catalog, loading the export CSVs once on first use
+     * A failed load throws and is not cached, so the phase stops instead of running
+     * with CSV lookups that find nothing
+     */
+    public ExportCatalog getExportCatalog() {
+        ExportCatalog catalog = exportCatalog;
+        if (catalog == null) {
+            synchronized (this) {
+                catalog = exportCatalog;
+                if (catalog == null) {
+                    try {
+                        catalog = ExportCatalog.load(config.getDataExportPath(), config.getThreadPoolSize());
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Failed to load export catalog from "
+                                + config.getDataExportPath() + ": " + e.getMessage(), e);
+                    }
+                    exportCatalog = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
     /**
      * Setup complete folder structure for DigiDak migration
      */
     public void setupFolderStructure() throws Exception {
         logger.info("Setting up folder structure for DigiDak migration");
 
+        // Index the export CSVs once up front
+        getExportCatalog();
+
         // Step 1: Create cabinet
         String cabinetName = config.getCabinetName();
         FolderInfo cabinet = createOrGetCabinet(cabinetName);
-        folderIdMap.put(cabinet.getFolderPath(), cabinet.getFolderId());
-
-        // Step 2: Create single records folders
-        createSingleRecordsFolders(cabinet);
-
-        // Step 3: Create group records folders
-        createGroupRecordsFolders(cabinet);
-
-        // Step 4: Create subletter folders under their respective group folders
-        createSubletterFolders();
+        folderIndex.put(cabinet.getFolderPath(), cabinet.getFolderId());
+        prefetchExistingFolders(cabinet.getFolderPath());
+
+        // Steps 2-4: Create single, group and subletter folders in parallel;
+        // each subletter starts once its parent group folder exists
+        try (FolderCreationScheduler scheduler = new FolderCreationScheduler(config.getThreadPoolSize())) {
+            createSingleRecordsFolders(cabinet, scheduler);
+            createGroupRecordsFolders(cabinet, scheduler);
+            createSubletterFolders(scheduler);
+            scheduler.awaitAll();
+        }
 
         // Step 5: Set metadata for all folders from CSV files
+        // (group folders take login_region and letter_subject from their subletters in the same save)
         setFolderMetadataFromCSV();
 
-        // Step 6: Update group folder login_region and letter_subject from subletter data
-        updateGroupFolderValuesFromSubletters();
-
         logger.info("Folder structure setup completed. Total folders created: {}",
-                folderIdMap.size());
+                folderIndex.size());
+    }
+
+    /**
+     * Prefetch every folder under the cabinet with one query, so existence checks
+     * need no round trip and only missing folders are created
+     */
+    private void prefetchExistingFolders(String cabinetPath) {
+        try {
+            existingFolders = folderRepository.prefetchSubtree(cabinetPath);
+        } catch (Exception e) {
+            logger.warn("Folder prefetch under {} failed, checking folders one by one: {}",
+                       cabinetPath, e.getMessage());
+            existingFolders = null;
+        }
+    }
+
+    /**
+     * Get an existing repository folder by path, or null
+     * Answers from the prefetch when available, otherwise asks the repository
+     */
+    private FolderInfo findExistingFolder(String folderPath) throws Exception {
+        Map<String, FolderInfo> prefetched = existingFolders;
+        if (prefetched != null) {
+            return prefetched.get(folderPath);
+        }
+        if (folderRepository.folderExists(folderPath)) {
+            return folderRepository.getFolderByPath(folderPath);
+        }
+        return null;
     }
 
     /**
@@ -140,9 +206,9 @@ public class FolderService {
     }
 
     /**
-     * Create single records folders
+     * Schedule creation of single records folders
      */
-    private void createSingleRecordsFolders(FolderInfo cabinet) throws Exception {
+    private void createSingleRecordsFolders(FolderInfo cabinet, FolderCreationScheduler scheduler) {
         logger.info("Creating single records folders");
 
         String singleRecordsPath = config.getDataExportPath() + "/digidak_single_records";
@@ -159,27 +225,29 @@ public class FolderService {
                 String folderName = folder.getName();
                 String folderPath = cabinet.getFolderPath() + "/" + folderName;
 
-                if (folderRepository.folderExists(folderPath)) {
-                    logger.info("Single record folder already exists: {}", folderName);
-                    FolderInfo existingFolder = folderRepository.getFolderByPath(folderPath);
-                    folderIdMap.put(existingFolder.getFolderPath(), existingFolder.getFolderId());
-                } else {
-                    FolderInfo createdFolder = folderRepository.createFolder(
-                            folderName,
-                            cabinet.getFolderPath(),
-                            FolderInfo.FolderType.SINGLE_RECORD
-                    );
-                    folderIdMap.put(createdFolder.getFolderPath(), createdFolder.getFolderId());
-                    logger.info("Created single record folder: {}", folderName);
-                }
+                scheduler.submit(folderPath, () -> {
+                    FolderInfo existingFolder = findExistingFolder(folderPath);
+                    if (existingFolder != null) {
+                        logger.info("Single record folder already exists: {}", folderName);
+                        folderIndex.put(existingFolder.getFolderPath(), existingFolder.getFolderId());
+                    } else {
+                        FolderInfo createdFolder = folderRepository.createFolder(
+                                folderName,
+                                cabinet.getFolderPath(),
+                                FolderInfo.FolderType.SINGLE_RECORD
+                        );
+                        folderIndex.put(createdFolder.getFolderPath(), createdFolder.getFolderId());
+                        logger.info("Created single record folder: {}", folderName);
+                    }
+                });
             }
         }
     }
 
     /**
-     * Create group records folders
+     * Schedule creation of group records folders
      */
-    private void createGroupRecordsFolders(FolderInfo cabinet) throws Exception {
+    private void createGroupRecordsFolders(FolderInfo cabinet, FolderCreationScheduler scheduler) {
         logger.info("Creating group records folders");
 
         String groupRecordsPath = config.getDataExportPath() + "/digidak_group_records";
@@ -196,29 +264,31 @@ public class FolderService {
                 String folderName = folder.getName();
                 String folderPath = cabinet.getFolderPath() + "/" + folderName;
 
-                if (folderRepository.folderExists(folderPath)) {
-                    logger.info("Group record folder already exists: {}", folderName);
-                    FolderInfo existingFolder = folderRepository.getFolderByPath(folderPath);
-                    folderIdMap.put(existingFolder.getFolderPath(), existingFolder.getFolderId());
-                } else {
-                    FolderInfo createdFolder = folderRepository.createFolder(
-                            folderName,
-                            cabinet.getFolderPath(),
-                            FolderInfo.FolderType.GROUP_RECORD
-                    );
-                    folderIdMap.put(createdFolder.getFolderPath(), createdFolder.getFolderId());
-                    logger.info("Created group record folder: {}", folderName);
-                }
+                scheduler.submit(folderPath, () -> {
+                    FolderInfo existingFolder = findExistingFolder(folderPath);
+                    if (existingFolder != null) {
+                        logger.info("Group record folder already exists: {}", folderName);
+                        folderIndex.put(existingFolder.getFolderPath(), existingFolder.getFolderId());
+                    } else {
+                        FolderInfo createdFolder = folderRepository.createFolder(
+                                folderName,
+                                cabinet.getFolderPath(),
+                                FolderInfo.FolderType.GROUP_RECORD
+                        );
+                        folderIndex.put(createdFolder.getFolderPath(), createdFolder.getFolderId());
+                        logger.info("Created group record folder: {}", folderName);
+                    }
+                });
             }
         }
     }
 
     /**
-     * Create subletter folders under their respective group folders
+     * Schedule creation of subletter folders under their respective group folders
      * Note: Subletters are created inside their parent group folders
      * Example: 4245-2024-25 will be created inside G65-2024-25
      */
-    private void createSubletterFolders() throws Exception {
+    private void createSubletterFolders(FolderCreationScheduler scheduler) {
         logger.info("Creating subletter folders under their respective group folders");
 
         String subletterRecordsPath = config.getDataExportPath() + "/digidak_subletter_records";
@@ -240,30 +310,32 @@ public class FolderService {
 
                 String cabinetName = config.getCabinetName();
                 String parentPath = "/" + cabinetName + "/" + parentFolderName;
+                String subletterPath = parentPath + "/" + subletterName;
+
+                scheduler.submitAfter(parentPath, subletterPath, () -> {
+                    // Only create if parent group folder exists
+                    if (!folderIndex.containsPath(parentPath) && findExistingFolder(parentPath) == null) {
+                        logger.warn("Parent group folder '{}' not found for subletter: {}",
+                                   parentFolderName, subletterName);
+                        return;
+                    }
 
-                // Only create if parent group folder exists
-                if (folderRepository.folderExists(parentPath)) {
-                    String subletterPath = parentPath + "/" + subletterName;
-
-                    if (folderRepository.folderExists(subletterPath)) {
+                    FolderInfo existingFolder = findExistingFolder(subletterPath);
+                    if (existingFolder != null) {
                         logger.info("Subletter folder already exists: {} inside group folder: {}",
                                    subletterName, parentFolderName);
-                        FolderInfo existingFolder = folderRepository.getFolderByPath(subletterPath);
-                        folderIdMap.put(existingFolder.getFolderPath(), existingFolder.getFolderId());
+                        folderIndex.put(existingFolder.getFolderPath(), existingFolder.getFolderId());
                     } else {
                         FolderInfo createdFolder = folderRepository.createFolder(
                                 subletterName,
                                 parentPath,
                                 FolderInfo.FolderType.SUBLETTER_RECORD
                         );
-                        folderIdMap.put(createdFolder.getFolderPath(), createdFolder.getFolderId());
+                        folderIndex.put(createdFolder.getFolderPath(), createdFolder.getFolderId());
                         logger.info("Created subletter folder: {} inside group folder: {}",
                                    subletterName, parentFolderName);
                     }
-                } else {
-                    logger.warn("Parent group folder '{}' not found for subletter: {}",
-                               parentFolderName, subletterName);
-                }
+                });
             }
         }
     }
@@ -306,69 +378,21 @@ public class FolderService {
     }
 
     /**
-     * Read parent group folder from subletter's metadata CSV
-     * Reads from the main DigidakSubletterRecords_Export.csv file
+     * Read parent group folder from subletter's metadata
+     * Looks up the subletter's group_id in DigidakSubletterRecords_Export.csv
      */
     private String readParentFromMetadata(File subletterFolder) {
         String subletterName = subletterFolder.getName();
-        File exportCsv = new File(config.getDataExportPath() + "/DigidakSubletterRecords_Export.csv");
-
-        if (!exportCsv.exists()) {
-            logger.warn("DigidakSubletterRecords_Export.csv not found");
+        ExportCatalog.ExportRecord record =
+                getExportCatalog().findByName(ExportCatalog.SUBLETTER_RECORDS_CSV, subletterName);
+        if (record == null || record.get("group_id") == null) {
             return null;
         }
 
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new java.io.FileInputStream(exportCsv), java.nio.charset.StandardCharsets.UTF_8))) {
-            // Use a simple CSV parser from opencsv
-            com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-
-            // Read header
-            String[] headers = csvReader.readNext();
-            if (headers == null) {
-                csvReader.close();
-                return null;
-            }
-
-            // Find column indices
-            int objectNameIndex = -1;
-            int groupIdIndex = -1;
-            for (int i = 0; i < headers.length; i++) {
-                if ("object_name".equals(headers[i].trim())) {
-                    objectNameIndex = i;
-                } else if ("group_id".equals(headers[i].trim())) {
-                    groupIdIndex = i;
-                }
-            }
-
-            if (objectNameIndex == -1 || groupIdIndex == -1) {
-                logger.warn("Required columns not found in DigidakSubletterRecords_Export.csv");
-                csvReader.close();
-                return null;
-            }
-
-            // Read data rows
-            String[] values;
-            while ((values = csvReader.readNext()) != null) {
-                if (values.length > Math.max(objectNameIndex, groupIdIndex)) {
-                    String rowName = values[objectNameIndex].trim();
-                    if (subletterName.equals(rowName)) {
-                        String groupId = values[groupIdIndex].trim();
-                        // Normalize group_id format: Convert 'G67/2024-25' to 'G67-2024-25'
-                        groupId = groupId.replace("/", "-");
-                        logger.debug("Found group_id for {}: {} (normalized)", subletterName, groupId);
-                        csvReader.close();
-                        return groupId;
-                    }
-                }
-            }
-            csvReader.close();
-
-        } catch (Exception e) {
-            logger.warn("Error reading parent from DigidakSubletterRecords_Export.csv for {}: {}",
-                       subletterName, e.getMessage());
-        }
-
-        return null;
+        // Normalize group_id format: Convert 'G67/2024-25' to 'G67-2024-25'
+        String groupId = ExportCatalog.normalizeGroupName(record.get("group_id"));
+        logger.debug("Found group_id for {}: {} (normalized)", subletterName, groupId);
+        return groupId;
     }
 
     /**
@@ -394,7 +418,7 @@ public class FolderService {
      * Get folder ID by path
      */
     public String getFolderIdByPath(String folderPath) {
-        return folderIdMap.get(folderPath);
+        return folderIndex.getIdByPath(folderPath);
     }
 
     /**
@@ -403,14 +427,21 @@ public class FolderService {
     public String getFolderIdByName(String folderName) throws Exception {
         String cabinetName = config.getCabinetName();
         String folderPath = "/" + cabinetName + "/" + folderName;
-        return folderIdMap.get(folderPath);
+        return folderIndex.getIdByPath(folderPath);
     }
 
     /**
-     * Get all created folder IDs
+     * Get folder ID by leaf folder name at any depth (e.g. a subletter under its group folder)
+     */
+    public String getFolderIdByLeafName(String folderName) {
+        return folderIndex.getIdByName(folderName);
+    }
+
+    /**
+     * Get all created folder IDs (read-only live view, path -> ID)
      */
     public Map<String, String> getAllFolderIds() {
-        return new HashMap<>(folderIdMap);
+        return folderIndex.asMap();
     }
 
     /**
@@ -419,14 +450,18 @@ public class FolderService {
      */
     public void loadExistingFolderStructure() throws Exception {
         logger.info("Loading existing folder structure from repository");
+        getExportCatalog();
 
         String cabinetName = config.getCabinetName();
         String cabinetPath = "/" + cabinetName;
 
+        // Prefetch the whole cabinet subtree, then register folders that exist on disk
+        prefetchExistingFolders(cabinetPath);
+
         // Load cabinet
-        if (folderRepository.folderExists(cabinetPath)) {
-            FolderInfo cabinet = folderRepository.getFolderByPath(cabinetPath);
-            folderIdMap.put(cabinet.getFolderPath(), cabinet.getFolderId());
+        FolderInfo cabinet = findExistingFolder(cabinetPath);
+        if (cabinet != null) {
+            folderIndex.put(cabinet.getFolderPath(), cabinet.getFolderId());
             logger.info("Loaded cabinet: {} [{}]", cabinet.getFolderPath(), cabinet.getFolderId());
         }
 
@@ -439,7 +474,7 @@ public class FolderService {
         // Load subletter folders (check under each group folder)
         loadSubletterFolders(cabinetPath);
 
-        logger.info("Loaded {} folders into cache", folderIdMap.size());
+        logger.info("Loaded {} folders into cache", folderIndex.size());
     }
 
     private void loadFoldersFromDirectory(String dirName, String cabinetPath) throws Exception {
@@ -457,9 +492,9 @@ public class FolderService {
                 String folderName = folder.getName();
                 String folderPath = cabinetPath + "/" + folderName;
 
-                if (folderRepository.folderExists(folderPath)) {
-                    FolderInfo folderInfo = folderRepository.getFolderByPath(folderPath);
-                    folderIdMap.put(folderInfo.getFolderPath(), folderInfo.getFolderId());
+                FolderInfo folderInfo = findExistingFolder(folderPath);
+                if (folderInfo != null) {
+                    folderIndex.put(folderInfo.getFolderPath(), folderInfo.getFolderId());
                     logger.debug("Loaded folder: {} [{}]", folderInfo.getFolderPath(), folderInfo.getFolderId());
                 }
             }
@@ -484,9 +519,9 @@ public class FolderService {
                 String parentGroupName = getParentGroupForSubletter(subletterName, folder);
                 String subletterPath = cabinetPath + "/" + parentGroupName + "/" + subletterName;
 
-                if (folderRepository.folderExists(subletterPath)) {
-                    FolderInfo folderInfo = folderRepository.getFolderByPath(subletterPath);
-                    folderIdMap.put(folderInfo.getFolderPath(), folderInfo.getFolderId());
+                FolderInfo folderInfo = findExistingFolder(subletterPath);
+                if (folderInfo != null) {
+                    folderIndex.put(folderInfo.getFolderPath(), folderInfo.getFolderId());
                     logger.debug("Loaded subletter folder: {} [{}]", folderInfo.getFolderPath(), folderInfo.getFolderId());
                 }
             }
@@ -499,6 +534,10 @@ public class FolderService {
     private void setFolderMetadataFromCSV() throws Exception {
         logger.info("Setting folder metadata from CSV files");
 
+        if (config.isWorkflowUserAclEnabled()) {
+            prepareWorkflowUserAcls();
+        }
+
         // Set metadata for single record folders
         setMetadataForFolderType("digidak_single_records", "DigidakSingleRecords_Export.csv");
 
@@ -508,9 +547,68 @@ public class FolderService {
         // Set metadata for subletter folders
         setMetadataForFolderType("digidak_subletter_records", "DigidakSubletterRecords_Export.csv");
 
+        // Constant attributes and legacy ACL for all those folders at once
+        stampMigratedFolders();
+        assignLegacyAcl();
+
         logger.info("Folder metadata setting completed");
     }
 
+    /**
+     * Work out every folder's workflow user set from the export catalog and create the
+     * distinct shared ACLs up front, so each folder save only references its ACL.
+     * Folders without resolvable workflow users keep the legacy ACL.
+     */
+    private void prepareWorkflowUserAcls() {
+        ExportCatalog catalog = getExportCatalog();
+        Map<String, List<String>> displayNamesById = new LinkedHashMap<>();
+        for (String csvFileName : new String[]{ExportCatalog.SINGLE_RECORDS_CSV, ExportCatalog.SUBLETTER_RECORDS_CSV}) {
+            for (String migratedId : catalog.getIds(csvFileName)) {
+                displayNamesById.put(migratedId, catalog.getRepeatingValues("workflow_users", migratedId));
+            }
+        }
+        // Group folders get the workflow users of all their subletters
+        for (String migratedId : catalog.getIds(ExportCatalog.GROUP_RECORDS_CSV)) {
+            displayNamesById.put(migratedId, collectSubletterWorkflowUsers(migratedId));
+        }
+
+        Set<String> allDisplayNames = new HashSet<>();
+        displayNamesById.values().forEach(allDisplayNames::addAll);
+        Map<String, String> userNames = userLookupService.resolveUserNames(allDisplayNames);
+
+        Map<String, Set<String>> accessorsById = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : displayNamesById.entrySet()) {
+            Set<String> accessors = new TreeSet<>();
+            for (String displayName : entry.getValue()) {
+                String userName = userNames.get(displayName.trim());
+                if (userName != null) {
+                    accessors.add(userName);
+                }
+            }
+            if (!accessors.isEmpty()) {
+                accessorsById.put(entry.getKey(), accessors);
+            }
+        }
+
+        try {
+            String templateFolderId = folderIndex.getIdByPath("/" + config.getCabinetName());
+            Set<String> available = aclService.ensureSharedAcls(accessorsById.values(), templateFolderId,
+                                                                config.getThreadPoolSize());
+            for (Map.Entry<String, Set<String>> entry : accessorsById.entrySet()) {
+                String aclName = AclService.sharedAclName(entry.getValue());
+                if (available.contains(aclName)) {
+                    workflowAclByMigratedId.put(entry.getKey(), aclName);
+                }
+            }
+            logger.info("Workflow user ACLs prepared: {} folders share {} ACLs ({} users resolved of {})",
+                       workflowAclByMigratedId.size(), new HashSet<>(workflowAclByMigratedId.values()).size(),
+                       userNames.size(), allDisplayNames.size());
+        } catch (Exception e) {
+            logger.error("Failed to prepare workflow user ACLs, folders keep '{}': {}",
+                        LEGACY_ACL_NAME, e.getMessage(), e);
+        }
+    }
+
     /**
      * Set metadata for a specific folder type
      */
@@ -700,20 +798,26 @@ public class FolderService {
                             attributes.put("migrated_id", values[rObjectIdIndex].trim());
                         }
 
-                        // Always set these values
-                        attributes.put("status", "Closed");
-                        attributes.put("is_migrated", true);
+                        // Group folders carry login_region and letter_subject of their subletters
+                        if ("digidak_group_records".equals(folderTypeDir)) {
+                            attributes.putAll(getGroupValuesFromSubletters(folderName));
+                        }
+
+                        // status and is_migrated are the same for every folder, stamped set-based afterwards
+                        migratedFolderIds.add(folderId);
 
-                        // Set metadata
-                        folderRepository.setFolderMetadata(folderId, attributes);
-                        logger.debug("Set metadata for folder: {} [{}]", folderName, folderId);
+                        // Collect metadata, repeating attributes and ACL, then save the folder once
+                        FolderUpdate update = new FolderUpdate(folderId).setAll(attributes);
 
                         // Set repeating attributes from separate CSV files
                         String migratedId = (rObjectIdIndex >= 0 && rObjectIdIndex < values.length)
                                 ? values[rObjectIdIndex].trim() : null;
                         if (migratedId != null && !migratedId.isEmpty()) {
-                            setRepeatingAttributes(folderId, migratedId);
+                            setRepeatingAttributes(update, migratedId);
                         }
+
+                        applyFolderUpdate(update);
+                        logger.debug("Set metadata for folder: {} [{}]", folderName, folderId);
                     }
                 }
             }
@@ -724,6 +828,36 @@ public class FolderService {
         }
     }
 
+    /**
+     * login_region (from_dept_ro_te) and letter_subject (subjects) for a group folder, taken
+     * from the first of its subletters (matched on group_id, G1/2024-25 -> G1-2024-25) that has them
+     */
+    private Map<String, Object> getGroupValuesFromSubletters(String groupName) {
+        ExportCatalog catalog = getExportCatalog();
+        Map<String, Object> values = new HashMap<>();
+        for (String subletterId : catalog.getSubletterIds(groupName)) {
+            ExportCatalog.ExportRecord subletter = catalog.findById(ExportCatalog.SUBLETTER_RECORDS_CSV, subletterId);
+            if (subletter == null) {
+                continue;
+            }
+            String loginRegion = subletter.get("from_dept_ro_te");
+            if (loginRegion != null && !loginRegion.isEmpty()) {
+                values.putIfAbsent("login_region", loginRegion);
+            }
+            String letterSubject = subletter.get("subjects");
+            if (letterSubject != null && !letterSubject.isEmpty()) {
+                values.putIfAbsent("letter_subject", letterSubject);
+            }
+            if (values.size() == 2) {
+                break;
+            }
+        }
+        if (!values.isEmpty()) {
+            logger.debug("Group folder '{}' values from subletters: {}", groupName, values);
+        }
+        return values;
+    }
+
     /**
      * Find folder ID for a given folder name and type
      */
@@ -732,19 +866,14 @@ public class FolderService {
 
         // Try direct path first (for single and group records)
         String directPath = "/" + cabinetName + "/" + folderName;
-        String folderId = folderIdMap.get(directPath);
+        String folderId = folderIndex.getIdByPath(directPath);
         if (folderId != null) {
             return folderId;
         }
 
-        // For subletter folders, search under all group folders
+        // For subletter folders, look up the name under any group folder
         if ("digidak_subletter_records".equals(folderTypeDir)) {
-            for (Map.Entry<String, String> entry : folderIdMap.entrySet()) {
-                String path = entry.getKey();
-                if (path.endsWith("/" + folderName)) {
-                    return entry.getValue();
-                }
-            }
+            return folderIndex.getIdByName(folderName);
         }
 
         return null;
@@ -771,378 +900,173 @@ public class FolderService {
      * - ddm_vertical_users -> ddm_users
      * - workflow_users -> workflow_groups
      */
-    private void setRepeatingAttributes(String folderId, String migratedId) {
+    private void setRepeatingAttributes(FolderUpdate update, String migratedId) {
         logger.debug("Setting repeating attributes for folder: {} (migrated_id: {})",
-                     folderId, migratedId);
+                     update.getFolderId(), migratedId);
 
         // Set each repeating attribute from its respective CSV file
-        setRepeatingAttribute(folderId, migratedId, "repeating_office_type.csv",
-                             "office_type", "source_vertical");
-        setRepeatingAttribute(folderId, migratedId, "repeating_response_to_ioms_id.csv",
-                             "response_to_ioms_id", "responding_uid");
-        setRepeatingAttribute(folderId, migratedId, "repeating_vertical_users.csv",
-                             "vertical_users", "vertical_users");
-        setRepeatingAttribute(folderId, migratedId, "repeating_ddm_vertical_users.csv",
-                             "ddm_vertical_users", "ddm_users");
-        setRepeatingAttribute(folderId, migratedId, "repeating_workflow_users.csv",
-                             "workflow_users", "workflow_groups");
+        setRepeatingAttribute(update, migratedId, "office_type", "source_vertical");
+        setRepeatingAttribute(update, migratedId, "response_to_ioms_id", "responding_uid");
+        setRepeatingAttribute(update, migratedId, "vertical_users", "vertical_users");
+        setRepeatingAttribute(update, migratedId, "ddm_vertical_users", "ddm_users");
+        setRepeatingAttribute(update, migratedId, "workflow_users", "workflow_groups");
 
         // Apply ACL permissions for workflow users
-        applyWorkflowUserAcls(folderId, migratedId);
+        applyWorkflowUserAcls(update, migratedId);
     }
 
     /**
-     * Apply ACL to folder using the single pre-existing ACL 'ecm_legacy_digidak'.
-     * The ACL is already pre-configured with all necessary permissions.
+     * Apply ACL to folder: the shared workflow-user ACL prepared for it goes into the folder's
+     * own save; otherwise the folder is queued for the single pre-existing ACL 'ecm_legacy_digidak'
+     * (already configured with all necessary permissions), assigned in bulk by assignLegacyAcl().
      * Documents and movement registers inherit ACL from the parent folder.
      */
-    private void applyWorkflowUserAcls(String folderId, String migratedId) {
-        logger.info("Applying ACL 'ecm_legacy_digidak' to folder: {} (migrated_id: {})", folderId, migratedId);
+    private void applyWorkflowUserAcls(FolderUpdate update, String migratedId) {
+        String aclName = workflowAclByMigratedId.get(migratedId);
+        if (aclName == null) {
+            legacyAclFolderIds.add(update.getFolderId());
+            return;
+        }
+        logger.info("Applying ACL '{}' to folder: {} (migrated_id: {})", aclName, update.getFolderId(), migratedId);
 
         try {
-            String aclName = "ecm_legacy_digidak";
-            String aclId = aclService.applyExistingAcl(folderId, aclName);
-
-            if (aclId != null) {
-                logger.info("SUCCESS: ACL '{}' applied with ID: {} for folder: {}", aclName, aclId, folderId);
+            String aclDomain = aclService.findAclDomain(aclName);
+            if (aclDomain != null) {
+                update.setAcl(aclDomain, aclName);
             } else {
-                logger.warn("FAILED: ACL '{}' application returned null for folder: {}", aclName, folderId);
+                logger.warn("FAILED: ACL '{}' not found, folder keeps its current ACL: {}",
+                           aclName, update.getFolderId());
             }
         } catch (Exception e) {
-            logger.error("Failed to apply ACL for folder {}: {}", folderId, e.getMessage(), e);
+            logger.error("Failed to look up ACL for folder {}: {}", update.getFolderId(), e.getMessage(), e);
             // Don't rethrow - let folder creation succeed even if ACL fails
         }
     }
 
     /**
-     * Check if a folder is a group folder by looking up object_name in DigidakGroupRecords_Export.csv
+     * Set status=Closed and is_migrated=true on every folder whose metadata was set,
+     * with chunked UPDATE statements instead of one attribute pair per folder save
      */
-    private boolean isGroupFolder(String migratedId) {
-        File csvFile = new File(config.getDataExportPath() + "/DigidakGroupRecords_Export.csv");
-        if (!csvFile.exists()) {
-            return false;
-        }
-
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new java.io.FileInputStream(csvFile), java.nio.charset.StandardCharsets.UTF_8))) {
-            com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-            String[] headers = csvReader.readNext();
-            if (headers == null) {
-                csvReader.close();
-                return false;
-            }
-
-            int rObjectIdIndex = findColumnIndex(headers, "r_object_id");
-            if (rObjectIdIndex < 0) {
-                csvReader.close();
-                return false;
-            }
-
-            String[] row;
-            while ((row = csvReader.readNext()) != null) {
-                if (row.length > rObjectIdIndex && migratedId.equals(row[rObjectIdIndex].trim())) {
-                    csvReader.close();
-                    return true;
-                }
-            }
-            csvReader.close();
-        } catch (Exception e) {
-            logger.warn("Error checking if folder is group folder: {}", e.getMessage());
+    private void stampMigratedFolders() throws Exception {
+        if (migratedFolderIds.isEmpty()) {
+            return;
         }
-        return false;
-    }
-
-    /**
-     * Collect workflow users from all subletter children of a group folder
-     * Reads subletter r_object_ids from DigidakSubletterRecords_Export.csv,
-     * then collects workflow users for each subletter from repeating_workflow_users.csv
-     */
-    private List<String> collectSubletterWorkflowUsers(String groupMigratedId) {
-        Set<String> allUsers = new java.util.LinkedHashSet<>();
-
-        // Step 1: Get all subletter r_object_ids from DigidakSubletterRecords_Export.csv
-        List<String> subletterMigratedIds = getSubletterMigratedIds();
-        System.out.println("=== GROUP ACL DEBUG === Found " + subletterMigratedIds.size() + " subletters for group folder " + groupMigratedId);
-        logger.info("Found {} subletters for group folder {}", subletterMigratedIds.size(), groupMigratedId);
-
-        // Step 2: Collect workflow users from each subletter
-        for (String subletterMigratedId : subletterMigratedIds) {
-            List<String> subletterUsers = readWorkflowUsersFromCsv(subletterMigratedId);
-            if (!subletterUsers.isEmpty()) {
-                System.out.println("=== GROUP ACL DEBUG === Subletter " + subletterMigratedId + " has " + subletterUsers.size() + " workflow users: " + subletterUsers);
-            }
-            allUsers.addAll(subletterUsers);
+        logger.info("Stamping status/is_migrated on {} folders", migratedFolderIds.size());
+        List<String> failed = folderRepository.stampConstants(new ArrayList<>(migratedFolderIds),
+                                                              ConstantAttributeStamper.MIGRATED_CLOSED);
+        for (String folderId : failed) {
+            logger.error("FAILED: status/is_migrated not set on folder: {}", folderId);
         }
-
-        System.out.println("=== GROUP ACL DEBUG === Total unique workflow users collected from " + subletterMigratedIds.size() + " subletters: " + allUsers.size() + " users: " + allUsers);
-        logger.info("Total unique workflow users collected from {} subletters: {}",
-                    subletterMigratedIds.size(), allUsers.size());
-        return new java.util.ArrayList<>(allUsers);
+        migratedFolderIds.clear();
     }
 
     /**
-     * Get object_name for a given migrated_id (r_object_id) from a CSV file
+     * Set the legacy ACL on every queued folder with chunked UPDATE statements.
+     * Folders whose chunk failed fall back to AclService.applyExistingAcl one by one.
      */
-    private String getObjectNameByMigratedId(String migratedId, String csvFileName) {
-        File csvFile = new File(config.getDataExportPath() + "/" + csvFileName);
-        if (!csvFile.exists()) {
-            return null;
+    private void assignLegacyAcl() {
+        if (legacyAclFolderIds.isEmpty()) {
+            return;
         }
-
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new java.io.FileInputStream(csvFile), java.nio.charset.StandardCharsets.UTF_8))) {
-            com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-            String[] headers = csvReader.readNext();
-            if (headers == null) {
-                csvReader.close();
-                return null;
-            }
-
-            int rObjectIdIndex = findColumnIndex(headers, "r_object_id");
-            int objectNameIndex = findColumnIndex(headers, "object_name");
-            if (rObjectIdIndex < 0 || objectNameIndex < 0) {
-                csvReader.close();
-                return null;
+        List<String> folderIds = new ArrayList<>(legacyAclFolderIds);
+        logger.info("Applying ACL '{}' to {} folders", LEGACY_ACL_NAME, folderIds.size());
+        try {
+            List<String> failed = aclService.assignAclInBulk("dm_folder", folderIds, LEGACY_ACL_NAME);
+            if (failed.size() == folderIds.size() && aclService.findAclDomain(LEGACY_ACL_NAME) == null) {
+                logger.warn("FAILED: ACL '{}' not found, folders keep their current ACL", LEGACY_ACL_NAME);
+                return;
             }
-
-            String[] row;
-            while ((row = csvReader.readNext()) != null) {
-                if (row.length > Math.max(rObjectIdIndex, objectNameIndex)) {
-                    if (migratedId.equals(row[rObjectIdIndex].trim())) {
-                        String objectName = row[objectNameIndex].trim();
-                        csvReader.close();
-                        return objectName;
+            for (String folderId : failed) {
+                try {
+                    if (aclService.applyExistingAcl(folderId, LEGACY_ACL_NAME) == null) {
+                        logger.warn("FAILED: ACL '{}' application returned null for folder: {}", LEGACY_ACL_NAME, folderId);
                     }
+                } catch (Exception e) {
+                    logger.error("Failed to apply ACL for folder {}: {}", folderId, e.getMessage(), e);
                 }
             }
-            csvReader.close();
+            legacyAclFolderIds.clear();
         } catch (Exception e) {
-            logger.warn("Error reading object_name from {}: {}", csvFileName, e.getMessage());
+            logger.error("Failed to apply ACL '{}' to folders: {}", LEGACY_ACL_NAME, e.getMessage(), e);
+            // Don't rethrow - let folder creation succeed even if ACL fails
         }
-        return null;
     }
 
     /**
-     * Get all subletter r_object_ids from DigidakSubletterRecords_Export.csv
+     * Save a collected folder update. If the save fails with the ACL assignment included,
+     * the attributes are saved without it and the ACL is applied through AclService's fallbacks.
      */
-    private List<String> getSubletterMigratedIds() {
-        List<String> migratedIds = new java.util.ArrayList<>();
-        File csvFile = new File(config.getDataExportPath() + "/DigidakSubletterRecords_Export.csv");
-        if (!csvFile.exists()) {
-            System.out.println("=== GROUP ACL DEBUG === Subletter CSV not found: " + csvFile.getAbsolutePath());
-            return migratedIds;
-        }
-
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new java.io.FileInputStream(csvFile), java.nio.charset.StandardCharsets.UTF_8))) {
-            com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-            String[] headers = csvReader.readNext();
-            if (headers == null) {
-                csvReader.close();
-                return migratedIds;
+    private void applyFolderUpdate(FolderUpdate update) throws Exception {
+        try {
+            folderRepository.applyUpdate(update);
+            if (update.hasAcl()) {
+                logger.info("SUCCESS: ACL '{}' applied for folder: {}", update.getAclName(), update.getFolderId());
             }
-
-            int rObjectIdIndex = findColumnIndex(headers, "r_object_id");
-            if (rObjectIdIndex < 0) {
-                System.out.println("=== GROUP ACL DEBUG === r_object_id column not found in subletter CSV");
-                csvReader.close();
-                return migratedIds;
+        } catch (Exception e) {
+            if (!update.hasAcl()) {
+                throw e;
             }
-
-            String[] row;
-            while ((row = csvReader.readNext()) != null) {
-                if (row.length > rObjectIdIndex) {
-                    String subletterMigratedId = row[rObjectIdIndex].trim();
-                    if (!subletterMigratedId.isEmpty()) {
-                        migratedIds.add(subletterMigratedId);
-                    }
+            String aclName = update.getAclName();
+            logger.warn("Folder save with ACL '{}' failed for {}: {}, retrying without ACL",
+                       aclName, update.getFolderId(), e.getMessage());
+            folderRepository.applyUpdate(update.clearAcl());
+            try {
+                String aclId = aclService.applyExistingAcl(update.getFolderId(), aclName);
+                if (aclId == null) {
+                    logger.warn("FAILED: ACL '{}' application returned null for folder: {}", aclName, update.getFolderId());
                 }
+            } catch (Exception aclError) {
+                logger.error("Failed to apply ACL for folder {}: {}", update.getFolderId(), aclError.getMessage(), aclError);
             }
-            csvReader.close();
-        } catch (Exception e) {
-            System.out.println("=== GROUP ACL DEBUG === Error reading subletter CSV: " + e.getMessage());
-            logger.warn("Error reading subletter migrated IDs: {}", e.getMessage());
         }
-        return migratedIds;
     }
 
     /**
-     * Read workflow users from repeating_workflow_users.csv for a specific migrated_id
+     * Collect workflow users from all subletter children of a group folder
+     * Subletters are matched by their group_id to the group's object_name, and their
+     * workflow users come from the catalog's group index instead of per-subletter scans
      */
-    private List<String> readWorkflowUsersFromCsv(String migratedId) {
-        List<String> users = new java.util.ArrayList<>();
-        String csvPath = config.getDataExportPath() + "/repeating_workflow_users.csv";
-        File csvFile = new File(csvPath);
-
-        if (!csvFile.exists()) {
-            logger.warn("repeating_workflow_users.csv not found at: {}", csvPath);
-            return users;
-        }
-
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                new java.io.InputStreamReader(new java.io.FileInputStream(csvFile), java.nio.charset.StandardCharsets.UTF_8))) {
-            com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-
-            // Read header
-            String[] headers = csvReader.readNext();
-            if (headers == null) {
-                csvReader.close();
-                return users;
-            }
-
-            int idIndex = findColumnIndex(headers, "r_object_id");
-            int userIndex = findColumnIndex(headers, "workflow_users");
-
-            if (idIndex < 0 || userIndex < 0) {
-                logger.warn("Required columns not found in repeating_workflow_users.csv");
-                csvReader.close();
-                return users;
-            }
-
-            // Read rows and collect users for this migrated_id
-            String[] row;
-            Set<String> uniqueUsers = new java.util.HashSet<>(); // Avoid duplicates
-
-            while ((row = csvReader.readNext()) != null) {
-                if (row.length > Math.max(idIndex, userIndex)) {
-                    String rowId = row[idIndex].trim();
-                    if (migratedId.equals(rowId)) {
-                        String userName = row[userIndex].trim();
-                        if (!userName.isEmpty()) {
-                            uniqueUsers.add(userName);
-                        }
-                    }
-                }
-            }
-
-            users.addAll(uniqueUsers);
-            csvReader.close();
-
-            logger.debug("Read {} unique workflow users for migrated_id: {}",
-                        users.size(), migratedId);
-
-        } catch (Exception e) {
-            logger.warn("Error reading workflow users from CSV: {}", e.getMessage());
+    private List<String> collectSubletterWorkflowUsers(String groupMigratedId) {
+        ExportCatalog catalog = getExportCatalog();
+        String groupName = getObjectNameByMigratedId(groupMigratedId, ExportCatalog.GROUP_RECORDS_CSV);
+        if (groupName == null) {
+            logger.warn("Group folder {} not found in {}", groupMigratedId, ExportCatalog.GROUP_RECORDS_CSV);
+            return new ArrayList<>();
         }
 
-        return users;
+        List<String> users = catalog.getGroupWorkflowUsers(groupName);
+        logger.info("Total unique workflow users collected from {} subletters of group {}: {}",
+                    catalog.getSubletterIds(groupName).size(), groupName, users.size());
+        return new ArrayList<>(users);
     }
 
     /**
-     * Read login_office_type (ho_ro_te) and login_region (from_dept_ro_te) from CSV for a given migratedId.
-     * Searches across Single, Group, and Subletter CSV files.
-     * Returns a String array: [login_office_type, login_region] or null if not found.
+     * Get object_name for a given migrated_id (r_object_id) from an export CSV
      */
-    private String[] readOfficeTypeAndRegion(String migratedId) {
-        String[] csvFiles = {
-            "DigidakSingleRecords_Export.csv",
-            "DigidakGroupRecords_Export.csv",
-            "DigidakSubletterRecords_Export.csv"
-        };
-
-        for (String csvFileName : csvFiles) {
-            File csvFile = new File(config.getDataExportPath() + "/" + csvFileName);
-            if (!csvFile.exists()) continue;
-
-            try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new java.io.FileInputStream(csvFile), java.nio.charset.StandardCharsets.UTF_8))) {
-                com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-                String[] headers = csvReader.readNext();
-                if (headers == null) { csvReader.close(); continue; }
-
-                int rObjectIdIndex = findColumnIndex(headers, "r_object_id");
-                int hoRoTeIndex = findColumnIndex(headers, "ho_ro_te");
-                int fromDeptRoTeIndex = findColumnIndex(headers, "from_dept_ro_te");
-
-                if (rObjectIdIndex < 0 || hoRoTeIndex < 0) { csvReader.close(); continue; }
-
-                String[] row;
-                while ((row = csvReader.readNext()) != null) {
-                    if (row.length > rObjectIdIndex && migratedId.equals(row[rObjectIdIndex].trim())) {
-                        String officeType = (hoRoTeIndex < row.length) ? row[hoRoTeIndex].trim() : "";
-                        String region = (fromDeptRoTeIndex >= 0 && fromDeptRoTeIndex < row.length) ? row[fromDeptRoTeIndex].trim() : "";
-                        csvReader.close();
-                        return new String[] { officeType, region };
-                    }
-                }
-                csvReader.close();
-            } catch (Exception e) {
-                logger.warn("Error reading office type from {}: {}", csvFileName, e.getMessage());
-            }
-        }
-        return null;
+    private String getObjectNameByMigratedId(String migratedId, String csvFileName) {
+        ExportCatalog.ExportRecord record = getExportCatalog().findById(csvFileName, migratedId);
+        return record != null ? record.get("object_name") : null;
     }
 
     /**
-     * Set a single repeating attribute from a CSV file
+     * Set a single repeating attribute from the export catalog
      */
-    private void setRepeatingAttribute(String folderId, String migratedId,
-                                       String csvFileName, String sourceColumn,
-                                       String targetAttribute) {
-        String csvPath = config.getDataExportPath() + "/" + csvFileName;
-        File csvFile = new File(csvPath);
-
-        if (!csvFile.exists()) {
-            logger.debug("{} not found, skipping repeating attribute: {}",
-                        csvFileName, targetAttribute);
+    private void setRepeatingAttribute(FolderUpdate update, String migratedId,
+                                       String sourceColumn, String targetAttribute) {
+        ExportCatalog catalog = getExportCatalog();
+        if (!catalog.hasRepeatingFile(sourceColumn)) {
+            logger.debug("repeating_{}.csv not found, skipping repeating attribute: {}",
+                        sourceColumn, targetAttribute);
             return;
         }
 
-        java.util.List<String> values = new java.util.ArrayList<>();
-
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new java.io.FileInputStream(csvFile), java.nio.charset.StandardCharsets.UTF_8))) {
-            com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-
-            // Read header
-            String[] headers = csvReader.readNext();
-            if (headers == null) {
-                csvReader.close();
-                return;
-            }
-
-            // Find column indices - check for migrated_id first, fallback to r_object_id
-            int migratedIdIndex = findColumnIndex(headers, "migrated_id");
-            if (migratedIdIndex < 0) {
-                migratedIdIndex = findColumnIndex(headers, "r_object_id");
-                logger.debug("Using r_object_id column for matching in {} (migrated_id column not found)",
-                            csvFileName);
-            }
-            int valueIndex = findColumnIndex(headers, sourceColumn);
-
-            if (migratedIdIndex < 0 || valueIndex < 0) {
-                logger.warn("Required columns not found in {} (need migrated_id/r_object_id and {})",
-                           csvFileName, sourceColumn);
-                csvReader.close();
-                return;
-            }
-
-            // Read all rows and collect values for this migrated_id
-            String[] row;
-            while ((row = csvReader.readNext()) != null) {
-                if (row.length > Math.max(migratedIdIndex, valueIndex)) {
-                    String rowMigratedId = row[migratedIdIndex].trim();
-                    if (migratedId.equals(rowMigratedId)) {
-                        String value = row[valueIndex].trim();
-                        if (!value.isEmpty()) {
-                            values.add(value);
-                            logger.debug("Found {} value for migrated_id {}: {}",
-                                       sourceColumn, migratedId, value);
-                        }
-                    }
-                }
-            }
-            csvReader.close();
-        } catch (Exception e) {
-            logger.warn("Error reading {}: {}", csvFileName, e.getMessage());
-            return;
-        }
+        List<String> values = catalog.getRepeatingValues(sourceColumn, migratedId);
 
         // Set repeating attribute if we found any values
         if (!values.isEmpty()) {
-            try {
-                folderRepository.setRepeatingAttribute(folderId, targetAttribute, values);
-                logger.info("Set {} value(s) for repeating attribute {} on folder with migrated_id {}",
-                           values.size(), targetAttribute, migratedId);
-            } catch (Exception e) {
-                logger.warn("Failed to set repeating attribute {}: {}",
-                           targetAttribute, e.getMessage());
-            }
+            update.setRepeating(targetAttribute, values);
+            logger.info("Set {} value(s) for repeating attribute {} on folder with migrated_id {}",
+                       values.size(), targetAttribute, migratedId);
         } else {
             logger.debug("No {} values found for migrated_id: {}", sourceColumn, migratedId);
         }
@@ -1189,120 +1113,4 @@ public class FolderService {
         logger.warn("Failed to convert date format for '{}'. Using original value.", trimmed);
         return dateStr;
     }
-
-    /**
-     * Update group folder login_region and letter_subject from subletter data.
-     * 1. Query: SELECT DISTINCT group_uid, letter_subject, login_region FROM cms_digidak_folder WHERE group_uid != ''
-     * 2. Write results to update_group_folder_values.csv
-     * 3. For each row, normalize group_uid (G1/2024-25 -> G1-2024-25) and update the group folder
-     */
-    private void updateGroupFolderValuesFromSubletters() {
-        if (sessionManager == null) {
-            logger.warn("SessionManager not available, skipping group folder value update");
-            return;
-        }
-
-        logger.info("Updating group folder values (login_region, letter_subject) from subletter data...");
-
-        IDfSession session = null;
-        try {
-            session = sessionManager.getSession();
-
-            // Step 1: Query distinct group_uid, letter_subject, login_region
-            String dql = "SELECT DISTINCT group_uid, letter_subject, login_region FROM cms_digidak_folder WHERE group_uid != ''";
-            logger.info("Executing DQL: {}", dql);
-
-            IDfQuery query = new DfQuery();
-            query.setDQL(dql);
-            IDfCollection collection = query.execute(session, IDfQuery.DF_READ_QUERY);
-
-            // Collect results
-            List<String[]> results = new ArrayList<>();
-            while (collection.next()) {
-                String groupUid = collection.getString("group_uid");
-                String letterSubject = collection.getString("letter_subject");
-                String loginRegion = collection.getString("login_region");
-                results.add(new String[] { groupUid, letterSubject, loginRegion });
-            }
-            collection.close();
-
-            logger.info("Found {} distinct group_uid entries from subletter folders", results.size());
-
-            if (results.isEmpty()) {
-                logger.info("No group_uid values found, skipping group folder update");
-                return;
-            }
-
-            // Step 2: Write to update_group_folder_values.csv
-            String csvPath = config.getDataExportPath() + "/update_group_folder_values.csv";
-            try (PrintWriter writer = new PrintWriter(new java.io.OutputStreamWriter(new java.io.FileOutputStream(csvPath), java.nio.charset.StandardCharsets.UTF_8))) {
-                writer.println("group_uid,letter_subject,login_region");
-                for (String[] row : results) {
-                    // Escape CSV values
-                    writer.println("\"" + row[0].replace("\"", "\"\"") + "\","
-                            + "\"" + row[1].replace("\"", "\"\"") + "\","
-                            + "\"" + row[2].replace("\"", "\"\"") + "\"");
-                }
-                logger.info("Written {} rows to {}", results.size(), csvPath);
-                System.out.println("[GROUP UPDATE] Written " + results.size() + " rows to " + csvPath);
-            }
-
-            // Step 3: Update group folders
-            int updatedCount = 0;
-            for (String[] row : results) {
-                String groupUid = row[0];
-                String letterSubject = row[1];
-                String loginRegion = row[2];
-
-                // Normalize group_uid: G1/2024-25 -> G1-2024-25
-                String normalizedGroupUid = groupUid.replace("/", "-");
-
-                // Find group folder by object_name
-                String cabinetName = config.getCabinetName();
-                String groupFolderPath = "/" + cabinetName + "/" + normalizedGroupUid;
-                String groupFolderId = folderIdMap.get(groupFolderPath);
-
-                if (groupFolderId == null) {
-                    logger.debug("Group folder not found for object_name: {} (path: {})",
-                                normalizedGroupUid, groupFolderPath);
-                    continue;
-                }
-
-                // Update login_region and letter_subject on the group folder
-                try {
-                    Map<String, Object> updateAttrs = new HashMap<>();
-                    if (loginRegion != null && !loginRegion.trim().isEmpty()) {
-                        updateAttrs.put("login_region", loginRegion.trim());
-                    }
-                    if (letterSubject != null && !letterSubject.trim().isEmpty()) {
-                        updateAttrs.put("letter_subject", letterSubject.trim());
-                    }
-
-                    if (!updateAttrs.isEmpty()) {
-                        folderRepository.setFolderMetadata(groupFolderId, updateAttrs);
-                        updatedCount++;
-                        logger.info("Updated group folder '{}': login_region='{}', letter_subject='{}'",
-                                   normalizedGroupUid, loginRegion, letterSubject);
-                        System.out.println("[GROUP UPDATE] Updated " + normalizedGroupUid +
-                                         ": login_region=" + loginRegion + ", letter_subject=" + letterSubject);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error updating group folder '{}': {}", normalizedGroupUid, e.getMessage());
-                    System.out.println("[GROUP UPDATE] ERROR updating " + normalizedGroupUid + ": " + e.getMessage());
-                }
-            }
-
-            logger.info("Group folder update completed. Updated {} out of {} group folders",
-                        updatedCount, results.size());
-            System.out.println("[GROUP UPDATE] Completed. Updated " + updatedCount + " group folders");
-
-        } catch (Exception e) {
-            logger.error("Error updating group folder values: {}", e.getMessage(), e);
-            System.out.println("[GROUP UPDATE] ERROR: " + e.getMessage());
-        } finally {
-            if (session != null) {
-                sessionManager.releaseSession(session);
-            }
-        }
-    }
 }
@@ -2,12 +2,21 @@ package com.digidak.migration.service;
 
 import com.digidak.migration.config.MigrationConfig;
 import com.digidak.migration.model.ImportResult;
+import com.digidak.migration.parser.ExportCatalog;
+import com.digidak.migration.repository.DocumentUnitOfWork;
 import com.digidak.migration.repository.RealDocumentRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for creating movement registers
@@ -29,24 +38,59 @@ public class MovementRegisterService {
     }
 
     /**
-     * Create all movement registers
+     * Create all movement registers on a pool of migration.thread.pool.size threads
      */
     public void createAllMovementRegisters(ImportResult result) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.getThreadPoolSize()));
+        try {
+            createAllMovementRegisters(result, executor);
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Create all movement registers, one task per folder on the given (shared) pool
+     * Returns when every folder has been processed
+     */
+    public void createAllMovementRegisters(ImportResult result, ExecutorService executor) throws Exception {
         logger.info("Creating movement registers");
+        long startTime = System.currentTimeMillis();
 
-        // Create for single records
-        createMovementRegistersForDirectory("digidak_single_records", result);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            AtomicLong completed = new AtomicLong(0);
+
+            // Create for single records
+            submitMovementRegistersForDirectory("digidak_single_records", result, executor, tasks, completed);
+
+            // Create for subletter records
+            submitMovementRegistersForDirectory("digidak_subletter_records", result, executor, tasks, completed);
 
-        // Create for subletter records
-        createMovementRegistersForDirectory("digidak_subletter_records", result);
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            logger.info("Movement registers processed for {} folders in {} ms",
+                       completed.get(), System.currentTimeMillis() - startTime);
+        } finally {
+            // owner_name and is_migrated updates are batched; apply the remainder
+            for (String objectId : documentRepository.flushDeferredUpdates()) {
+                result.addError("Deferred owner_name/is_migrated update failed: " + objectId);
+            }
+        }
 
         logger.info("Movement register creation completed");
     }
 
     /**
-     * Create movement registers for a specific directory
+     * Submit one movement register task per subfolder of a directory
      */
-    private void createMovementRegistersForDirectory(String directoryName, ImportResult result) throws Exception {
+    private void submitMovementRegistersForDirectory(String directoryName, ImportResult result,
+                                                     ExecutorService executor, List<Future<?>> tasks,
+                                                     AtomicLong completed) {
         logger.info("Creating movement registers for: {}", directoryName);
 
         String basePath = config.getDataExportPath() + "/" + directoryName;
@@ -61,13 +105,16 @@ public class MovementRegisterService {
         File[] folders = baseDir.listFiles(File::isDirectory);
         if (folders != null) {
             for (File folder : folders) {
-                try {
-                    createMovementRegister(folder.getName(), result);
-                } catch (Exception e) {
-                    logger.error("Error creating movement register for: {}", folder.getName(), e);
-                    result.addError("Movement register creation failed: " + folder.getName() +
-                            " - " + e.getMessage());
-                }
+                tasks.add(executor.submit(() -> {
+                    try {
+                        createMovementRegister(folder.getName(), result);
+                    } catch (Exception e) {
+                        logger.error("Error creating movement register for: {}", folder.getName(), e);
+                        result.addError("Movement register creation failed: " + folder.getName() +
+                                " - " + e.getMessage());
+                    }
+                    completed.incrementAndGet();
+                }));
             }
         }
     }
@@ -183,19 +230,19 @@ public class MovementRegisterService {
                         if (objectId != null && !objectId.isEmpty()) {
                             registerMetadata.addCustomAttribute("migrated_id", objectId);
                         }
-                        // Always set is_migrated = true
-                        registerMetadata.addCustomAttribute("is_migrated", true);
+                        // is_migrated is stamped set-based after save (ConstantAttributeStamper)
 
-                        // Create in repository
-                        String registerId = documentRepository.createDocument(registerMetadata, folderId);
-                        documentRepository.setMetadata(registerId, registerMetadata);
+                        // Create in repository (one session and object handle through save)
+                        try (DocumentUnitOfWork work = documentRepository.begin(registerMetadata, folderId)) {
+                            work.setMetadata(registerMetadata);
 
-                        // Set repeating assigned_user attribute from repeating_send_to.csv
-                        if (objectId != null && !objectId.isEmpty()) {
-                            setRepeatingAssignedUsers(registerId, objectId); // objectId is set as migrated_id
-                        }
+                            // Set repeating assigned_user attribute from repeating_send_to.csv
+                            if (objectId != null && !objectId.isEmpty()) {
+                                setRepeatingAssignedUsers(work, objectId); // objectId is set as migrated_id
+                            }
 
-                        documentRepository.save(registerId, registerMetadata);
+                            work.save(registerMetadata);
+                        }
 
                         registerCount++;
                         result.incrementMovementRegisters();
@@ -276,9 +323,11 @@ public class MovementRegisterService {
         registerMetadata.addCustomAttribute("related_document_id", documentId);
         registerMetadata.addCustomAttribute("creation_date", new java.util.Date());
 
-        String registerId = documentRepository.createDocument(registerMetadata, folderId);
-        documentRepository.setMetadata(registerId, registerMetadata);
-        documentRepository.save(registerId);
+        String registerId;
+        try (DocumentUnitOfWork work = documentRepository.begin(registerMetadata, folderId)) {
+            work.setMetadata(registerMetadata);
+            registerId = work.save();
+        }
 
         logger.debug("Document movement register created: {}", registerId);
         return registerId;
@@ -301,13 +350,11 @@ public class MovementRegisterService {
                 }
             }
 
-            // Fallback: search all folder IDs for a path ending with this folder name
-            for (java.util.Map.Entry<String, String> entry : folderService.getAllFolderIds().entrySet()) {
-                String path = entry.getKey();
-                if (path.endsWith("/" + folderName)) {
-                    logger.debug("Found folder by path search: {}", path);
-                    return entry.getValue();
-                }
+            // Fallback: look up the folder name under any parent
+            String folderId = folderService.getFolderIdByLeafName(folderName);
+            if (folderId != null) {
+                logger.debug("Found folder by name lookup: {}", folderName);
+                return folderId;
             }
         } catch (Exception e) {
             logger.warn("Error finding subletter folder {}: {}", folderName, e.getMessage());
@@ -318,72 +365,24 @@ public class MovementRegisterService {
     /**
      * Set repeating assigned_user attribute from repeating_send_to.csv
      * Per requirements: send_to -> assigned_user (repeating attribute)
-     * Matches on migrated_id column (falls back to r_object_id for backward compatibility)
+     * Values come from the export catalog's send_to index, keyed on migrated_id
+     * (r_object_id for exports without a migrated_id column)
      */
-    private void setRepeatingAssignedUsers(String registerId, String migratedId) throws Exception {
+    private void setRepeatingAssignedUsers(DocumentUnitOfWork work, String migratedId) throws Exception {
         logger.debug("Setting repeating assigned_user for movement register: {} (migrated_id: {})",
-                     registerId, migratedId);
-
-        // Read repeating_send_to.csv file
-        String csvPath = config.getDataExportPath() + "/repeating_send_to.csv";
-        File csvFile = new File(csvPath);
+                     work.getDocumentId(), migratedId);
 
-        if (!csvFile.exists()) {
-            logger.warn("repeating_send_to.csv not found: {}", csvPath);
+        ExportCatalog catalog = folderService.getExportCatalog();
+        if (!catalog.hasRepeatingFile("send_to")) {
+            logger.warn("repeating_send_to.csv not found in export, skipping assigned_user");
             return;
         }
 
-        java.util.List<String> assignedUsers = new java.util.ArrayList<>();
-
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(new java.io.FileInputStream(csvFile), java.nio.charset.StandardCharsets.UTF_8))) {
-            com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader);
-
-            // Read header
-            String[] headers = csvReader.readNext();
-            if (headers == null) {
-                csvReader.close();
-                return;
-            }
-
-            // Find column indices - check for migrated_id first, fallback to r_object_id
-            int migratedIdIndex = findColumnIndex(headers, "migrated_id");
-            if (migratedIdIndex < 0) {
-                migratedIdIndex = findColumnIndex(headers, "r_object_id");
-                logger.debug("Using r_object_id column for matching (migrated_id column not found)");
-            } else {
-                logger.debug("Using migrated_id column for matching");
-            }
-            int sendToIndex = findColumnIndex(headers, "send_to");
-
-            if (migratedIdIndex < 0 || sendToIndex < 0) {
-                logger.warn("Required columns not found in repeating_send_to.csv (need migrated_id/r_object_id and send_to)");
-                csvReader.close();
-                return;
-            }
-
-            // Read all rows and collect assigned users for this migrated_id
-            String[] values;
-            while ((values = csvReader.readNext()) != null) {
-                if (values.length > Math.max(migratedIdIndex, sendToIndex)) {
-                    String rowMigratedId = values[migratedIdIndex].trim();
-                    if (migratedId.equals(rowMigratedId)) {
-                        String sendTo = values[sendToIndex].trim();
-                        if (!sendTo.isEmpty()) {
-                            assignedUsers.add(sendTo);
-                            logger.debug("Found assigned user for migrated_id {}: {}", migratedId, sendTo);
-                        }
-                    }
-                }
-            }
-            csvReader.close();
-        } catch (Exception e) {
-            logger.error("Error reading repeating_send_to.csv: {}", e.getMessage(), e);
-            throw e;
-        }
+        List<String> assignedUsers = catalog.getRepeatingValues("send_to", migratedId);
 
         // Set repeating assigned_user attribute if we found any users
         if (!assignedUsers.isEmpty()) {
-            documentRepository.setRepeatingAttribute(registerId, "assigned_user", assignedUsers);
+            work.setRepeatingAttribute("assigned_user", assignedUsers);
             logger.info("Set {} assigned user(s) for movement register with migrated_id {}",
                        assignedUsers.size(), migratedId);
         } else {
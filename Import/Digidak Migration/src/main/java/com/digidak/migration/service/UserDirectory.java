@@ -0,0 +1,219 @@
+package com.digidak.migration.service;
+
+import com.documentum.fc.client.DfQuery;
+import com.documentum.fc.client.IDfCollection;
+import com.documentum.fc.client.IDfQuery;
+import com.documentum.fc.client.IDfSession;
+import com.documentum.fc.common.DfException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory copy of dm_user for resolving CSV display names without per-name queries
+ * Streams user_name, user_login_name and user_os_name once and indexes them exactly,
+ * case-folded and by normalized name (titles, dots and extra spaces removed), so display
+ * names and generated login variations resolve locally.
+ * Read-only after load and safe to share between threads.
+ */
+public class UserDirectory {
+    private static final Logger logger = LogManager.getLogger(UserDirectory.class);
+
+    private static final String TITLE_PATTERN = "(?i)^(Shri|Smt|Ms\\.|Mr\\.|Dr\\.)\\s+";
+    // Same titles with or without a trailing dot, for normalized user_name matching
+    private static final String NORMALIZE_TITLE_PATTERN = "(?i)^(Shri|Smt|Mrs|Ms|Mr|Dr)\\.?\\s+";
+
+    /**
+     * One dm_user row
+     */
+    public static final class UserEntry {
+        private final String userName;
+        private final String loginName;
+        private final String osName;
+
+        UserEntry(String userName, String loginName, String osName) {
+            this.userName = userName;
+            this.loginName = loginName;
+            this.osName = osName;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public String getLoginName() {
+            return loginName;
+        }
+
+        public String getOsName() {
+            return osName;
+        }
+    }
+
+    // First user registered under a key keeps it
+    private final Map<String, UserEntry> byUserName = new HashMap<>();
+    private final Map<String, UserEntry> byFoldedUserName = new HashMap<>();
+    private final Map<String, UserEntry> byNormalizedUserName = new HashMap<>();
+    private final Map<String, UserEntry> byFoldedLoginName = new HashMap<>();
+    private final Map<String, UserEntry> byFoldedOsName = new HashMap<>();
+
+    /**
+     * Read the whole dm_user table with one query
+     */
+    public static UserDirectory load(IDfSession session) throws DfException {
+        long startTime = System.currentTimeMillis();
+        UserDirectory directory = new UserDirectory();
+
+        IDfQuery query = new DfQuery();
+        query.setDQL("SELECT user_name, user_login_name, user_os_name FROM dm_user");
+        IDfCollection collection = query.execute(session, IDfQuery.DF_READ_QUERY);
+        try {
+            while (collection.next()) {
+                directory.add(collection.getString("user_name"),
+                             collection.getString("user_login_name"),
+                             collection.getString("user_os_name"));
+            }
+        } finally {
+            collection.close();
+        }
+
+        logger.info("Loaded user directory: {} dm_user entries in {} ms",
+                   directory.size(), System.currentTimeMillis() - startTime);
+        return directory;
+    }
+
+    void add(String userName, String loginName, String osName) {
+        if (userName == null || userName.isEmpty()) {
+            return;
+        }
+        UserEntry entry = new UserEntry(userName, loginName, osName);
+        byUserName.putIfAbsent(userName, entry);
+        byFoldedUserName.putIfAbsent(fold(userName), entry);
+        byNormalizedUserName.putIfAbsent(normalize(userName), entry);
+        if (loginName != null && !loginName.isEmpty()) {
+            byFoldedLoginName.putIfAbsent(fold(loginName), entry);
+        }
+        if (osName != null && !osName.isEmpty()) {
+            // DOMAIN\account -> account
+            byFoldedOsName.putIfAbsent(fold(osName.substring(osName.lastIndexOf('\\') + 1)), entry);
+        }
+    }
+
+    /**
+     * Resolve a display name: user_name (exact, case-insensitive, normalized), then
+     * generated login variations against user_login_name and user_os_name
+     */
+    public UserEntry resolve(String displayName) {
+        UserEntry entry = findByUserName(displayName);
+        return entry != null ? entry : findByLoginVariations(displayName);
+    }
+
+    /**
+     * Match on user_name: exact, then case-insensitive, then normalized
+     */
+    public UserEntry findByUserName(String displayName) {
+        if (displayName == null) {
+            return null;
+        }
+        UserEntry entry = byUserName.get(displayName);
+        if (entry == null) {
+            entry = byFoldedUserName.get(fold(displayName));
+        }
+        if (entry == null) {
+            entry = byNormalizedUserName.get(normalize(displayName));
+        }
+        return entry;
+    }
+
+    /**
+     * Match generated login variations ("E Prathap" -> eprathap, e.prathap, ...) on
+     * user_login_name, then user_os_name
+     */
+    public UserEntry findByLoginVariations(String displayName) {
+        if (displayName == null || displayName.trim().isEmpty()) {
+            return null;
+        }
+        List<String> variations = generateLoginVariations(displayName.trim());
+        for (String variation : variations) {
+            UserEntry entry = byFoldedLoginName.get(fold(variation));
+            if (entry != null) {
+                return entry;
+            }
+        }
+        for (String variation : variations) {
+            UserEntry entry = byFoldedOsName.get(fold(variation));
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return byUserName.size();
+    }
+
+    /**
+     * Every dm_user.user_name in the directory
+     */
+    public Set<String> getUserNames() {
+        return Collections.unmodifiableSet(byUserName.keySet());
+    }
+
+    /**
+     * Generate login name variations from display name
+     */
+    static List<String> generateLoginVariations(String displayName) {
+        List<String> variations = new ArrayList<>();
+
+        // Remove titles and prefixes
+        String cleaned = displayName.replaceAll(TITLE_PATTERN, "").trim();
+
+        String[] parts = cleaned.split("\\s+");
+
+        if (parts.length == 2) {
+            // firstname lastname
+            String first = parts[0];
+            String last = parts[1];
+
+            variations.add(first.toLowerCase() + last.toLowerCase()); // firstlast
+            variations.add(first.toLowerCase() + "." + last.toLowerCase()); // first.last
+            variations.add(first.charAt(0) + last.toLowerCase()); // flast
+            variations.add(last.toLowerCase() + first.charAt(0)); // lastf
+            variations.add(first.substring(0, Math.min(1, first.length())).toLowerCase() +
+                          last.toLowerCase()); // flast (safe version)
+        } else if (parts.length > 2) {
+            // Multiple parts - use first and last
+            String first = parts[0];
+            String last = parts[parts.length - 1];
+
+            variations.add(first.toLowerCase() + last.toLowerCase());
+            variations.add(first.toLowerCase() + "." + last.toLowerCase());
+            variations.add(first.charAt(0) + last.toLowerCase());
+        } else if (parts.length == 1) {
+            // Single name
+            variations.add(cleaned.toLowerCase());
+        }
+
+        return variations;
+    }
+
+    /**
+     * "Smt. Shaban  Banu" -> "shaban banu"
+     */
+    static String normalize(String name) {
+        String cleaned = name.trim().replaceAll(NORMALIZE_TITLE_PATTERN, "").replace('.', ' ');
+        return fold(cleaned.replaceAll("\\s+", " ").trim());
+    }
+
+    private static String fold(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
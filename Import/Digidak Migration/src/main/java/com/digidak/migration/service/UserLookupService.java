@@ -14,18 +14,94 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Service for resolving user display names to login names
  * Handles user lookup from Documentum dm_user table with caching and normalization
+ *
+ * In directory mode (the default) dm_user is read once into a {@link UserDirectory} and
+ * every name, including its login variations, is resolved in memory. If the directory
+ * cannot be loaded the service falls back to per-name dm_user queries.
  */
 public class UserLookupService {
     private static final Logger logger = LogManager.getLogger(UserLookupService.class);
 
     private RealSessionManager sessionManager;
     private Map<String, String> userLoginCache; // displayName -> loginName
+    private final Map<String, String> userNameCache = new ConcurrentHashMap<>(); // displayName -> dm_user.user_name
     private Set<String> notFoundUsers; // Track users not found
+    private volatile boolean directoryMode;
+    private volatile UserDirectory directory;
 
     public UserLookupService(RealSessionManager sessionManager) {
+        this(sessionManager, true);
+    }
+
+    public UserLookupService(RealSessionManager sessionManager, boolean directoryMode) {
         this.sessionManager = sessionManager;
         this.userLoginCache = new ConcurrentHashMap<>();
         this.notFoundUsers = ConcurrentHashMap.newKeySet();
+        this.directoryMode = directoryMode;
+    }
+
+    /**
+     * Load the dm_user directory now instead of on the first lookup (no-op outside directory mode)
+     */
+    public void preloadDirectory() {
+        getDirectory();
+    }
+
+    /**
+     * dm_user.user_name values from the directory, loading it if needed
+     * Returns null when directory mode is off or the load failed
+     */
+    public Set<String> getUserNames() {
+        UserDirectory userDirectory = getDirectory();
+        return userDirectory != null ? userDirectory.getUserNames() : null;
+    }
+
+    /**
+     * The dm_user directory, loaded on first use; null when directory mode is off or the load failed
+     */
+    private UserDirectory getDirectory() {
+        UserDirectory loaded = directory;
+        if (loaded != null || !directoryMode) {
+            return loaded;
+        }
+        synchronized (this) {
+            if (directory == null && directoryMode) {
+                IDfSession session = null;
+                try {
+                    session = sessionManager.getSession();
+                    directory = UserDirectory.load(session);
+                } catch (Exception e) {
+                    logger.warn("Failed to load dm_user directory, falling back to per-user queries: {}",
+                               e.getMessage(), e);
+                    directoryMode = false;
+                } finally {
+                    if (session != null) {
+                        sessionManager.releaseSession(session);
+                    }
+                }
+            }
+            return directory;
+        }
+    }
+
+    /**
+     * Resolve a name from the directory and cache it under the CSV name and dm_user.user_name
+     * Returns the matched entry, or null (the name is then marked as not found)
+     */
+    private UserDirectory.UserEntry resolveFromDirectory(UserDirectory userDirectory, String displayName) {
+        UserDirectory.UserEntry entry = userDirectory.resolve(displayName);
+        if (entry == null || entry.getLoginName() == null) {
+            notFoundUsers.add(displayName);
+            logger.warn("User not found in Documentum: '{}'", displayName);
+            return null;
+        }
+        userLoginCache.put(displayName, entry.getLoginName());
+        userLoginCache.put(entry.getUserName(), entry.getLoginName());
+        if (!entry.getUserName().equals(displayName)) {
+            logger.debug("Resolved user '{}' to user_name='{}', login='{}' from directory",
+                        displayName, entry.getUserName(), entry.getLoginName());
+        }
+        return entry;
     }
 
     /**
@@ -49,6 +125,12 @@ public class UserLookupService {
             return null;
         }
 
+        UserDirectory userDirectory = getDirectory();
+        if (userDirectory != null) {
+            UserDirectory.UserEntry entry = resolveFromDirectory(userDirectory, displayName);
+            return entry != null ? entry.getLoginName() : null;
+        }
+
         IDfSession session = null;
         try {
             session = sessionManager.getSession();
@@ -81,6 +163,87 @@ public class UserLookupService {
         }
     }
 
+    /**
+     * Resolve display names to dm_user.user_name (the accessor name ACL grant() needs)
+     * Names that cannot be resolved are left out of the result
+     */
+    public Map<String, String> resolveUserNames(Collection<String> displayNames) {
+        Map<String, String> userNames = new HashMap<>();
+        UserDirectory userDirectory = getDirectory();
+        Set<String> toQuery = new LinkedHashSet<>();
+        for (String displayName : displayNames) {
+            if (displayName == null || displayName.trim().isEmpty()) {
+                continue;
+            }
+            String trimmed = displayName.trim();
+            if (userDirectory != null) {
+                UserDirectory.UserEntry entry = resolveFromDirectory(userDirectory, trimmed);
+                if (entry != null) {
+                    userNames.put(trimmed, entry.getUserName());
+                }
+            } else if (userNameCache.containsKey(trimmed)) {
+                userNames.put(trimmed, userNameCache.get(trimmed));
+            } else if (!notFoundUsers.contains(trimmed)) {
+                toQuery.add(trimmed);
+            }
+        }
+        if (!toQuery.isEmpty()) {
+            userNames.putAll(queryUserNames(new ArrayList<>(toQuery)));
+        }
+        return userNames;
+    }
+
+    /**
+     * Resolve display names to dm_user.user_name with batched dm_user queries
+     * (exact, then case-insensitive, then login name variations); outside directory mode
+     */
+    private Map<String, String> queryUserNames(List<String> displayNames) {
+        Map<String, String> userNames = new HashMap<>();
+        IDfSession session = null;
+        try {
+            session = sessionManager.getSession();
+            for (int i = 0; i < displayNames.size(); i += 50) {
+                List<String> batch = displayNames.subList(i, Math.min(i + 50, displayNames.size()));
+                Map<String, String> batchResults = queryUsersInBatch(session, batch);
+                for (String name : batch) {
+                    String userName = batchResults.containsKey(name) ? name : null;
+                    if (userName == null) {
+                        for (String candidate : batchResults.keySet()) {
+                            if (candidate.equalsIgnoreCase(name)) {
+                                userName = candidate;
+                                break;
+                            }
+                        }
+                    }
+                    String loginName = userName != null ? batchResults.get(userName) : null;
+                    if (userName == null) {
+                        String[] resolved = tryNormalizedUserLookupFull(session, name);
+                        if (resolved != null) {
+                            userName = resolved[0];
+                            loginName = resolved[1];
+                        }
+                    }
+                    if (userName == null) {
+                        notFoundUsers.add(name);
+                        logger.warn("User not found in Documentum: '{}'", name);
+                        continue;
+                    }
+                    userNameCache.put(name, userName);
+                    userLoginCache.put(name, loginName);
+                    userLoginCache.put(userName, loginName);
+                    userNames.put(name, userName);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error resolving user names: {}", e.getMessage(), e);
+        } finally {
+            if (session != null) {
+                sessionManager.releaseSession(session);
+            }
+        }
+        return userNames;
+    }
+
     /**
      * Batch resolve multiple users (optimization)
      */
@@ -121,6 +284,23 @@ public class UserLookupService {
             return results;
         }
 
+        UserDirectory userDirectory = getDirectory();
+        if (userDirectory != null) {
+            // Keys are dm_user.user_name (required for ACL grant())
+            int resolved = 0;
+            for (String name : toQuery) {
+                UserDirectory.UserEntry entry = resolveFromDirectory(userDirectory, name);
+                if (entry != null) {
+                    results.put(entry.getUserName(), entry.getLoginName());
+                    resolved++;
+                }
+            }
+            logger.info("=== USER LOOKUP === Resolved {} of {} users from the dm_user directory",
+                       resolved, toQuery.size());
+            logger.info("=== USER LOOKUP === batchResolveUsers returning {} total results: {}", results.size(), results);
+            return results;
+        }
+
         logger.info("=== USER LOOKUP === Need to query {} users from dm_user", toQuery.size());
 
         IDfSession session = null;
@@ -268,7 +448,7 @@ public class UserLookupService {
         // "E Prathap" -> "eprathap", "e.prathap", "prathape"
         // "Smt Shaban Banu" -> "shabanbanu", "s.banu"
 
-        List<String> variations = generateLoginVariations(displayName);
+        List<String> variations = UserDirectory.generateLoginVariations(displayName);
 
         for (String variation : variations) {
             try {
@@ -304,7 +484,7 @@ public class UserLookupService {
      * Returns String[]{user_name, user_login_name} or null if not found.
      */
     private String[] tryNormalizedUserLookupFull(IDfSession session, String displayName) {
-        List<String> variations = generateLoginVariations(displayName);
+        List<String> variations = UserDirectory.generateLoginVariations(displayName);
 
         for (String variation : variations) {
             try {
@@ -334,44 +514,6 @@ public class UserLookupService {
         return null;
     }
 
-    /**
-     * Generate login name variations from display name
-     */
-    private List<String> generateLoginVariations(String displayName) {
-        List<String> variations = new ArrayList<>();
-
-        // Remove titles and prefixes
-        String cleaned = displayName.replaceAll("(?i)^(Shri|Smt|Ms\\.|Mr\\.|Dr\\.)\\s+", "").trim();
-
-        String[] parts = cleaned.split("\\s+");
-
-        if (parts.length == 2) {
-            // firstname lastname
-            String first = parts[0];
-            String last = parts[1];
-
-            variations.add(first.toLowerCase() + last.toLowerCase()); // firstlast
-            variations.add(first.toLowerCase() + "." + last.toLowerCase()); // first.last
-            variations.add(first.charAt(0) + last.toLowerCase()); // flast
-            variations.add(last.toLowerCase() + first.charAt(0)); // lastf
-            variations.add(first.substring(0, Math.min(1, first.length())).toLowerCase() +
-                          last.toLowerCase()); // flast (safe version)
-        } else if (parts.length > 2) {
-            // Multiple parts - use first and last
-            String first = parts[0];
-            String last = parts[parts.length - 1];
-
-            variations.add(first.toLowerCase() + last.toLowerCase());
-            variations.add(first.toLowerCase() + "." + last.toLowerCase());
-            variations.add(first.charAt(0) + last.toLowerCase());
-        } else if (parts.length == 1) {
-            // Single name
-            variations.add(cleaned.toLowerCase());
-        }
-
-        return variations;
-    }
-
     /**
      * Escape single quotes in DQL
      */
@@ -401,6 +543,7 @@ public class UserLookupService {
      */
     public void clearCache() {
         userLoginCache.clear();
+        userNameCache.clear();
         notFoundUsers.clear();
     }
 }
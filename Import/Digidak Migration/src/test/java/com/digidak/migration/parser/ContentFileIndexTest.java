@@ -0,0 +1,49 @@
+package com.digidak.migration.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContentFileIndex
+ */
+class ContentFileIndexTest {
+
+    @TempDir
+    Path recordDir;
+
+    @Test
+    void testExactThenBaseNameThenPrefix() throws Exception {
+        touch("letter.pdf.pdf");
+        touch("letter.pdf");
+        touch("annexure_1.docx");
+        touch("report.docx");
+        touch("document_metadata.csv");
+
+        ContentFileIndex index = ContentFileIndex.of(recordDir.toFile());
+
+        assertEquals(4, index.size());
+        assertEquals("letter.pdf", index.findContentFile("letter.pdf").getName());
+        assertEquals("report.docx", index.findContentFile("report.pdf").getName());
+        assertEquals("annexure_1.docx", index.findContentFile("annexure.pdf").getName());
+        assertNull(index.findContentFile("document_metadata.pdf"));
+        assertNull(index.findContentFile("missing.pdf"));
+        assertNull(index.findContentFile(" "));
+    }
+
+    @Test
+    void testMissingDirectoryIsEmpty() {
+        ContentFileIndex index = ContentFileIndex.of(recordDir.resolve("missing").toFile());
+
+        assertEquals(0, index.size());
+        assertNull(index.findByPrefix("a"));
+    }
+
+    private void touch(String name) throws Exception {
+        Files.createFile(recordDir.resolve(name));
+    }
+}
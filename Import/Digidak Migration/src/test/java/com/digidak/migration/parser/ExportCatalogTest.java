@@ -0,0 +1,89 @@
+package com.digidak.migration.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExportCatalog
+ */
+class ExportCatalogTest {
+
+    @TempDir
+    Path exportDir;
+
+    @Test
+    void testLookupsByIdAndName() throws Exception {
+        write("DigidakGroupRecords_Export.csv",
+                "r_object_id,object_name,ho_ro_te\n" +
+                "0b01,G1-2024-25,HO\n");
+        write("DigidakSubletterRecords_Export.csv",
+                "r_object_id,object_name,group_id,ho_ro_te,from_dept_ro_te\n" +
+                "0b02,4245-2024-25,G1/2024-25,RO,Kerala\n" +
+                "0b03,4246-2024-25,G1/2024-25,TE,Goa\n");
+
+        ExportCatalog catalog = ExportCatalog.load(exportDir.toString(), 4);
+
+        assertTrue(catalog.containsId(ExportCatalog.GROUP_RECORDS_CSV, "0b01"));
+        assertFalse(catalog.containsId(ExportCatalog.GROUP_RECORDS_CSV, "0b02"));
+        assertEquals("G1/2024-25",
+                catalog.findByName(ExportCatalog.SUBLETTER_RECORDS_CSV, "4245-2024-25").get("group_id"));
+        assertEquals("Goa", catalog.findById("0b03").get("from_dept_ro_te"));
+        assertEquals(Arrays.asList("0b02", "0b03"), catalog.getIds(ExportCatalog.SUBLETTER_RECORDS_CSV));
+        assertNull(catalog.findById("missing"));
+        assertEquals(3, catalog.getRecordCount());
+    }
+
+    @Test
+    void testRepeatingValuesKeepFileOrder() throws Exception {
+        write("repeating_workflow_users.csv",
+                "r_object_id,workflow_users\n" +
+                "0b02,alice\n" +
+                "0b03,carol\n" +
+                "0b02,bob\n" +
+                "0b02,\n");
+        write("repeating_office_type.csv",
+                "migrated_id,r_object_id,office_type\n" +
+                "0b02,0bxx,Finance\n");
+
+        ExportCatalog catalog = ExportCatalog.load(exportDir.toString(), 2);
+
+        assertEquals(Arrays.asList("alice", "bob"), catalog.getRepeatingValues("workflow_users", "0b02"));
+        assertEquals(Arrays.asList("Finance"), catalog.getRepeatingValues("office_type", "0b02"));
+        assertTrue(catalog.getRepeatingValues("office_type", "0bxx").isEmpty());
+        assertTrue(catalog.hasRepeatingFile("workflow_users"));
+        assertFalse(catalog.hasRepeatingFile("vertical_users"));
+    }
+
+    @Test
+    void testGroupWorkflowUsersOnlyFromOwnSubletters() throws Exception {
+        write("DigidakSubletterRecords_Export.csv",
+                "r_object_id,object_name,group_id\n" +
+                "0b02,4245-2024-25,G1/2024-25\n" +
+                "0b03,4246-2024-25,G1/2024-25\n" +
+                "0b04,4247-2024-25,G2/2024-25\n");
+        write("repeating_workflow_users.csv",
+                "r_object_id,workflow_users\n" +
+                "0b02,alice\n" +
+                "0b03,bob\n" +
+                "0b03,alice\n" +
+                "0b04,dave\n");
+
+        ExportCatalog catalog = ExportCatalog.load(exportDir.toString(), 2);
+
+        assertEquals(Arrays.asList("0b02", "0b03"), catalog.getSubletterIds("G1-2024-25"));
+        assertEquals(Arrays.asList("alice", "bob"), catalog.getGroupWorkflowUsers("G1/2024-25"));
+        assertEquals(Arrays.asList("dave"), catalog.getGroupWorkflowUsers("G2-2024-25"));
+        assertTrue(catalog.getGroupWorkflowUsers("G3-2024-25").isEmpty());
+    }
+
+    private void write(String fileName, String content) throws Exception {
+        Files.write(exportDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,32 @@
+package com.digidak.migration.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConstantAttributeStamper
+ */
+class ConstantAttributeStamperTest {
+
+    @Test
+    void testSetClauseForMigratedFolders() {
+        assertEquals("SET status = 'Closed', SET is_migrated = TRUE",
+                     ConstantAttributeStamper.setClause(ConstantAttributeStamper.MIGRATED_CLOSED));
+        assertEquals("SET is_migrated = TRUE",
+                     ConstantAttributeStamper.setClause(ConstantAttributeStamper.MIGRATED));
+    }
+
+    @Test
+    void testSetClauseQuotesStrings() {
+        Map<String, Object> constants = new LinkedHashMap<>();
+        constants.put("letter_subject", "Officer's note");
+        constants.put("priority", 2);
+
+        assertEquals("SET letter_subject = 'Officer''s note', SET priority = 2",
+                     ConstantAttributeStamper.setClause(constants));
+    }
+}
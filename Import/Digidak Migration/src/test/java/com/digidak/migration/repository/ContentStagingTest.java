@@ -0,0 +1,85 @@
+package com.digidak.migration.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContentStaging
+ */
+class ContentStagingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testShortPathIsUsedAsIs() throws Exception {
+        File content = Files.write(tempDir.resolve("letter.pdf"), new byte[]{1, 2, 3}).toFile();
+        ContentStaging staging = new ContentStaging(tempDir.resolve("stage"));
+
+        try (ContentStaging.StagedContent staged = staging.stage(content)) {
+            assertFalse(staged.isStaged());
+            assertEquals(content, staged.getFile());
+        }
+        assertTrue(content.exists());
+    }
+
+    @Test
+    void testLongPathIsStagedWithoutCopy() throws Exception {
+        String name = longName();
+        Path recordDir = Files.createDirectories(tempDir.resolve(name));
+        File content = Files.write(recordDir.resolve(name + ".pdf"),
+                "content".getBytes(StandardCharsets.UTF_8)).toFile();
+        assertTrue(ContentStaging.needsStaging(content.getAbsolutePath()));
+
+        ContentStaging staging = new ContentStaging(tempDir.resolve("stage"));
+        File alias;
+        try (ContentStaging.StagedContent staged = staging.stage(content)) {
+            alias = staged.getFile();
+            assertTrue(staged.isStaged());
+            assertTrue(alias.getName().endsWith(".pdf"));
+            assertFalse(ContentStaging.needsStaging(alias.getAbsolutePath()));
+            assertEquals("content", new String(Files.readAllBytes(alias.toPath()), StandardCharsets.UTF_8));
+        }
+
+        assertFalse(alias.exists());
+        assertTrue(content.exists());
+        assertEquals(1, staging.getHardLinkedCount() + staging.getSymbolicLinkedCount() + staging.getCopiedCount());
+    }
+
+    @Test
+    void testOneFailedHardLinkDoesNotDisableHardLinks() throws Exception {
+        String name = longName();
+        Path recordDir = Files.createDirectories(tempDir.resolve(name));
+        File missing = recordDir.resolve(name + "-missing.pdf").toFile();
+        File content = Files.write(recordDir.resolve(name + ".pdf"),
+                "content".getBytes(StandardCharsets.UTF_8)).toFile();
+
+        ContentStaging staging = new ContentStaging(tempDir.resolve("stage"));
+        try (ContentStaging.StagedContent staged = staging.stage(missing)) {
+            assertEquals(0, staging.getHardLinkedCount());
+        } catch (IOException e) {
+            // No symbolic link or copy either for a missing file
+        }
+        try (ContentStaging.StagedContent staged = staging.stage(content)) {
+            assertTrue(staged.isStaged());
+        }
+        assertEquals(1, staging.getHardLinkedCount());
+    }
+
+    // Two 150-character levels put the path over the 255-byte limit
+    private static String longName() {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 150; i++) {
+            name.append('a');
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.digidak.migration.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyHistogram
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesUseBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3);
+        }
+        histogram.record(700);
+        histogram.record(1500);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(4, histogram.getPercentileMs(50));
+        assertEquals(1024, histogram.getPercentileMs(99));
+        assertEquals(1500, histogram.getPercentileMs(100));
+        assertEquals(1500, histogram.getMaxMs());
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMs(95));
+        assertEquals(0.0, histogram.getMeanMs());
+    }
+}
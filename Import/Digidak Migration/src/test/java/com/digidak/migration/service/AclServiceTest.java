@@ -0,0 +1,36 @@
+package com.digidak.migration.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AclService shared ACL naming
+ */
+class AclServiceTest {
+
+    @Test
+    void testSharedAclNameIgnoresOrderAndDuplicates() {
+        String name = AclService.sharedAclName(Arrays.asList("Shaji K V", "E Prathap"));
+
+        assertEquals(name, AclService.sharedAclName(Arrays.asList("E Prathap", " Shaji K V", "E Prathap")));
+        assertTrue(name.startsWith("acl_digidak_set_"));
+        assertEquals("acl_digidak_set_".length() + 16, name.length());
+    }
+
+    @Test
+    void testSharedAclNameDiffersPerUserSet() {
+        assertNotEquals(AclService.sharedAclName(Arrays.asList("E Prathap")),
+                        AclService.sharedAclName(Arrays.asList("E Prathap", "Shaji K V")));
+    }
+
+    @Test
+    void testNormalizeAccessorsTrimsAndDropsBlanks() {
+        assertEquals(Arrays.asList("E Prathap", "Shaji K V"),
+                     new ArrayList<>(AclService.normalizeAccessors(
+                             Arrays.asList(" Shaji K V ", null, "", "  ", "E Prathap", "E Prathap"))));
+    }
+}
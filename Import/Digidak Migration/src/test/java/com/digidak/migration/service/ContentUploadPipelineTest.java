@@ -0,0 +1,119 @@
+package com.digidak.migration.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContentUploadPipeline
+ */
+class ContentUploadPipelineTest {
+
+    @Test
+    void testByteBudgetLimitsConcurrentUploads() throws Exception {
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong inFlightBytes = new AtomicLong(0);
+        AtomicLong maxInFlightBytes = new AtomicLong(0);
+
+        try (ContentUploadPipeline pipeline = new ContentUploadPipeline(4, 100)) {
+            for (int i = 0; i < 12; i++) {
+                pipeline.submit("file" + i, 40, () -> timer -> {
+                    maxInFlightBytes.accumulateAndGet(inFlightBytes.addAndGet(40), Math::max);
+                    Thread.sleep(20);
+                    inFlightBytes.addAndGet(-40);
+                    timer.saveTook(20);
+                }, failures::add);
+            }
+            pipeline.awaitIdle();
+
+            assertEquals(Collections.emptyList(), failures);
+            assertEquals(12, pipeline.getFilesUploaded());
+            assertEquals(480, pipeline.getBytesUploaded());
+            assertTrue(maxInFlightBytes.get() <= 80);
+        }
+    }
+
+    @Test
+    void testOversizedFileAndFailures() throws Exception {
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger closed = new AtomicInteger(0);
+
+        try (ContentUploadPipeline pipeline = new ContentUploadPipeline(2, 10)) {
+            pipeline.submit("large.pdf", 1000, () -> timer -> { }, failures::add);
+            pipeline.submit("broken.pdf", 5, () -> new ContentUploadPipeline.UploadTask() {
+                @Override
+                public void run(ContentUploadPipeline.UploadTimer timer) {
+                    throw new IllegalStateException("save failed");
+                }
+
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+            }, failures::add);
+            pipeline.awaitIdle();
+
+            assertEquals(1, pipeline.getFilesUploaded());
+            assertEquals(1, failures.size());
+            assertEquals("save failed", failures.get(0).getMessage());
+            assertEquals(1, closed.get());
+        }
+    }
+
+    @Test
+    void testTrySubmitDoesNotWaitForRoom() throws Exception {
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger prepared = new AtomicInteger(0);
+
+        try (ContentUploadPipeline pipeline = new ContentUploadPipeline(1, 100)) {
+            assertTrue(pipeline.trySubmit("first.pdf", 80, () -> {
+                prepared.incrementAndGet();
+                return timer -> release.await();
+            }, failures::add));
+            assertFalse(pipeline.trySubmit("second.pdf", 80, () -> {
+                prepared.incrementAndGet();
+                return timer -> { };
+            }, failures::add));
+
+            release.countDown();
+            pipeline.awaitIdle();
+
+            assertEquals(Collections.emptyList(), failures);
+            assertEquals(1, prepared.get());
+            assertEquals(1, pipeline.getFilesUploaded());
+        }
+    }
+
+    @Test
+    void testFailedPreparationReleasesBudget() throws Exception {
+        try (ContentUploadPipeline pipeline = new ContentUploadPipeline(1, 100)) {
+            assertThrows(IllegalStateException.class, () -> pipeline.submit("bad.pdf", 100, () -> {
+                throw new IllegalStateException("create failed");
+            }, e -> { }));
+
+            assertTrue(pipeline.trySubmit("next.pdf", 100, () -> timer -> { }, e -> { }));
+            pipeline.awaitIdle();
+            assertEquals(1, pipeline.getFilesUploaded());
+        }
+    }
+
+    @Test
+    void testSessionsNeeded() {
+        assertEquals(8, ContentUploadPipeline.sessionsNeeded(4));
+        assertEquals(0, ContentUploadPipeline.sessionsNeeded(0));
+    }
+
+    @Test
+    void testThroughput() {
+        assertEquals(2.0, ContentUploadPipeline.throughputMbPerSec(4 * 1024 * 1024, 2000), 0.0001);
+        assertEquals(0.0, ContentUploadPipeline.throughputMbPerSec(1024, 0));
+    }
+}
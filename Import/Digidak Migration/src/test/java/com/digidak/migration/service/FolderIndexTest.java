@@ -0,0 +1,37 @@
+package com.digidak.migration.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FolderIndex
+ */
+class FolderIndexTest {
+
+    @Test
+    void testLookupByPathNameAndParent() {
+        FolderIndex index = new FolderIndex();
+        index.put("/Digidak Legacy", "0c01");
+        index.put("/Digidak Legacy/G65-2024-25", "0b01");
+        index.put("/Digidak Legacy/G65-2024-25/4245-2024-25", "0b02");
+
+        assertEquals("0b02", index.getIdByPath("/Digidak Legacy/G65-2024-25/4245-2024-25"));
+        assertEquals("0b02", index.getIdByName("4245-2024-25"));
+        assertEquals("0c01", index.getIdByName("Digidak Legacy"));
+        assertTrue(index.getChildPaths("/Digidak Legacy").contains("/Digidak Legacy/G65-2024-25"));
+        assertTrue(index.getChildPaths("/Digidak Legacy/G65-2024-25/4245-2024-25").isEmpty());
+        assertNull(index.getIdByName("missing"));
+        assertEquals(3, index.asMap().size());
+    }
+
+    @Test
+    void testFirstFolderKeepsName() {
+        FolderIndex index = new FolderIndex();
+        index.put("/Digidak Legacy/G1-2024-25/100-2024-25", "0b01");
+        index.put("/Digidak Legacy/G2-2024-25/100-2024-25", "0b02");
+
+        assertEquals("0b01", index.getIdByName("100-2024-25"));
+        assertEquals("0b02", index.getIdByPath("/Digidak Legacy/G2-2024-25/100-2024-25"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.digidak.migration.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserDirectory
+ */
+class UserDirectoryTest {
+
+    @Test
+    void testResolveByUserName() {
+        UserDirectory directory = new UserDirectory();
+        directory.add("E Prathap", "eprathap", "CORP\\eprathap");
+        directory.add("Shaban Banu", "sbanu", "CORP\\sbanu");
+
+        assertEquals("eprathap", directory.resolve("E Prathap").getLoginName());
+        assertEquals("eprathap", directory.resolve("e prathap").getLoginName());
+        assertEquals("Shaban Banu", directory.resolve("Smt. Shaban  Banu").getUserName());
+        assertNull(directory.resolve("Unknown Person"));
+        assertEquals(2, directory.size());
+    }
+
+    @Test
+    void testResolveByLoginVariations() {
+        UserDirectory directory = new UserDirectory();
+        directory.add("PRATHAP E (GM)", "eprathap", null);
+        directory.add("Banu S", "sb001", "CORP\\shaban.banu");
+
+        assertEquals("PRATHAP E (GM)", directory.resolve("Shri E Prathap").getUserName());
+        assertEquals("sb001", directory.resolve("Shaban Banu").getLoginName());
+    }
+}